@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.regexi.GroupHandle;
+import nz.co.gregs.regexi.Match;
+import nz.co.gregs.regexi.Regex;
+import nz.co.gregs.regexi.RegexValueFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures finding every match and extracting named captures.
+ *
+ * @author gregorygraham
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Inputs.Size size;
+
+	private String text;
+	private Regex fields;
+	private RegexValueFinder values;
+	private GroupHandle key;
+	private GroupHandle value;
+
+	@Setup
+	public void setup() {
+		text = Inputs.text(size);
+		fields = Inputs.fields();
+		values = fields.returnValueFrom("value");
+		key = fields.getGroupHandle("key");
+		value = fields.getGroupHandle("value");
+	}
+
+	@Benchmark
+	public List<Match> getAllMatches() {
+		return fields.getAllMatches(text);
+	}
+
+	@Benchmark
+	public List<String> getAllValuesFrom() {
+		return values.getAllValuesFrom(text);
+	}
+
+	@Benchmark
+	public void getNamedCaptures(Blackhole blackhole) {
+		for (Match match : fields.getAllMatches(text)) {
+			blackhole.consume(match.getNamedCapture("key"));
+			blackhole.consume(match.getNamedCapture("value"));
+		}
+	}
+
+	@Benchmark
+	public void getGroupHandles(Blackhole blackhole) {
+		for (Match match : fields.getAllMatches(text)) {
+			blackhole.consume(key.from(match));
+			blackhole.consume(value.from(match));
+		}
+	}
+}
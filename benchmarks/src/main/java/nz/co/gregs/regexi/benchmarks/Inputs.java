@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.util.Random;
+import nz.co.gregs.regexi.Regex;
+
+/**
+ * The regexes and inputs shared by the benchmarks.
+ *
+ * <p>
+ * Inputs are generated from a fixed seed so every run, and every release,
+ * measures the same text. The text looks like a log: lines of timestamps,
+ * levels, key=value fields, numbers and durations, so the regexes find a
+ * realistic mixture of matches and near misses.</p>
+ *
+ * @author gregorygraham
+ */
+public final class Inputs {
+
+	/**
+	 * The sizes of input used by the benchmarks.
+	 */
+	public enum Size {
+		SMALL(100),
+		MEDIUM(10_000),
+		LARGE(1_000_000);
+
+		private final int length;
+
+		Size(int length) {
+			this.length = length;
+		}
+
+		/**
+		 * The approximate length of the input in chars.
+		 *
+		 * @return the length of the input
+		 */
+		public int getLength() {
+			return length;
+		}
+	}
+
+	private static final String[] LEVELS = new String[]{"INFO", "WARN", "ERROR", "DEBUG"};
+	private static final String[] KEYS = new String[]{"user", "host", "path", "status", "region"};
+	private static final String[] UNITS = new String[]{"day", "days", "hour", "hours", "minutes"};
+
+	private Inputs() {
+	}
+
+	/**
+	 * Creates log-like text of at least the length of the size.
+	 *
+	 * @param size the size of the text
+	 * @return the generated text
+	 */
+	public static String text(Size size) {
+		final Random random = new Random(42);
+		final StringBuilder text = new StringBuilder(size.getLength() + 200);
+		int line = 0;
+		while (text.length() < size.getLength()) {
+			text.append("2024-0").append(1 + random.nextInt(9)).append('-').append(10 + random.nextInt(18))
+					.append(' ').append(LEVELS[random.nextInt(LEVELS.length)])
+					.append(' ').append(KEYS[random.nextInt(KEYS.length)]).append('=').append("value").append(random.nextInt(1000))
+					.append(", took ").append(random.nextInt(100)).append('.').append(random.nextInt(100))
+					.append(" ").append(UNITS[random.nextInt(UNITS.length)])
+					.append(" line ").append(line++)
+					.append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Finds numbers, including decimals and signs, anywhere in the text.
+	 *
+	 * @return a new Regex
+	 */
+	public static Regex numbers() {
+		return Regex.startingAnywhere().number().once().toRegex();
+	}
+
+	/**
+	 * Finds key=value fields, capturing the key and value.
+	 *
+	 * @return a new Regex
+	 */
+	public static Regex fields() {
+		return Regex.startingAnywhere()
+				.beginNamedCapture("key").word().endNamedCapture()
+				.literal("=")
+				.beginNamedCapture("value").wordCharacter().oneOrMoreGreedy().endNamedCapture()
+				.toRegex();
+	}
+
+	/**
+	 * Finds durations like "2.5 days", capturing the value and unit.
+	 *
+	 * @return a new Regex
+	 */
+	public static Regex durations() {
+		return Regex.startingAnywhere()
+				.beginNamedCapture("value").numberIncludingScientificNotation().once().endNamedCapture()
+				.space().once()
+				.beginNamedCapture("unit").literal("day").or().literal("hour").endNamedCapture()
+				.literal("s").onceOrNotAtAllGreedy()
+				.toRegex();
+	}
+
+	/**
+	 * Finds the start of a log line, anchored to the beginning of the input.
+	 *
+	 * @return a new Regex
+	 */
+	public static Regex lineStart() {
+		return Regex.startingFromTheBeginning()
+				.digit().digit().digit().digit().literal("-")
+				.toRegex();
+	}
+
+	/**
+	 * Finds the end of the input.
+	 *
+	 * @return a new Regex
+	 */
+	public static Regex lineEnd() {
+		return Regex.startingAnywhere()
+				.literal("line ").digit().oneOrMoreGreedy().literal("\n")
+				.endOfInput()
+				.toRegex();
+	}
+}
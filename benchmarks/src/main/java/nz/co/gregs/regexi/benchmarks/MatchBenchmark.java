@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.regexi.Regex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the boolean matching methods on a shared Regex.
+ *
+ * <p>
+ * The Regexes are shared by every benchmark thread, as a Regex constant would
+ * be, so running with {@code -t} measures how matching scales across
+ * threads.</p>
+ *
+ * @author gregorygraham
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Inputs.Size size;
+
+	private String text;
+	private Regex durations;
+	private Regex absent;
+	private Regex lineStart;
+	private Regex lineEnd;
+
+	@Setup
+	public void setup() {
+		text = Inputs.text(size);
+		durations = Inputs.durations();
+		absent = Regex.startingAnywhere().literal("FATAL").space().number().once().toRegex();
+		lineStart = Inputs.lineStart();
+		lineEnd = Inputs.lineEnd();
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return durations.matches(text);
+	}
+
+	@Benchmark
+	public boolean matchesNothing() {
+		return absent.matches(text);
+	}
+
+	@Benchmark
+	public boolean matchesBeginningOf() {
+		return lineStart.matchesBeginningOf(text);
+	}
+
+	@Benchmark
+	public boolean matchesEndOf() {
+		return lineEnd.matchesEndOf(text);
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs a short benchmark suite and compares it to a stored baseline, failing
+ * if throughput has dropped or allocation has grown by more than a threshold.
+ *
+ * <p>
+ * The suite covers Regex.matches, getAllMatches and regex construction, with
+ * the GC profiler measuring the bytes allocated per operation. A markdown
+ * report comparing every benchmark to the baseline is written whether or not
+ * the gate passes.</p>
+ *
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar nz.co.gregs.regexi.benchmarks.RegressionGate [options]}</p>
+ *
+ * <ul>
+ * <li>--baseline=FILE the baseline properties file, default baseline.properties</li>
+ * <li>--report=FILE the report to write, default target/regression-report.md</li>
+ * <li>--throughput-threshold=0.25 the largest allowed fractional drop in
+ * throughput</li>
+ * <li>--allocation-threshold=0.10 the largest allowed fractional growth in
+ * bytes per operation</li>
+ * <li>--update or --update=true record the results as the new baseline
+ * instead of comparing them</li>
+ * </ul>
+ *
+ * <p>
+ * Throughput depends on the hardware so the baseline should be recorded on the
+ * machine that runs the gate. Allocation is much more stable and is the more
+ * reliable signal.</p>
+ *
+ * @author gregorygraham
+ */
+public class RegressionGate {
+
+	static final String SUITE = "MatchBenchmark\\.matches$|ExtractBenchmark\\.getAllMatches$|BuildBenchmark\\.build(AndCompile)?$";
+	static final String ALLOCATION = "gc.alloc.rate.norm";
+	// allocation differences smaller than this are noise from the profiler
+	private static final double ALLOCATION_SLACK = 16.0;
+
+	private Path baseline = Paths.get("baseline.properties");
+	private Path report = Paths.get("target", "regression-report.md");
+	private double throughputThreshold = 0.25;
+	private double allocationThreshold = 0.10;
+	private boolean update = false;
+
+	private RegressionGate() {
+	}
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		RegressionGate gate = new RegressionGate();
+		for (String arg : args) {
+			gate.configure(arg);
+		}
+		Map<String, Measurement> current = gate.runSuite();
+		if (gate.update) {
+			gate.writeBaseline(current);
+			System.out.println("Baseline recorded in " + gate.baseline.toAbsolutePath());
+		} else {
+			int regressions = gate.report(gate.readBaseline(), current);
+			System.out.println("Regression report written to " + gate.report.toAbsolutePath());
+			if (regressions > 0) {
+				System.err.println(regressions + " benchmark(s) regressed beyond the threshold or could not be checked");
+				System.exit(1);
+			}
+		}
+	}
+
+	private void configure(String arg) {
+		if (arg.startsWith("--baseline=")) {
+			baseline = Paths.get(valueOf(arg));
+		} else if (arg.startsWith("--report=")) {
+			report = Paths.get(valueOf(arg));
+		} else if (arg.startsWith("--throughput-threshold=")) {
+			throughputThreshold = Double.parseDouble(valueOf(arg));
+		} else if (arg.startsWith("--allocation-threshold=")) {
+			allocationThreshold = Double.parseDouble(valueOf(arg));
+		} else if (arg.equals("--update")) {
+			update = true;
+		} else if (arg.startsWith("--update=")) {
+			update = Boolean.parseBoolean(valueOf(arg));
+		} else {
+			throw new IllegalArgumentException("Unknown option: " + arg);
+		}
+	}
+
+	private static String valueOf(String arg) {
+		return arg.substring(arg.indexOf('=') + 1);
+	}
+
+	private Map<String, Measurement> runSuite() throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RegressionGate.class.getPackage().getName() + ".(" + SUITE + ")")
+				.param("size", "SMALL", "MEDIUM")
+				.addProfiler(GCProfiler.class)
+				.forks(1)
+				.threads(1)
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.milliseconds(500))
+				.timeUnit(TimeUnit.SECONDS)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+		Map<String, Measurement> measurements = new TreeMap<>();
+		for (RunResult result : results) {
+			Result<?> primary = result.getPrimaryResult();
+			Result<?> allocation = result.getSecondaryResults().get(ALLOCATION);
+			measurements.put(keyFor(result.getParams()),
+					new Measurement(primary.getScore(), allocation == null ? Double.NaN : allocation.getScore()));
+		}
+		return measurements;
+	}
+
+	private static String keyFor(BenchmarkParams params) {
+		String benchmark = params.getBenchmark();
+		String key = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+		String size = params.getParam("size");
+		return size == null ? key : key + "." + size;
+	}
+
+	private Map<String, Measurement> readBaseline() throws IOException {
+		if (!Files.exists(baseline)) {
+			throw new IOException("No baseline at " + baseline.toAbsolutePath() + ", run with --update to record one");
+		}
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(baseline, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		Map<String, Measurement> measurements = new TreeMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			if (name.endsWith(".throughput")) {
+				String key = name.substring(0, name.length() - ".throughput".length());
+				String bytes = properties.getProperty(key + ".bytesPerOp");
+				measurements.put(key, new Measurement(
+						Double.parseDouble(properties.getProperty(name)),
+						bytes == null ? Double.NaN : Double.parseDouble(bytes)));
+			}
+		}
+		return measurements;
+	}
+
+	private void writeBaseline(Map<String, Measurement> measurements) throws IOException {
+		// written by hand so the file is sorted and diffs cleanly
+		try (Writer writer = Files.newBufferedWriter(baseline, StandardCharsets.UTF_8)) {
+			writer.write("# Regexi benchmark baseline, recorded by RegressionGate --update\n");
+			writer.write("# throughput is ops/s, bytesPerOp is " + ALLOCATION + "\n");
+			for (Map.Entry<String, Measurement> entry : measurements.entrySet()) {
+				writer.write(entry.getKey() + ".throughput=" + format(entry.getValue().throughput) + "\n");
+				writer.write(entry.getKey() + ".bytesPerOp=" + format(entry.getValue().bytesPerOp) + "\n");
+			}
+		}
+	}
+
+	private int report(Map<String, Measurement> expected, Map<String, Measurement> actual) throws IOException {
+		StringBuilder table = new StringBuilder();
+		int regressions = compare(expected, actual, throughputThreshold, allocationThreshold, table);
+		Path parent = report.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Files.write(report, table.toString().getBytes(StandardCharsets.UTF_8));
+		System.out.print(table);
+		return regressions;
+	}
+
+	/**
+	 * Compares the results to the baseline, writing a markdown report.
+	 *
+	 * <p>
+	 * A result without an allocation measurement, for instance because the GC
+	 * profiler didn't run, can't be checked so it fails the gate, as does a
+	 * baseline benchmark without a result.</p>
+	 *
+	 * @return the number of benchmarks that failed the gate
+	 */
+	static int compare(Map<String, Measurement> expected, Map<String, Measurement> actual, double throughputThreshold, double allocationThreshold, StringBuilder table) {
+		int regressions = 0;
+		table.append("# Regexi benchmark regression report\n\n")
+				.append("Throughput threshold: -").append(percent(throughputThreshold))
+				.append(", allocation threshold: +").append(percent(allocationThreshold)).append("\n\n")
+				.append("| Benchmark | Baseline ops/s | Current ops/s | Change | Baseline B/op | Current B/op | Change | Result |\n")
+				.append("|---|---:|---:|---:|---:|---:|---:|---|\n");
+		for (Map.Entry<String, Measurement> entry : actual.entrySet()) {
+			Measurement now = entry.getValue();
+			Measurement then = expected.get(entry.getKey());
+			String verdict;
+			if (then == null) {
+				verdict = "NEW";
+			} else if (Double.isNaN(now.bytesPerOp) || Double.isNaN(then.bytesPerOp)) {
+				regressions++;
+				verdict = "MISSING " + ALLOCATION;
+			} else {
+				boolean slower = now.throughput < then.throughput * (1.0 - throughputThreshold);
+				boolean heavier = now.bytesPerOp - then.bytesPerOp > Math.max(then.bytesPerOp * allocationThreshold, ALLOCATION_SLACK);
+				if (slower || heavier) {
+					regressions++;
+					verdict = slower && heavier ? "SLOWER, ALLOCATES MORE" : slower ? "SLOWER" : "ALLOCATES MORE";
+				} else {
+					verdict = "ok";
+				}
+			}
+			table.append("| ").append(entry.getKey())
+					.append(" | ").append(then == null ? "" : format(then.throughput))
+					.append(" | ").append(format(now.throughput))
+					.append(" | ").append(then == null ? "" : change(then.throughput, now.throughput))
+					.append(" | ").append(then == null ? "" : format(then.bytesPerOp))
+					.append(" | ").append(format(now.bytesPerOp))
+					.append(" | ").append(then == null ? "" : change(then.bytesPerOp, now.bytesPerOp))
+					.append(" | ").append(verdict).append(" |\n");
+		}
+		for (String missing : expected.keySet()) {
+			if (!actual.containsKey(missing)) {
+				regressions++;
+				table.append("| ").append(missing).append(" | | | | | | | MISSING |\n");
+			}
+		}
+		return regressions;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String percent(double fraction) {
+		return String.format(Locale.ROOT, "%.0f%%", fraction * 100);
+	}
+
+	private static String change(double before, double after) {
+		if (before == 0.0) {
+			return after == 0.0 ? "0%" : "n/a";
+		}
+		return String.format(Locale.ROOT, "%+.1f%%", (after - before) / before * 100);
+	}
+
+	static class Measurement {
+
+		final double throughput;
+		final double bytesPerOp;
+
+		Measurement(double throughput, double bytesPerOp) {
+			this.throughput = throughput;
+			this.bytesPerOp = bytesPerOp;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.regexi.Regex;
+import nz.co.gregs.regexi.RegexReplacer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures replacing every match, both into new Strings and into a reused
+ * buffer.
+ *
+ * @author gregorygraham
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplaceBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Inputs.Size size;
+
+	private String text;
+	private RegexReplacer redactor;
+	private StringBuilder output;
+
+	@Setup
+	public void setup() {
+		text = Inputs.text(size);
+		final Regex fields = Inputs.fields();
+		redactor = fields.replaceWith().namedReference("key").literal("=<redacted>").getReplacer();
+		output = new StringBuilder(text.length());
+	}
+
+	@Benchmark
+	public String replaceAll() {
+		return redactor.replaceAll(text);
+	}
+
+	@Benchmark
+	public StringBuilder replaceAllIntoBuffer() throws IOException {
+		output.setLength(0);
+		redactor.replaceAll(text, output);
+		return output;
+	}
+}
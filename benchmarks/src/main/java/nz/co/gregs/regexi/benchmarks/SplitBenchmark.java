@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import nz.co.gregs.regexi.Regex;
+import nz.co.gregs.regexi.RegexSplitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures splitting text into lines and fields.
+ *
+ * @author gregorygraham
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitBenchmark {
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Inputs.Size size;
+
+	private String text;
+	private RegexSplitter lines;
+	private RegexSplitter separators;
+
+	@Setup
+	public void setup() {
+		text = Inputs.text(size);
+		lines = Regex.startingAnywhere().literal("\n").toRegex().toSplitter();
+		separators = Regex.startingAnywhere().anyCharacterIn(" ,=\n").oneOrMoreGreedy().toRegex().toSplitter();
+	}
+
+	@Benchmark
+	public List<String> splitToList() {
+		return lines.splitToList(text);
+	}
+
+	@Benchmark
+	public String[] splitOnSeparators() {
+		return separators.split(text);
+	}
+
+	@Benchmark
+	public long splitToStream() {
+		return separators.splitToStream(text).count();
+	}
+
+	@Benchmark
+	public CharSequence splitFirstPieces() {
+		// a lazy split only finds the pieces that are used
+		return separators.splitToStream(text).skip(5).findFirst().orElse("");
+	}
+}
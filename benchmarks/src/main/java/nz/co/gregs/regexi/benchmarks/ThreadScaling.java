@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with 1, 2, 4, ... threads up to the number of available
+ * processors, writing a JSON result file for each thread count.
+ *
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar nz.co.gregs.regexi.benchmarks.ThreadScaling [include regex] [output prefix]}</p>
+ *
+ * <p>
+ * The include regex defaults to every benchmark in this package and the
+ * output prefix defaults to "results", producing results-t1.json,
+ * results-t2.json, and so on.</p>
+ *
+ * @author gregorygraham
+ */
+public class ThreadScaling {
+
+	private ThreadScaling() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		final String include = args.length > 0 ? args[0] : ThreadScaling.class.getPackage().getName() + ".*";
+		final String prefix = args.length > 1 ? args[1] : "results";
+		final int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= processors; threads = nextThreadCount(threads, processors)) {
+			Options options = new OptionsBuilder()
+					.include(include)
+					.threads(threads)
+					.resultFormat(ResultFormatType.JSON)
+					.result(prefix + "-t" + threads + ".json")
+					.build();
+			new Runner(options).run();
+		}
+	}
+
+	private static int nextThreadCount(int threads, int processors) {
+		// always finish with every processor busy, even when it isn't a power of two
+		return threads < processors && threads * 2 > processors ? processors : threads * 2;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.benchmarks;
+
+import java.util.Map;
+import java.util.TreeMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author gregorygraham
+ */
+public class RegressionGateTest {
+
+	private static Map<String, RegressionGate.Measurement> results(double throughput, double bytesPerOp) {
+		Map<String, RegressionGate.Measurement> results = new TreeMap<>();
+		results.put("MatchBenchmark.matches.SMALL", new RegressionGate.Measurement(throughput, bytesPerOp));
+		return results;
+	}
+
+	@Test
+	public void testComparableResultsPass() {
+		System.out.println("nz.co.gregs.regexi.benchmarks.RegressionGateTest.testComparableResultsPass()");
+		StringBuilder report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, 352), results(990, 352), 0.25, 0.10, report), is(0));
+		assertThat(report.toString(), containsString("| ok |"));
+	}
+
+	@Test
+	public void testRegressionsFail() {
+		System.out.println("nz.co.gregs.regexi.benchmarks.RegressionGateTest.testRegressionsFail()");
+		StringBuilder report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, 352), results(500, 352), 0.25, 0.10, report), is(1));
+		assertThat(report.toString(), containsString("| SLOWER |"));
+		report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, 352), results(1000, 1000), 0.25, 0.10, report), is(1));
+		assertThat(report.toString(), containsString("| ALLOCATES MORE |"));
+	}
+
+	@Test
+	public void testMissingAllocationFails() {
+		System.out.println("nz.co.gregs.regexi.benchmarks.RegressionGateTest.testMissingAllocationFails()");
+		// a result without gc.alloc.rate.norm, as when the GC profiler doesn't run
+		StringBuilder report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, 352), results(1000, Double.NaN), 0.25, 0.10, report), is(1));
+		assertThat(report.toString(), containsString("MISSING gc.alloc.rate.norm"));
+		report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, Double.NaN), results(1000, 352), 0.25, 0.10, report), is(1));
+		assertThat(report.toString(), containsString("MISSING gc.alloc.rate.norm"));
+	}
+
+	@Test
+	public void testMissingBenchmarkFails() {
+		System.out.println("nz.co.gregs.regexi.benchmarks.RegressionGateTest.testMissingBenchmarkFails()");
+		StringBuilder report = new StringBuilder();
+		assertThat(RegressionGate.compare(results(1000, 352), new TreeMap<>(), 0.25, 0.10, report), is(1));
+		assertThat(report.toString(), containsString("| MISSING |"));
+	}
+}
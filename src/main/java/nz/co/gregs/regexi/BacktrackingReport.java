@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of analysing a regex for catastrophic backtracking.
+ *
+ * <p>
+ * The analysis is static: it examines the structure of the regex without
+ * running it. Each finding describes the quantifiers involved and a piece of
+ * text that, repeated many times and followed by text that doesn't match, will
+ * trigger the backtracking.</p>
+ *
+ * <p>
+ * The analysis considers searching within a string, as
+ * {@link Regex#matchesWithinString(java.lang.CharSequence) } does, and the regex
+ * engine stops as soon as it finds a match, so ambiguous quantifiers at the
+ * end of a regex are not reported. Back references and the contents of
+ * lookarounds are approximated and very large regexes may not be fully
+ * analysed, see {@link #isComplete() }.</p>
+ *
+ * @author gregorygraham
+ * @see Regex#getBacktrackingReport()
+ */
+public class BacktrackingReport implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final BacktrackingRisk risk;
+	private final List<String> findings;
+	private final boolean complete;
+
+	/**
+	 * Creates a report.
+	 *
+	 * @param risk the worst risk found
+	 * @param findings descriptions of the problems found
+	 * @param complete false if some of the regex could not be analysed
+	 */
+	public BacktrackingReport(BacktrackingRisk risk, List<String> findings, boolean complete) {
+		this.risk = risk;
+		this.findings = Collections.unmodifiableList(new ArrayList<>(findings));
+		this.complete = complete;
+	}
+
+	/**
+	 * The worst backtracking risk found.
+	 *
+	 * @return the risk
+	 */
+	public BacktrackingRisk getRisk() {
+		return risk;
+	}
+
+	/**
+	 * Descriptions of each problem found, worst first.
+	 *
+	 * @return the findings, empty if there is no risk
+	 */
+	public List<String> getFindings() {
+		return findings;
+	}
+
+	/**
+	 * Indicates whether the whole regex was analysed.
+	 *
+	 * <p>
+	 * Regexes that can't be parsed, or that are too large to analyse in a
+	 * reasonable time, produce incomplete reports. The risk of an incomplete
+	 * report only reflects the parts that were analysed.</p>
+	 *
+	 * @return true if the entire regex was analysed
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Tests whether the regex is known to be no riskier than the level given.
+	 *
+	 * @param acceptable the highest acceptable risk
+	 * @return true if the report is complete and the risk is acceptable
+	 */
+	public boolean isAtMost(BacktrackingRisk acceptable) {
+		return complete && risk.compareTo(acceptable) <= 0;
+	}
+
+	@Override
+	public String toString() {
+		return "BacktrackingReport{" + "risk=" + risk + ", complete=" + complete + ", findings=" + findings + '}';
+	}
+}
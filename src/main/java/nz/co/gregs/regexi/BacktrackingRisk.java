@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+/**
+ * How badly a regex can backtrack on inputs that almost match.
+ *
+ * <p>
+ * The levels are ordered from least to most dangerous so they can be compared
+ * with {@link #compareTo(java.lang.Enum) }.</p>
+ *
+ * @author gregorygraham
+ */
+public enum BacktrackingRisk {
+
+	/**
+	 * Every part of the input can only be matched one way, so backtracking is
+	 * bounded by the length of the input.
+	 */
+	NONE,
+	/**
+	 * Two quantifiers can share the same text, so the time taken can grow with a
+	 * power of the input length, for instance {@code \d+\.?\d+$}.
+	 */
+	POLYNOMIAL,
+	/**
+	 * A quantifier can match the same text in several ways, so the time taken
+	 * can double with each extra character, for instance {@code (a+)+b}.
+	 */
+	EXPONENTIAL
+}
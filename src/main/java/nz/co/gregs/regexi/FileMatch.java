@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.util.regex.MatchResult;
+
+/**
+ * A match found within a file by {@link RegexStreamer#getAllMatches(java.nio.file.Path)
+ * }.
+ *
+ * <p>
+ * The offsets of the match are available in both chars and bytes from the
+ * start of the file. The text of the match is read from the mapped file only
+ * when it is requested, so matches that are only counted or located never copy
+ * the file's contents into the heap.</p>
+ *
+ * @author gregorygraham
+ */
+public final class FileMatch {
+
+	private final Regex regex;
+	private final MatchResult result;
+	private final long start;
+	private final long end;
+	private final long byteStart;
+	private final long byteEnd;
+	private volatile Match match = null;
+
+	FileMatch(Regex regex, MatchResult result, long start, long end, long byteStart, long byteEnd) {
+		this.regex = regex;
+		this.result = result;
+		this.start = start;
+		this.end = end;
+		this.byteStart = byteStart;
+		this.byteEnd = byteEnd;
+	}
+
+	/**
+	 * The offset of the start of the match, in chars from the start of the
+	 * file.
+	 *
+	 * @return the offset of the first char of the match
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * The offset of the end of the match, in chars from the start of the file.
+	 *
+	 * @return the offset after the last char of the match
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * The offset of the start of the match, in bytes from the start of the
+	 * file.
+	 *
+	 * @return the offset of the first byte of the match
+	 */
+	public long getByteStart() {
+		return byteStart;
+	}
+
+	/**
+	 * The offset of the end of the match, in bytes from the start of the file.
+	 *
+	 * @return the offset after the last byte of the match
+	 */
+	public long getByteEnd() {
+		return byteEnd;
+	}
+
+	/**
+	 * Reads the text of the match from the file.
+	 *
+	 * @return the entire match
+	 */
+	public String getEntireMatch() {
+		return result.group();
+	}
+
+	/**
+	 * Reads the match, including its groups and named captures, from the file.
+	 *
+	 * <p>
+	 * The Match is created on the first request and reused after that.</p>
+	 *
+	 * @return the Match
+	 */
+	public Match getMatch() {
+		Match found = match;
+		if (found == null) {
+			found = regex.toMatch(result);
+			match = found;
+		}
+		return found;
+	}
+
+	@Override
+	public String toString() {
+		return "MATCH AT " + start + "-" + end + " :" + getEntireMatch();
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.io.Serializable;
+import java.util.regex.MatchResult;
+
+/**
+ * A precomputed reference to a named capture of a Regex.
+ *
+ * <p>
+ * The handle records the group number of the capture so values can be read
+ * from each Match, or any MatchResult of the Regex, by index without looking
+ * up the name. Get the handles once, with {@link Regex#getGroupHandle(java.lang.String)
+ * }, and reuse them for every match.</p>
+ *
+ * <p>
+ * For instance:</p>
+ * <pre>{@code
+ * GroupHandle year = regex.getGroupHandle("year");
+ * for (Match match : regex.getAllMatches(text)) {
+ *     String value = year.from(match);
+ * }
+ * }</pre>
+ *
+ * @author gregorygraham
+ */
+public final class GroupHandle implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String name;
+	private final int index;
+
+	GroupHandle(String name, int index) {
+		this.name = name;
+		this.index = index;
+	}
+
+	/**
+	 * The name of the capture.
+	 *
+	 * @return the name used to create the capture
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * The group number of the capture, as used by
+	 * {@link MatchResult#group(int) }.
+	 *
+	 * @return the group number
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Reads the value of the capture from the match.
+	 *
+	 * @param match a Match of the Regex that created this handle
+	 * @return the value of the capture, or null if it didn't take part in the
+	 * match
+	 */
+	public String from(Match match) {
+		return match.getGroup(index);
+	}
+
+	/**
+	 * Reads the value of the capture from the MatchResult.
+	 *
+	 * @param result a MatchResult, or Matcher, of the Regex that created this
+	 * handle
+	 * @return the value of the capture, or null if it didn't take part in the
+	 * match
+	 */
+	public String from(MatchResult result) {
+		return result.group(index);
+	}
+
+	/**
+	 * The position of the start of the capture within the source text.
+	 *
+	 * @param match a Match of the Regex that created this handle
+	 * @return the index of the first char of the capture, or -1 if it didn't
+	 * take part in the match
+	 */
+	public int startIn(Match match) {
+		return match.getStart(index);
+	}
+
+	/**
+	 * The position of the end of the capture within the source text.
+	 *
+	 * @param match a Match of the Regex that created this handle
+	 * @return the index after the last char of the capture, or -1 if it didn't
+	 * take part in the match
+	 */
+	public int endIn(Match match) {
+		return match.getEnd(index);
+	}
+
+	@Override
+	public String toString() {
+		return "GroupHandle{ name=" + name + ", index=" + index + "}";
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative longs with buckets that grow with the
+ * values.
+ *
+ * <p>
+ * Values below 32 are counted exactly, larger values are counted in 16 buckets
+ * per power of two, so every percentile is accurate to within about 6%
+ * whatever the range of the values. The histogram has a fixed size of 960
+ * counters, recording never allocates, and it may be read while other threads
+ * are recording.</p>
+ *
+ * @author gregorygraham
+ */
+public final class LogLinearHistogram {
+
+	private static final int EXACT = 32;
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int SMALLEST_MAGNITUDE = 5;
+	private static final int BUCKETS = EXACT + (63 - SMALLEST_MAGNITUDE) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Adds the value to the histogram.
+	 *
+	 * @param value the value to record, negative values are recorded as 0
+	 */
+	public void record(long value) {
+		final long recorded = Math.max(0, value);
+		buckets.incrementAndGet(indexOf(recorded));
+		count.increment();
+		total.add(recorded);
+		max.accumulate(recorded);
+	}
+
+	/**
+	 * The number of values recorded.
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * The largest value recorded.
+	 *
+	 * @return the largest value, or 0 if nothing has been recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * The mean of the recorded values.
+	 *
+	 * @return the mean, or 0 if nothing has been recorded
+	 */
+	public double getMean() {
+		final long values = count.sum();
+		return values == 0 ? 0.0 : (double) total.sum() / values;
+	}
+
+	/**
+	 * Finds the value that the percentage of recorded values are less than or
+	 * equal to.
+	 *
+	 * @param percentile the percentage, from 0 to 100, for instance 99.9
+	 * @return the highest value in the bucket holding the percentile, or 0 if
+	 * nothing has been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0.0 || percentile > 100.0) {
+			throw new IllegalArgumentException("A percentile must be between 0 and 100: " + percentile);
+		}
+		final long[] snapshot = new long[BUCKETS];
+		long values = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets.get(i);
+			values += snapshot[i];
+		}
+		if (values == 0) {
+			return 0;
+		}
+		final long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * values));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(highestValueIn(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	static int indexOf(long value) {
+		if (value < EXACT) {
+			return (int) value;
+		}
+		final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return EXACT + (magnitude - SMALLEST_MAGNITUDE) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestValueIn(int index) {
+		if (index < EXACT) {
+			return index;
+		}
+		final int magnitude = SMALLEST_MAGNITUDE + (index - EXACT) / SUB_BUCKETS;
+		final long subBucket = SUB_BUCKETS + (index - EXACT) % SUB_BUCKETS;
+		return ((subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount()
+				+ ", mean=" + String.format("%.1f", getMean())
+				+ ", p50=" + getValueAtPercentile(50)
+				+ ", p90=" + getValueAtPercentile(90)
+				+ ", p99=" + getValueAtPercentile(99)
+				+ ", max=" + getMax();
+	}
+}
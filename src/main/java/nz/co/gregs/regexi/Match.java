@@ -9,31 +9,55 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
 import nz.co.gregs.regexi.internal.PartialRegex;
 
 /**
+ * A match of a regex within some source text.
+ *
+ * <p>
+ * The Match records the start and end of the match, and of each group, and
+ * only copies the text out of the source when it is requested. Callers that
+ * only need positions can use {@link #getStart(int) } and
+ * {@link #getEnd(int) } without creating any Strings.</p>
+ *
+ * <p>
+ * Matches found within a String are safe to keep. When the source is a
+ * mutable CharSequence, like a StringBuilder, it must not be changed while its
+ * Matches are in use.</p>
  *
  * @author gregorygraham
  */
 public class Match implements Serializable {
 
+	/**
+	 * Creates a Match from the MatchResult.
+	 *
+	 * <p>
+	 * A {@link Matcher} is captured with {@link Matcher#toMatchResult() } as the
+	 * Matcher will move on to the next match, other MatchResults are kept and
+	 * must not change.</p>
+	 *
+	 * @param aThis the regex that found the match
+	 * @param m the match
+	 * @return a Match for the MatchResult
+	 */
 	public static Match from(PartialRegex aThis, MatchResult m) {
-		return new Match(aThis, m);
+		return new Match(aThis, m instanceof Matcher ? ((Matcher) m).toMatchResult() : m);
 	}
 
-	private final String match;
-	private final List<MatchedGroup> groups = new ArrayList<>(1);
+	private final MatchResult result;
+	private volatile String match = null;
+	private volatile List<MatchedGroup> groups = null;
 	private final PartialRegex regex;
-	private HashMap<String, String> namedCaptures = null; // will be set when needed
+	private volatile HashMap<String, String> namedCaptures = null; // will be set when needed
 	private final boolean didMatch;
 
 	private Match(PartialRegex regex, MatchResult matchResult) {
 		this.regex = regex;
-		this.match = matchResult.group();
-		for (int i = 0; i < matchResult.groupCount(); i++) {
-			this.groups.add(new MatchedGroup(matchResult.group(i), i));
-		}
+		this.result = matchResult;
 		didMatch = true;
 	}
 
@@ -42,22 +66,126 @@ public class Match implements Serializable {
 	}
 
 	public String getEntireMatch() {
-		return match;
+		String found = match;
+		if (found == null) {
+			found = result.group();
+			match = found;
+		}
+		return found;
 	}
 
+	/**
+	 * Collects the value of every named capture that took part in the match.
+	 *
+	 * <p>
+	 * The values are read from the groups of this match, so lookarounds see the
+	 * surrounding text just as they did when the match was found.</p>
+	 *
+	 * @return a map from name to value for every named capture that matched
+	 */
 	public HashMap<String, String> getAllNamedCaptures() {
 		if (namedCaptures == null) {
-			namedCaptures = regex.getAllNamedCapturesOfFirstMatchWithinString(match);
+			final HashMap<String, String> found = new HashMap<>(0);
+			for (Map.Entry<String, Integer> entry : regex.getNamedGroupNumbers().entrySet()) {
+				final String value = result.group(entry.getValue());
+				if (value != null) {
+					found.put(entry.getKey(), value);
+				}
+			}
+			namedCaptures = found;
 		}
 		return namedCaptures;
 	}
 
 	public List<MatchedGroup> allGroups() {
-		return groups;
+		List<MatchedGroup> found = groups;
+		if (found == null) {
+			found = new ArrayList<>(result.groupCount());
+			for (int i = 0; i < result.groupCount(); i++) {
+				found.add(new MatchedGroup(result.group(i), i));
+			}
+			groups = found;
+		}
+		return found;
 	}
 
+	/**
+	 * Reads the value of the named capture from the match.
+	 *
+	 * @param name the name of the capture
+	 * @return the value of the capture, or null if it didn't take part in the
+	 * match or there is no capture with that name
+	 */
 	public String getNamedCapture(String name) {
-		return getAllNamedCaptures().get(name);
+		final HashMap<String, String> captures = namedCaptures;
+		if (captures != null) {
+			return captures.get(name);
+		}
+		final Integer group = regex.getNamedGroupNumbers().get(name);
+		return group == null ? null : result.group(group);
+	}
+
+	/**
+	 * The position of the start of the match within the source text.
+	 *
+	 * @return the index of the first char of the match
+	 */
+	public int getStart() {
+		return result.start();
+	}
+
+	/**
+	 * The position of the end of the match within the source text.
+	 *
+	 * @return the index after the last char of the match
+	 */
+	public int getEnd() {
+		return result.end();
+	}
+
+	/**
+	 * The position of the start of the group within the source text.
+	 *
+	 * @param group the number of the group, 0 being the entire match
+	 * @return the index of the first char of the group, or -1 if the group
+	 * didn't take part in the match
+	 * @throws IndexOutOfBoundsException if there is no such group
+	 */
+	public int getStart(int group) {
+		return result.start(group);
+	}
+
+	/**
+	 * The position of the end of the group within the source text.
+	 *
+	 * @param group the number of the group, 0 being the entire match
+	 * @return the index after the last char of the group, or -1 if the group
+	 * didn't take part in the match
+	 * @throws IndexOutOfBoundsException if there is no such group
+	 */
+	public int getEnd(int group) {
+		return result.end(group);
+	}
+
+	/**
+	 * The number of groups in the regex, not including the entire match.
+	 *
+	 * @return the number of groups
+	 */
+	public int getGroupCount() {
+		return result.groupCount();
+	}
+
+	/**
+	 * Copies the text of the group from the source text.
+	 *
+	 * @param group the number of the group, 0 being the entire match
+	 * @return the text of the group, or null if the group didn't take part in
+	 * the match
+	 * @throws IndexOutOfBoundsException if there is no such group
+	 */
+	public String getGroup(int group) {
+		return group == 0 ? getEntireMatch() : result.group(group);
 	}
 
 	@Override
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Limits on the work a single match operation may do before it is abandoned.
+ *
+ * <p>
+ * Some regexes, particularly those with nested quantifiers like
+ * {@code (a+)+b}, can take exponential time on unlucky inputs. A MatchBudget
+ * bounds that time: when the regex engine exceeds the time limit, or reads
+ * more characters of the input than the step limit, the operation throws
+ * {@link MatchBudgetExceededException}.</p>
+ *
+ * <p>
+ * Steps are counted each time the regex engine reads a character of the
+ * input, so a linear scan of a 1000 character string takes about 1000 steps
+ * while backtracking takes many more. Regexes that Regexi can answer without
+ * backtracking are not limited by the budget.</p>
+ *
+ * <p>
+ * Use a budget with {@link Regex#withBudget(nz.co.gregs.regexi.MatchBudget) }
+ * to apply it to every operation, or pass it to an individual method like
+ * {@link Regex#matchesWithinString(java.lang.String, nz.co.gregs.regexi.MatchBudget)
+ * }.</p>
+ *
+ * @author gregorygraham
+ */
+public final class MatchBudget implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Duration timeLimit;
+	private final long stepLimit;
+
+	private MatchBudget(Duration timeLimit, long stepLimit) {
+		this.timeLimit = timeLimit;
+		this.stepLimit = stepLimit;
+	}
+
+	/**
+	 * Creates a budget that limits how long each match operation may take.
+	 *
+	 * @param limit the maximum duration of a match operation
+	 * @return a new MatchBudget
+	 */
+	public static MatchBudget timeLimit(Duration limit) {
+		return new MatchBudget(checkTimeLimit(limit), Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a budget that limits how many characters the regex engine may read
+	 * during each match operation.
+	 *
+	 * @param limit the maximum number of steps for a match operation
+	 * @return a new MatchBudget
+	 */
+	public static MatchBudget stepLimit(long limit) {
+		return new MatchBudget(null, checkStepLimit(limit));
+	}
+
+	/**
+	 * Creates a copy of this budget with the time limit changed.
+	 *
+	 * @param limit the maximum duration of a match operation
+	 * @return a new MatchBudget
+	 */
+	public MatchBudget withTimeLimit(Duration limit) {
+		return new MatchBudget(checkTimeLimit(limit), stepLimit);
+	}
+
+	/**
+	 * Creates a copy of this budget with the step limit changed.
+	 *
+	 * @param limit the maximum number of steps for a match operation
+	 * @return a new MatchBudget
+	 */
+	public MatchBudget withStepLimit(long limit) {
+		return new MatchBudget(timeLimit, checkStepLimit(limit));
+	}
+
+	/**
+	 * The maximum duration of a match operation.
+	 *
+	 * @return the time limit, or empty if the time is not limited
+	 */
+	public Optional<Duration> getTimeLimit() {
+		return Optional.ofNullable(timeLimit);
+	}
+
+	/**
+	 * The maximum number of characters the regex engine may read during a match
+	 * operation.
+	 *
+	 * @return the step limit, or empty if the steps are not limited
+	 */
+	public OptionalLong getStepLimit() {
+		return stepLimit == Long.MAX_VALUE ? OptionalLong.empty() : OptionalLong.of(stepLimit);
+	}
+
+	private static Duration checkTimeLimit(Duration limit) {
+		if (limit == null || limit.isNegative() || limit.isZero()) {
+			throw new IllegalArgumentException("A MatchBudget time limit must be positive: " + limit);
+		}
+		return limit;
+	}
+
+	private static long checkStepLimit(long limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("A MatchBudget step limit must be positive: " + limit);
+		}
+		return limit;
+	}
+
+	@Override
+	public String toString() {
+		return "MatchBudget{" + "timeLimit=" + timeLimit + ", stepLimit=" + getStepLimit() + '}';
+	}
+}
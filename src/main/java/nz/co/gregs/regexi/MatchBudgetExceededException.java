@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a match operation exceeds its {@link MatchBudget}.
+ *
+ * <p>
+ * The operation has been abandoned, so it is unknown whether the regex
+ * matches the input.</p>
+ *
+ * @author gregorygraham
+ */
+public class MatchBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final MatchBudget budget;
+	private final long steps;
+	private final Duration elapsed;
+
+	/**
+	 * Creates the exception.
+	 *
+	 * @param budget the budget that was exceeded
+	 * @param steps the number of steps taken before the operation was abandoned
+	 * @param elapsed how long the operation ran before it was abandoned
+	 */
+	public MatchBudgetExceededException(MatchBudget budget, long steps, Duration elapsed) {
+		super("Match abandoned after " + steps + " steps and " + elapsed.toMillis() + "ms, exceeding " + budget);
+		this.budget = budget;
+		this.steps = steps;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * The budget that was exceeded.
+	 *
+	 * @return the budget
+	 */
+	public MatchBudget getBudget() {
+		return budget;
+	}
+
+	/**
+	 * The number of steps taken before the operation was abandoned.
+	 *
+	 * @return the number of characters read by the regex engine
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * How long the operation ran before it was abandoned.
+	 *
+	 * @return the elapsed time
+	 */
+	public Duration getElapsed() {
+		return elapsed;
+	}
+}
@@ -6,14 +6,20 @@
 package nz.co.gregs.regexi;
 
 import nz.co.gregs.regexi.internal.PartialRegexReplacement;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
 import nz.co.gregs.regexi.internal.UntestableSequence;
 import nz.co.gregs.regexi.internal.UnescapedSequence;
 import nz.co.gregs.regexi.internal.PartialRegex;
 import nz.co.gregs.regexi.internal.OrGroup;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.regex.MatchResult;
@@ -94,10 +100,159 @@ public class Regex implements Serializable {
 		return empty().beginOrGroup();
 	}
 
+	/**
+	 * The number of idle Matchers kept by {@link #reusingMatchers() }.
+	 */
+	public static final int DEFAULT_MATCHER_POOL_SIZE = 16;
+
 	private final PartialRegex partial;
+	private final transient MatcherPool matcherPool;
+	private final MatchBudget budget;
+	final transient RegexMetrics metrics;
+	private final transient SlowMatchSampler sampler;
 
 	public Regex(PartialRegex partial) {
+		this(partial, null, null, null, null);
+	}
+
+	private Regex(PartialRegex partial, MatcherPool matcherPool, MatchBudget budget, RegexMetrics metrics, SlowMatchSampler sampler) {
 		this.partial = partial;
+		this.matcherPool = matcherPool;
+		this.budget = budget;
+		this.metrics = metrics;
+		this.sampler = sampler;
+	}
+
+	/**
+	 * Creates a version of this Regex that reuses Matchers rather than creating
+	 * a new Matcher for every test.
+	 *
+	 * <p>
+	 * Reuse applies to the boolean tests {@link #matches(java.lang.CharSequence) },
+	 * {@link #matchesWithinString(java.lang.CharSequence) }, and
+	 * {@link #matchesEntireString(java.lang.CharSequence) } (and their doesNot...
+	 * equivalents) which, once the pool is warm, do not allocate at all.</p>
+	 *
+	 * <p>
+	 * The pool is bounded and lock-free, and does not use ThreadLocals, so it is
+	 * suitable for virtual threads. Up to
+	 * {@link #DEFAULT_MATCHER_POOL_SIZE} idle Matchers are retained.</p>
+	 *
+	 * @return a new Regex that reuses its Matchers
+	 */
+	public Regex reusingMatchers() {
+		return reusingMatchers(DEFAULT_MATCHER_POOL_SIZE);
+	}
+
+	/**
+	 * Creates a version of this Regex that reuses Matchers rather than creating
+	 * a new Matcher for every test.
+	 *
+	 * <p>
+	 * See {@link #reusingMatchers() } for details.</p>
+	 *
+	 * @param poolSize the maximum number of idle Matchers to retain, usually the
+	 * number of threads expected to use this Regex concurrently
+	 * @return a new Regex that reuses its Matchers
+	 */
+	public Regex reusingMatchers(int poolSize) {
+		return new Regex(partial, new MatcherPool(partial, poolSize), budget, metrics, sampler);
+	}
+
+	/**
+	 * Creates a version of this Regex that abandons any match operation that
+	 * exceeds the budget.
+	 *
+	 * <p>
+	 * The budget applies to every matching method that doesn't take a budget of
+	 * its own, including the Matchers and streams returned by
+	 * {@link #getMatcher(java.lang.CharSequence) } and
+	 * {@link #getMatchResultsStream(java.lang.CharSequence) }, and the
+	 * replacers, splitters, value finders and streamers created from this
+	 * Regex. Operations that exceed it throw
+	 * {@link MatchBudgetExceededException} rather than running indefinitely on
+	 * inputs that cause catastrophic backtracking.</p>
+	 *
+	 * <p>
+	 * Each operation has its own budget. A Matcher or stream is one operation
+	 * from the moment it is created, so every character it reads, including
+	 * those copied into a replacement, counts against the budget.</p>
+	 *
+	 * @param budget the limits for each match operation, or null to remove the
+	 * limits
+	 * @return a new Regex that enforces the budget
+	 */
+	public Regex withBudget(MatchBudget budget) {
+		return new Regex(partial, matcherPool, budget, metrics, sampler);
+	}
+
+	/**
+	 * The budget applied to each match operation.
+	 *
+	 * @return the budget or empty if match operations are not limited
+	 */
+	public Optional<MatchBudget> getBudget() {
+		return Optional.ofNullable(budget);
+	}
+
+	/**
+	 * Creates a version of this Regex that reports every match operation to the
+	 * metrics.
+	 *
+	 * <p>
+	 * The matching methods, getAllMatches, getFirstMatchFrom, and the String
+	 * replacements of {@link #replaceWith() } are reported with the length of
+	 * the input, whether it matched, and how long it took. Use
+	 * {@link RegexStatistics} to collect counts and histograms, or implement
+	 * {@link RegexMetrics} to send them elsewhere.</p>
+	 *
+	 * <p>
+	 * Without metrics, or with {@link RegexMetrics#NONE}, nothing is timed or
+	 * reported unless a Flight Recorder recording wants slow match events, see
+	 * {@link FlightRecorderSupport}.</p>
+	 *
+	 * @param metrics where to report match operations, or null to stop
+	 * reporting them
+	 * @return a new Regex that reports to the metrics
+	 */
+	public Regex withMetrics(RegexMetrics metrics) {
+		return new Regex(partial, matcherPool, budget, metrics == RegexMetrics.NONE ? null : metrics, sampler);
+	}
+
+	/**
+	 * The metrics that match operations are reported to.
+	 *
+	 * @return the metrics or empty if match operations are not reported
+	 */
+	public Optional<RegexMetrics> getMetrics() {
+		return Optional.ofNullable(metrics);
+	}
+
+	/**
+	 * Creates a version of this Regex that offers every match operation to the
+	 * sampler, which keeps the slowest along with the start of their input.
+	 *
+	 * <p>
+	 * The same operations are sampled as are reported to
+	 * {@link #withMetrics(nz.co.gregs.regexi.RegexMetrics) }. One sampler may
+	 * be shared by many Regexes to find the slowest matches across all of
+	 * them.</p>
+	 *
+	 * @param sampler the sampler to offer operations to, or null to stop
+	 * sampling
+	 * @return a new Regex that offers its operations to the sampler
+	 */
+	public Regex withSlowMatchSampler(SlowMatchSampler sampler) {
+		return new Regex(partial, matcherPool, budget, metrics, sampler);
+	}
+
+	/**
+	 * The sampler that match operations are offered to.
+	 *
+	 * @return the sampler or empty if match operations are not sampled
+	 */
+	public Optional<SlowMatchSampler> getSlowMatchSampler() {
+		return Optional.ofNullable(sampler);
 	}
 
 	/**
@@ -109,6 +264,80 @@ public class Regex implements Serializable {
 		return partial.toRegexString();
 	}
 
+	/**
+	 * Returns the group number of every named capture in this Regex.
+	 *
+	 * <p>
+	 * The table is created once per compiled Regex and not copied, so it is
+	 * cheap to use for every match.</p>
+	 *
+	 * @return an unmodifiable map from name to group number, in the order the
+	 * names appear in the regex
+	 */
+	public Map<String, Integer> getNamedGroupNumbers() {
+		return partial.getNamedGroupNumbers();
+	}
+
+	/**
+	 * Creates a handle for reading the named capture from matches of this Regex
+	 * by group number.
+	 *
+	 * @param name the name of the capture
+	 * @return a handle for the capture
+	 * @throws IllegalArgumentException if this Regex has no capture with that
+	 * name
+	 */
+	public GroupHandle getGroupHandle(String name) {
+		final Integer index = getNamedGroupNumbers().get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("No named capture " + name + " in " + getRegex());
+		}
+		return new GroupHandle(name, index);
+	}
+
+	/**
+	 * Creates a handle for every named capture of this Regex.
+	 *
+	 * @return the handles in the order the names appear in the regex
+	 */
+	public List<GroupHandle> getGroupHandles() {
+		final List<GroupHandle> handles = new ArrayList<>();
+		for (Map.Entry<String, Integer> entry : getNamedGroupNumbers().entrySet()) {
+			handles.add(new GroupHandle(entry.getKey(), entry.getValue()));
+		}
+		return handles;
+	}
+
+	/**
+	 * Lists the literal strings that must appear within the input for this Regex
+	 * to match.
+	 *
+	 * <p>
+	 * Case insensitive sections and optional elements don't contribute any
+	 * literals. The longest literals are listed first.</p>
+	 *
+	 * @return the required literals, which may be empty
+	 */
+	public List<String> getRequiredLiterals() {
+		return partial.getRequiredLiterals();
+	}
+
+	/**
+	 * Analyses this Regex for catastrophic backtracking without running it.
+	 *
+	 * <p>
+	 * Regexes with nested or overlapping quantifiers, like {@code (a+)+b}, can
+	 * take exponential time on inputs that almost match. The report lists each
+	 * risky quantifier with an example of the text that triggers it. See
+	 * {@link nz.co.gregs.regexi.internal.PartialRegex#toStrictRegex() } to
+	 * refuse risky regexes when they are built.</p>
+	 *
+	 * @return the analysis of this Regex
+	 */
+	public BacktrackingReport getBacktrackingReport() {
+		return partial.getBacktrackingReport();
+	}
+
 	/**
 	 * Converts the internal state of this Regex into a regular expression string.
 	 *
@@ -131,17 +360,33 @@ public class Regex implements Serializable {
 	 * Please note: This is like the functionality of {@link Matcher#find() } as
 	 * it provides more useful behaviour than {@link Matcher#matches()}. In
 	 * particular it allows for regexes specifying end points, as well as regexes
-	 * that don't {@link #matches(java.lang.String) Matches(string)} may be
-	 * equivalent to {@link #matchesBeginningOf(java.lang.String) },
-	 * {@link #matchesEntireString(java.lang.String) }, or
-	 * {@link #matchesEndOf(java.lang.String) } depending on the Regex. This is a
+	 * that don't {@link #matches(java.lang.CharSequence) Matches(string)} may be
+	 * equivalent to {@link #matchesBeginningOf(java.lang.CharSequence) },
+	 * {@link #matchesEntireString(java.lang.CharSequence) }, or
+	 * {@link #matchesEndOf(java.lang.CharSequence) } depending on the Regex. This is a
 	 * feature, not a bug.</p>
 	 *
 	 * @param string the source text
 	 * @return true if the regular expression matches the source text
 	 */
-	public boolean matches(String string) {
-		return partial.matchesWithinString(string);
+	public boolean matches(CharSequence string) {
+		return matchesWithinString(string);
+	}
+
+	/**
+	 * Checks the string against the regular expression and returns true if the
+	 * string matches the expression, abandoning the check if it exceeds the
+	 * budget.
+	 *
+	 * @param string the source text
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return true if the regular expression matches the source text
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 * @see #matches(java.lang.CharSequence)
+	 */
+	public boolean matches(CharSequence string, MatchBudget budget) {
+		return matchesWithinString(string, budget);
 	}
 
 	/**
@@ -156,17 +401,18 @@ public class Regex implements Serializable {
 	 * Please note: This is like the functionality of {@link Matcher#find() } as
 	 * it provides more useful behaviour than {@link Matcher#matches()}. In
 	 * particular it allows for regexes specifying end points, as well as regexes
-	 * that don't {@link #matches(java.lang.String) Matches(string)} may be
-	 * equivalent to {@link #matchesBeginningOf(java.lang.String) },
-	 * {@link #matchesEntireString(java.lang.String) }, or
-	 * {@link #matchesEndOf(java.lang.String) } depending on the Regex. This is a
+	 * that don't {@link #matches(java.lang.CharSequence) Matches(string)} may be
+	 * equivalent to {@link #matchesBeginningOf(java.lang.CharSequence) },
+	 * {@link #matchesEntireString(java.lang.CharSequence) }, or
+	 * {@link #matchesEndOf(java.lang.CharSequence) } depending on the Regex. This is a
 	 * feature, not a bug.</p>
 	 *
 	 * @param string the source text to test against
 	 * @param regexes all the regexes to test with
 	 * @return true if the regular expression matches the source text
+	 * @see RegexSet for testing large numbers of regexes efficiently
 	 */
-	public static boolean matchesAny(String string, Regex... regexes) {
+	public static boolean matchesAny(CharSequence string, Regex... regexes) {
 		return loopForMatches(regexes, string, false, true);
 	}
 
@@ -182,22 +428,23 @@ public class Regex implements Serializable {
 	 * Please note: This is like the functionality of {@link Matcher#find() } as
 	 * it provides more useful behaviour than {@link Matcher#matches()}. In
 	 * particular it allows for regexes specifying end points, as well as regexes
-	 * that don't {@link #matches(java.lang.String) Matches(string)} may be
-	 * equivalent to {@link #matchesBeginningOf(java.lang.String) },
-	 * {@link #matchesEntireString(java.lang.String) }, or
-	 * {@link #matchesEndOf(java.lang.String) } depending on the Regex. This is a
+	 * that don't {@link #matches(java.lang.CharSequence) Matches(string)} may be
+	 * equivalent to {@link #matchesBeginningOf(java.lang.CharSequence) },
+	 * {@link #matchesEntireString(java.lang.CharSequence) }, or
+	 * {@link #matchesEndOf(java.lang.CharSequence) } depending on the Regex. This is a
 	 * feature, not a bug.</p>
 	 *
 	 * @param string the source text
 	 * @param regexes the regexes to test with
 	 * @return true if the regular expression matches the source text
+	 * @see RegexSet for testing large numbers of regexes efficiently
 	 */
-	public static boolean matchesAll(String string, Regex... regexes) {
+	public static boolean matchesAll(CharSequence string, Regex... regexes) {
 		boolean result = loopForMatches(regexes, string, true, false);
 		return result;
 	}
 
-	protected static boolean loopForMatches(Regex[] regexes, String string, boolean initialAssumption, boolean watchFor) {
+	protected static boolean loopForMatches(Regex[] regexes, CharSequence string, boolean initialAssumption, boolean watchFor) {
 		boolean result = initialAssumption;
 		boolean continueLoop = true;
 		int i = 0;
@@ -226,8 +473,40 @@ public class Regex implements Serializable {
 	 * @param string the source text
 	 * @return true if the regular expression matches the entire source text
 	 */
-	public boolean matchesEntireString(String string) {
-		return partial.matchesEntireString(string);
+	public boolean matchesEntireString(CharSequence string) {
+		return matchesEntireString(string, budget);
+	}
+
+	/**
+	 * Checks the string against the regular expression and returns true if the
+	 * entire string matches the expression, abandoning the check if it exceeds
+	 * the budget.
+	 *
+	 * @param string the source text
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return true if the regular expression matches the entire source text
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesEntireString(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return entireString(string, budget);
+		}
+		final long started = System.nanoTime();
+		boolean matched = false;
+		try {
+			matched = entireString(string, budget);
+			return matched;
+		} finally {
+			record(RegexOperation.MATCHES_ENTIRE_STRING, string, matched, started);
+		}
+	}
+
+	private boolean entireString(CharSequence string, MatchBudget budget) {
+		if (matcherPool != null) {
+			return matcherPool.matches(string == null ? "" : string, budget);
+		}
+		return partial.matchesEntireString(string, budget);
 	}
 
 	/**
@@ -241,8 +520,33 @@ public class Regex implements Serializable {
 	 * @param string the source text
 	 * @return true if the regular expression matches the start of the source text
 	 */
-	public boolean matchesBeginningOf(String string) {
-		return partial.matchesBeginningOf(string);
+	public boolean matchesBeginningOf(CharSequence string) {
+		return matchesBeginningOf(string, budget);
+	}
+
+	/**
+	 * Checks the string against the regular expression and returns true if the
+	 * beginning of the string matches the expression, abandoning the check if it
+	 * exceeds the budget.
+	 *
+	 * @param string the source text
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return true if the regular expression matches the start of the source text
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesBeginningOf(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return partial.matchesBeginningOf(string, budget);
+		}
+		final long started = System.nanoTime();
+		boolean matched = false;
+		try {
+			matched = partial.matchesBeginningOf(string, budget);
+			return matched;
+		} finally {
+			record(RegexOperation.MATCHES_BEGINNING_OF, string, matched, started);
+		}
 	}
 
 	/**
@@ -256,8 +560,33 @@ public class Regex implements Serializable {
 	 * @param string the source text
 	 * @return true if the regular expression matches the end of the source text
 	 */
-	public boolean matchesEndOf(String string) {
-		return partial.matchesEndOf(string);
+	public boolean matchesEndOf(CharSequence string) {
+		return matchesEndOf(string, budget);
+	}
+
+	/**
+	 * Checks the string against the regular expression and returns true if the
+	 * end of the string matches the expression, abandoning the check if it
+	 * exceeds the budget.
+	 *
+	 * @param string the source text
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return true if the regular expression matches the end of the source text
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesEndOf(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return partial.matchesEndOf(string, budget);
+		}
+		final long started = System.nanoTime();
+		boolean matched = false;
+		try {
+			matched = partial.matchesEndOf(string, budget);
+			return matched;
+		} finally {
+			record(RegexOperation.MATCHES_END_OF, string, matched, started);
+		}
 	}
 
 	/**
@@ -271,16 +600,87 @@ public class Regex implements Serializable {
 	 * @param string the source text
 	 * @return true if the regular expression matches any part of the source text
 	 */
-	public boolean matchesWithinString(String string) {
-		return partial.matchesWithinString(string);
+	public boolean matchesWithinString(CharSequence string) {
+		return matchesWithinString(string, budget);
 	}
 
-	public Stream<MatchResult> getMatchResultsStream(String string) {
-		return partial.getMatchResultsStream(string);
+	/**
+	 * Checks the string against the regular expression and returns true if the
+	 * any part of the string matches the expression, abandoning the check if it
+	 * exceeds the budget.
+	 *
+	 * @param string the source text
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return true if the regular expression matches any part of the source text
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesWithinString(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return withinString(string, budget);
+		}
+		final long started = System.nanoTime();
+		boolean matched = false;
+		try {
+			matched = withinString(string, budget);
+			return matched;
+		} finally {
+			record(RegexOperation.MATCHES_WITHIN_STRING, string, matched, started);
+		}
 	}
 
-	public Matcher getMatcher(String string) {
-		return partial.getMatcher(string);
+	private boolean withinString(CharSequence string, MatchBudget budget) {
+		if (matcherPool != null) {
+			return matcherPool.find(string == null ? "" : string, budget);
+		}
+		return partial.matchesWithinString(string, budget);
+	}
+
+	/**
+	 * Streams every match within the source text.
+	 *
+	 * <p>
+	 * The budget set by {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * covers the whole stream, starting when this method is called.</p>
+	 *
+	 * @param string the source text
+	 * @return a stream of the matches
+	 * @throws MatchBudgetExceededException while streaming if the budget is
+	 * exceeded
+	 */
+	public Stream<MatchResult> getMatchResultsStream(CharSequence string) {
+		return partial.getMatchResultsStream(string, budget);
+	}
+
+	/**
+	 * Creates a java.util.regex.Matcher for the source text.
+	 *
+	 * <p>
+	 * The budget set by {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * covers everything done with the Matcher, starting when it is created.</p>
+	 *
+	 * @param string the source text
+	 * @return a Matcher for the source text
+	 */
+	public Matcher getMatcher(CharSequence string) {
+		return partial.getMatcher(string, budget);
+	}
+
+	/**
+	 * Creates a java.util.regex.Matcher for the source text that abandons its
+	 * work once it exceeds the budget.
+	 *
+	 * <p>
+	 * The budget covers everything done with the Matcher, starting when it is
+	 * created.</p>
+	 *
+	 * @param string the source text
+	 * @param budget the limits for the Matcher, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return a Matcher for the source text
+	 */
+	public Matcher getMatcher(CharSequence string, MatchBudget budget) {
+		return partial.getMatcher(string, budget);
 	}
 
 	/**
@@ -289,12 +689,12 @@ public class Regex implements Serializable {
 	 * @param string the source text
 	 * @return the MatchResult
 	 */
-	public MatchResult getMatchResult(String string) {
+	public MatchResult getMatchResult(CharSequence string) {
 		return partial.getMatchResult(string);
 	}
 
-	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(String string) {
-		return partial.getAllNamedCapturesOfFirstMatchWithinString(string);
+	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(CharSequence string) {
+		return partial.getAllNamedCapturesOfFirstMatchWithinString(string, budget);
 	}
 
 	/**
@@ -308,8 +708,32 @@ public class Regex implements Serializable {
 	 * @param string the source text.
 	 * @return every Match found in the source text.
 	 */
-	public List<Match> getAllMatches(String string) {
-		return partial.getAllMatches(string);
+	public List<Match> getAllMatches(CharSequence string) {
+		return getAllMatches(string, budget);
+	}
+
+	/**
+	 * Returns a list of all the matches found within the source text, abandoning
+	 * the search if it exceeds the budget.
+	 *
+	 * @param string the source text.
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return every Match found in the source text.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public List<Match> getAllMatches(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return partial.getAllMatches(string, budget);
+		}
+		final long started = System.nanoTime();
+		List<Match> matches = null;
+		try {
+			matches = partial.getAllMatches(string, budget);
+			return matches;
+		} finally {
+			record(RegexOperation.GET_ALL_MATCHES, string, matches != null && !matches.isEmpty(), started);
+		}
 	}
 
 	/**
@@ -323,8 +747,61 @@ public class Regex implements Serializable {
 	 * @param string the source text.
 	 * @return the first Match found in the source text.
 	 */
-	public Optional<Match> getFirstMatchFrom(String string) {
-		return partial.getFirstMatchFrom(string);
+	public Optional<Match> getFirstMatchFrom(CharSequence string) {
+		return getFirstMatchFrom(string, budget);
+	}
+
+	/**
+	 * Returns the first match found within the source text, abandoning the
+	 * search if it exceeds the budget.
+	 *
+	 * @param string the source text.
+	 * @param budget the limits for this operation, overriding
+	 * {@link #withBudget(nz.co.gregs.regexi.MatchBudget) }
+	 * @return the first Match found in the source text.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public Optional<Match> getFirstMatchFrom(CharSequence string, MatchBudget budget) {
+		if (!isTimed()) {
+			return partial.getFirstMatchFrom(string, budget);
+		}
+		final long started = System.nanoTime();
+		Optional<Match> match = null;
+		try {
+			match = partial.getFirstMatchFrom(string, budget);
+			return match;
+		} finally {
+			record(RegexOperation.GET_FIRST_MATCH, string, match != null && match.isPresent(), started);
+		}
+	}
+
+	/**
+	 * Whether operations need to be timed for the metrics, the sampler, or
+	 * Flight Recorder's slow match events.
+	 */
+	boolean isTimed() {
+		return metrics != null || sampler != null || FlightRecorderSupport.isTimingMatches();
+	}
+
+	/**
+	 * Reports a finished, timed operation.
+	 *
+	 * <p>
+	 * Operations that throw, for instance by exceeding their budget, are
+	 * reported as not matching.</p>
+	 */
+	void record(RegexOperation operation, CharSequence string, boolean matched, long started) {
+		final long duration = System.nanoTime() - started;
+		final int length = string == null ? 0 : string.length();
+		if (metrics != null) {
+			metrics.record(this, operation, length, matched, duration);
+		}
+		if (sampler != null) {
+			sampler.offer(this, operation, string, duration);
+		}
+		if (FlightRecorderSupport.isTimingMatches()) {
+			FlightRecorderSupport.matchFinished(this, getRegex(), operation.name(), length, matched, duration);
+		}
 	}
 
 	/**
@@ -339,29 +816,138 @@ public class Regex implements Serializable {
 	 * @return a list of the results of testing the parts of the Regex.
 	 */
 	public List<String> testAgainst(String testStr) {
+		List<String> strings = new ArrayList<>();
+		strings.addAll(testAgainstAnywhereInString(testStr, getTestableParts()));
+		return strings;
+	}
+
+	/**
+	 * Test all parts of this Regex against the test string, timing each part
+	 * and abandoning any part that exceeds the budget.
+	 *
+	 * <p>
+	 * This is the same as {@link #testAgainst(java.lang.String) } with the
+	 * time each part took, which helps to find the part responsible for a slow
+	 * match without risking the test taking as long as the match did.</p>
+	 *
+	 * @param testStr the test text to use
+	 * @param budget the limits for testing each part
+	 * @return a list of the results of testing the parts of the Regex.
+	 */
+	public List<String> testAgainst(String testStr, MatchBudget budget) {
+		return testAgainst(testStr, RegexOperation.MATCHES_WITHIN_STRING, budget);
+	}
+
+	/**
+	 * Tests all parts of this Regex the same way the operation would have,
+	 * within the budget.
+	 */
+	List<String> testAgainst(String testStr, RegexOperation operation, MatchBudget budget) {
+		switch (operation) {
+			case MATCHES_ENTIRE_STRING:
+				return testAgainstGeneric(testStr, getTestableParts(), "MATCHES ENTIRE STRING", (r, s) -> r.matchesEntireString(s), budget);
+			case MATCHES_BEGINNING_OF:
+				return testAgainstGeneric(testStr, getTestableParts(), "FROM START OF", (r, s) -> r.matchesBeginningOf(s), budget);
+			case MATCHES_END_OF:
+				return testAgainstGeneric(testStr, getTestableParts(), "AT END OF", (r, s) -> r.matchesEndOf(s), budget);
+			default:
+				return testAgainstGeneric(testStr, getTestableParts(), "WITHIN", (r, s) -> r.matchesWithinString(s), budget);
+		}
+	}
+
+	/**
+	 * Finds the part of this Regex that takes the longest to perform the
+	 * operation on the test string.
+	 *
+	 * <p>
+	 * Each part is built and run once before it is timed, so the time is the
+	 * matching alone. A part that exceeds the budget is slower than any part
+	 * that doesn't.</p>
+	 *
+	 * @return the regular expression of the slowest part, or empty if this Regex
+	 * has no testable parts
+	 */
+	Optional<String> findSlowestPart(String testStr, RegexOperation operation, MatchBudget budget) {
+		String slowest = null;
+		long slowestNanos = -1;
+		for (PartialRegex part : partial.getRegexParts()) {
+			long nanos;
+			try {
+				final Regex regex = part.toRegex().withBudget(budget);
+				// the first run builds the pattern, prefilters and DFA, which would swamp a short input
+				perform(regex, operation, testStr);
+				final long started = System.nanoTime();
+				perform(regex, operation, testStr);
+				nanos = System.nanoTime() - started;
+			} catch (MatchBudgetExceededException ex) {
+				nanos = Long.MAX_VALUE;
+			} catch (RuntimeException ex) {
+				// parts like lookbehinds can't be tested alone
+				continue;
+			}
+			if (nanos > slowestNanos) {
+				slowest = part.toRegexString();
+				slowestNanos = nanos;
+			}
+		}
+		return Optional.ofNullable(slowest);
+	}
+
+	private static void perform(Regex regex, RegexOperation operation, String testStr) {
+		switch (operation) {
+			case MATCHES_ENTIRE_STRING:
+				regex.matchesEntireString(testStr);
+				break;
+			case MATCHES_BEGINNING_OF:
+				regex.matchesBeginningOf(testStr);
+				break;
+			case MATCHES_END_OF:
+				regex.matchesEndOf(testStr);
+				break;
+			case MATCHES_WITHIN_STRING:
+				regex.matchesWithinString(testStr);
+				break;
+			case GET_FIRST_MATCH:
+			case REPLACE_FIRST:
+				regex.getFirstMatchFrom(testStr);
+				break;
+			default:
+				regex.getAllMatches(testStr);
+		}
+	}
+
+	private List<PartialRegex> getTestableParts() {
 		List<PartialRegex> partials = new ArrayList<>();
 		partials.add(partial);
 		partials.addAll(this.partial.getRegexParts());
-		List<String> strings = new ArrayList<>();
-		strings.addAll(testAgainstAnywhereInString(testStr, partials));
-		return strings;
+		return partials;
 	}
 
 	private List<String> testAgainstGeneric(String testStr, List<PartialRegex> patterns, String descriptionStart, BiFunction<Regex, String, Boolean> matcher) {
+		return testAgainstGeneric(testStr, patterns, descriptionStart, matcher, null);
+	}
+
+	private List<String> testAgainstGeneric(String testStr, List<PartialRegex> patterns, String descriptionStart, BiFunction<Regex, String, Boolean> matcher, MatchBudget budget) {
 		List<String> strings = new ArrayList<String>(0);
 		strings.add("TESTING: " + getRegex());
 		strings.add(descriptionStart + ": " + testStr);
 		for (PartialRegex pattern : patterns) {
 			try {
 				strings.add("TESTING: " + pattern.toRegexString());
-				final Regex regex = pattern.toRegex();
+				final Regex regex = budget == null ? pattern.toRegex() : pattern.toRegex().withBudget(budget);
+				final long started = System.nanoTime();
 				final boolean result = matcher.apply(regex, testStr);
+				if (budget != null) {
+					strings.add("TIME: " + (System.nanoTime() - started) + "ns");
+				}
 				strings.add("RESULT: " + (result ? "found" : "FAILED"));
 				if (result) {
 					strings.addAll(regex.getAllMatches(testStr).stream().map(Match::toString).collect(Collectors.toList()));
 					regex.getAllMatches(testStr).stream().forEachOrdered(m -> m.allGroups().stream().forEachOrdered(g -> strings.add(g.toString())));
 				}
 
+			} catch (MatchBudgetExceededException ex) {
+				strings.add("RESULT: ABANDONED after " + ex.getElapsed().toNanos() + "ns and " + ex.getSteps() + " steps");
 			} catch (Exception ex) {
 				strings.add("Skipping invalid regex: " + ex.getLocalizedMessage());
 			}
@@ -415,19 +1001,135 @@ public class Regex implements Serializable {
 		return new RegexSplitter(this);
 	}
 
-	public boolean doesNotMatchTheBeginningOf(String sourceText) {
+	/**
+	 * Creates a RegexStreamer from this Regex.
+	 *
+	 * <p>
+	 * A RegexStreamer searches Readers, InputStreams, and ReadableByteChannels
+	 * in bounded memory rather than requiring the entire input as a String.</p>
+	 *
+	 * @return a RegexStreamer
+	 */
+	public RegexStreamer toStreamer() {
+		return new RegexStreamer(this);
+	}
+
+	StreamingMatcher getStreamingMatcher(Reader input, int maximumMatchLength, int chunkSize) {
+		return new StreamingMatcher(partial, input, maximumMatchLength, chunkSize, budget);
+	}
+
+	MappedFileMatcher getMappedFileMatcher(FileChannel file, Charset charset, int maximumMatchLength, int segmentSize) throws IOException {
+		return new MappedFileMatcher(partial, file, charset, maximumMatchLength, segmentSize, budget);
+	}
+
+	ReplacementTemplate compileReplacement(String replacement) {
+		return ReplacementTemplate.parse(replacement, getMatcher("").groupCount(), getNamedGroupNumbers());
+	}
+
+	Match toMatch(MatchResult result) {
+		return Match.from(partial, result);
+	}
+
+	/**
+	 * Finds all the matches within the file by memory mapping it rather than
+	 * reading it into memory.
+	 *
+	 * <p>
+	 * The file is read as UTF-8. See {@link RegexStreamer#getAllMatches(java.nio.file.Path)
+	 * } for details and {@link #toStreamer() } for other options. The stream
+	 * holds the file open and should be closed once it is finished with.</p>
+	 *
+	 * @param file the file to search
+	 * @return a stream of every match within the file
+	 * @throws IOException if the file can't be opened
+	 */
+	public Stream<FileMatch> getAllMatches(Path file) throws IOException {
+		return toStreamer().getAllMatches(file);
+	}
+
+	public boolean doesNotMatchTheBeginningOf(CharSequence sourceText) {
 		return !matchesBeginningOf(sourceText);
 	}
 
-	public boolean doesNotMatchTheEndOf(String sourceText) {
+	public boolean doesNotMatchTheEndOf(CharSequence sourceText) {
 		return !matchesEndOf(sourceText);
 	}
 
-	public boolean doesNotMatchTheEntireString(String sourceText) {
+	public boolean doesNotMatchTheEntireString(CharSequence sourceText) {
 		return !matchesEntireString(sourceText);
 	}
 
-	public boolean doesNotMatchWithin(String sourceText) {
+	public boolean doesNotMatchWithin(CharSequence sourceText) {
 		return !matchesWithinString(sourceText);
 	}
+
+	// String versions of the matching methods, so that code compiled against
+	// releases that only accepted Strings still links
+	public boolean matches(String string) {
+		return matches((CharSequence) string);
+	}
+
+	public static boolean matchesAny(String string, Regex... regexes) {
+		return matchesAny((CharSequence) string, regexes);
+	}
+
+	public static boolean matchesAll(String string, Regex... regexes) {
+		return matchesAll((CharSequence) string, regexes);
+	}
+
+	public boolean matchesEntireString(String string) {
+		return matchesEntireString((CharSequence) string);
+	}
+
+	public boolean matchesBeginningOf(String string) {
+		return matchesBeginningOf((CharSequence) string);
+	}
+
+	public boolean matchesEndOf(String string) {
+		return matchesEndOf((CharSequence) string);
+	}
+
+	public boolean matchesWithinString(String string) {
+		return matchesWithinString((CharSequence) string);
+	}
+
+	public Stream<MatchResult> getMatchResultsStream(String string) {
+		return getMatchResultsStream((CharSequence) string);
+	}
+
+	public Matcher getMatcher(String string) {
+		return getMatcher((CharSequence) string);
+	}
+
+	public MatchResult getMatchResult(String string) {
+		return getMatchResult((CharSequence) string);
+	}
+
+	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(String string) {
+		return getAllNamedCapturesOfFirstMatchWithinString((CharSequence) string);
+	}
+
+	public List<Match> getAllMatches(String string) {
+		return getAllMatches((CharSequence) string);
+	}
+
+	public Optional<Match> getFirstMatchFrom(String string) {
+		return getFirstMatchFrom((CharSequence) string);
+	}
+
+	public boolean doesNotMatchTheBeginningOf(String sourceText) {
+		return doesNotMatchTheBeginningOf((CharSequence) sourceText);
+	}
+
+	public boolean doesNotMatchTheEndOf(String sourceText) {
+		return doesNotMatchTheEndOf((CharSequence) sourceText);
+	}
+
+	public boolean doesNotMatchTheEntireString(String sourceText) {
+		return doesNotMatchTheEntireString((CharSequence) sourceText);
+	}
+
+	public boolean doesNotMatchWithin(String sourceText) {
+		return doesNotMatchWithin((CharSequence) sourceText);
+	}
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+/**
+ * Receives a report of every match operation performed by a Regex.
+ *
+ * <p>
+ * Attach metrics to a Regex with
+ * {@link Regex#withMetrics(nz.co.gregs.regexi.RegexMetrics) }. One instance
+ * may be shared by many Regexes, in which case the Regex passed to
+ * {@link #record(nz.co.gregs.regexi.Regex, nz.co.gregs.regexi.RegexOperation, int, boolean, long)
+ * } identifies which one performed the operation.</p>
+ *
+ * <p>
+ * Implementations are called on the thread doing the matching, possibly from
+ * many threads at once, so they should be thread-safe and quick.
+ * {@link RegexStatistics} is a lock-free implementation that keeps counts and
+ * histograms in memory.</p>
+ *
+ * @author gregorygraham
+ */
+public interface RegexMetrics {
+
+	/**
+	 * Metrics that do nothing.
+	 *
+	 * <p>
+	 * A Regex given these metrics skips reporting entirely, so it doesn't even
+	 * read the clock.</p>
+	 */
+	RegexMetrics NONE = (regex, operation, inputLength, matched, durationNanos) -> {
+	};
+
+	/**
+	 * Reports a finished match operation.
+	 *
+	 * @param regex the Regex that performed the operation
+	 * @param operation the method that was called
+	 * @param inputLength the length of the source text
+	 * @param matched true if the operation found a match
+	 * @param durationNanos how long the operation took in nanoseconds
+	 */
+	void record(Regex regex, RegexOperation operation, int inputLength, boolean matched, long durationNanos);
+}
@@ -30,10 +30,15 @@
  */
 package nz.co.gregs.regexi;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.Function;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
+import nz.co.gregs.regexi.internal.ReplacementTemplate;
 
 /**
  *
@@ -41,31 +46,233 @@ import java.util.regex.Matcher;
  */
 public class RegexReplacer implements Serializable {
 
-  private final Regex regex;
-  private final String pattern;
-  
-  public RegexReplacer(Regex regex, String pattern) {
-    this.regex = regex;
-    this.pattern = pattern;
-  }
+	private final Regex regex;
+	private final String pattern;
+	private volatile ReplacementTemplate template;
+
+	public RegexReplacer(Regex regex, String pattern) {
+		this.regex = regex;
+		this.pattern = pattern;
+	}
+
+	/**
+	 * Creates a replacer that uses a precompiled replacement.
+	 *
+	 * @param regex the regex to find the text to replace
+	 * @param template the replacement for each match
+	 */
+	public RegexReplacer(Regex regex, ReplacementTemplate template) {
+		this.regex = regex;
+		this.pattern = template.getReplacement();
+		this.template = template;
+	}
 
+	public String replaceAll(CharSequence s) {
+		return replace(s, Long.MAX_VALUE, RegexOperation.REPLACE_ALL);
+	}
+
+	public String replaceFirst(CharSequence s) {
+		return replace(s, 1, RegexOperation.REPLACE_FIRST);
+	}
+
+	public String replaceAll(CharSequence s, Function<MatchResult, String> fn) {
+		return replace(s, fn, RegexOperation.REPLACE_ALL);
+	}
+
+	public String replaceFirst(CharSequence s, Function<MatchResult, String> fn) {
+		return replace(s, fn, RegexOperation.REPLACE_FIRST);
+	}
+
+	// String versions kept so that code compiled against earlier releases links
 	public String replaceAll(String s) {
-		return getMatcher(s).replaceAll(pattern);
+		return replaceAll((CharSequence) s);
 	}
 
 	public String replaceFirst(String s) {
-		return getMatcher(s).replaceFirst(pattern);
+		return replaceFirst((CharSequence) s);
 	}
 
 	public String replaceAll(String s, Function<MatchResult, String> fn) {
-		return getMatcher(s).replaceAll(fn);
+		return replaceAll((CharSequence) s, fn);
 	}
 
 	public String replaceFirst(String s, Function<MatchResult, String> fn) {
-		return getMatcher(s).replaceFirst(fn);
+		return replaceFirst((CharSequence) s, fn);
+	}
+
+	/**
+	 * Replaces every match in the source text, writing the result to the output
+	 * rather than creating a String.
+	 *
+	 * @param s the source text
+	 * @param output where to write the text with the replacements made, for
+	 * instance a Writer or StringBuilder
+	 * @return the number of replacements made
+	 * @throws IOException if the output can't be written
+	 */
+	public long replaceAll(CharSequence s, Appendable output) throws IOException {
+		return replace(s, output, Long.MAX_VALUE, RegexOperation.REPLACE_ALL);
+	}
+
+	/**
+	 * Replaces the first match in the source text, writing the result to the
+	 * output rather than creating a String.
+	 *
+	 * @param s the source text
+	 * @param output where to write the text with the replacement made
+	 * @return the number of replacements made, 0 or 1
+	 * @throws IOException if the output can't be written
+	 */
+	public long replaceFirst(CharSequence s, Appendable output) throws IOException {
+		return replace(s, output, 1, RegexOperation.REPLACE_FIRST);
+	}
+
+	private String replace(CharSequence s, long limit, RegexOperation operation) {
+		if (!regex.isTimed()) {
+			final String result = replace(s, limit);
+			return result == null ? s.toString() : result;
+		}
+		final long started = System.nanoTime();
+		String result = null;
+		try {
+			result = replace(s, limit);
+			return result == null ? s.toString() : result;
+		} finally {
+			regex.record(operation, s, result != null, started);
+		}
+	}
+
+	private long replace(CharSequence s, Appendable output, long limit, RegexOperation operation) throws IOException {
+		if (!regex.isTimed()) {
+			return replace(s, output, limit);
+		}
+		final long started = System.nanoTime();
+		long replaced = 0;
+		try {
+			replaced = replace(s, output, limit);
+			return replaced;
+		} finally {
+			regex.record(operation, s, replaced > 0, started);
+		}
+	}
+
+	private String replace(CharSequence s, Function<MatchResult, String> fn, RegexOperation operation) {
+		if (!regex.isTimed()) {
+			return replace(getMatcher(s), fn, operation);
+		}
+		final long started = System.nanoTime();
+		final boolean[] matched = {false};
+		try {
+			return replace(getMatcher(s), result -> {
+				matched[0] = true;
+				return fn.apply(result);
+			}, operation);
+		} finally {
+			regex.record(operation, s, matched[0], started);
+		}
+	}
+
+	private static String replace(Matcher matcher, Function<MatchResult, String> fn, RegexOperation operation) {
+		return operation == RegexOperation.REPLACE_FIRST ? matcher.replaceFirst(fn) : matcher.replaceAll(fn);
+	}
+
+	/**
+	 * Replaces matches in the source text.
+	 *
+	 * @return the replaced text, or null if nothing matched
+	 */
+	private String replace(CharSequence s, long limit) {
+		final Matcher matcher = getMatcher(s);
+		if (!matcher.find()) {
+			return null;
+		}
+		final StringBuilder result = new StringBuilder(s.length() + 16);
+		try {
+			replace(matcher, s, result, limit);
+		} catch (IOException ex) {
+			// StringBuilder doesn't throw IOExceptions
+			throw new UncheckedIOException(ex);
+		}
+		return result.toString();
+	}
+
+	private long replace(CharSequence s, Appendable output, long limit) throws IOException {
+		final Matcher matcher = getMatcher(s);
+		if (!matcher.find()) {
+			output.append(s);
+			return 0;
+		}
+		return replace(matcher, s, output, limit);
+	}
+
+	/**
+	 * Replaces matches from the matcher's current match onwards.
+	 */
+	private long replace(Matcher matcher, CharSequence s, Appendable output, long limit) throws IOException {
+		final ReplacementTemplate compiled = getTemplate();
+		long replaced = 0;
+		int copiedTo = 0;
+		do {
+			output.append(s, copiedTo, matcher.start());
+			compiled.appendTo(matcher, s, output);
+			copiedTo = matcher.end();
+			replaced++;
+		} while (replaced < limit && matcher.find());
+		output.append(s, copiedTo, s.length());
+		return replaced;
+	}
+
+	/**
+	 * The replacement compiled into a template, which is created on first use
+	 * so that errors in the replacement are reported when it is applied.
+	 *
+	 * @return the template for the replacement
+	 */
+	private ReplacementTemplate getTemplate() {
+		ReplacementTemplate compiled = template;
+		if (compiled == null) {
+			compiled = regex.compileReplacement(pattern);
+			template = compiled;
+		}
+		return compiled;
+	}
+
+	/**
+	 * Copies the input to the output, replacing every match without loading the
+	 * entire input into memory.
+	 *
+	 * <p>
+	 * Matches are limited to {@link RegexStreamer#DEFAULT_MAXIMUM_MATCH_LENGTH}
+	 * chars, use {@link Regex#toStreamer() } to change the limit.</p>
+	 *
+	 * @param input the source text
+	 * @param output where to write the text with the replacements made, for
+	 * instance a Writer
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 */
+	public long replaceAll(Reader input, Appendable output) throws IOException {
+		return regex.toStreamer().replaceAll(input, output, getTemplate());
+	}
+
+	/**
+	 * Copies the input to the channel, encoded as UTF-8, replacing every match
+	 * without loading the entire input into memory.
+	 *
+	 * <p>
+	 * Use {@link Regex#toStreamer() } to change the charset or the limit on the
+	 * length of matches.</p>
+	 *
+	 * @param input the source text
+	 * @param output where to write the text with the replacements made
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 */
+	public long replaceAll(Reader input, WritableByteChannel output) throws IOException {
+		return regex.toStreamer().replaceAll(input, output, getTemplate());
 	}
 
-	private Matcher getMatcher(String s) {
+	private Matcher getMatcher(CharSequence s) {
 		return regex.getMatcher(s);
 	}
   
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import nz.co.gregs.regexi.internal.AhoCorasick;
+
+/**
+ * A collection of Regexes that are tested against the same input together.
+ *
+ * <p>
+ * When a RegexSet is created each Regex is examined for a literal that must
+ * appear in every match (see {@link Regex#getRequiredLiterals() }). Testing
+ * the set makes a single pass over the input, using an Aho-Corasick automaton
+ * to find all of those literals at once, and only the Regexes whose literal
+ * was found, or that have no required literal, are then run against the
+ * input.</p>
+ *
+ * <p>
+ * This is much faster than {@link Regex#matchesAny(java.lang.String, nz.co.gregs.regexi.Regex...)
+ * } when there are many Regexes and most of them don't match.</p>
+ *
+ * @author gregorygraham
+ */
+public class RegexSet {
+
+	private final List<Regex> regexes;
+	private final AhoCorasick prefilter;
+	// the regexes that require each literal in the prefilter
+	private final int[][] regexesRequiringLiteral;
+	// the regexes that don't require any literal and must always be tested
+	private final int[] unfilteredRegexes;
+
+	/**
+	 * Creates a RegexSet of the supplied Regexes.
+	 *
+	 * @param regexes the Regexes to include in the set
+	 * @return a new RegexSet
+	 */
+	public static RegexSet of(Regex... regexes) {
+		return new RegexSet(Arrays.asList(regexes));
+	}
+
+	/**
+	 * Creates a RegexSet of the supplied Regexes.
+	 *
+	 * @param regexes the Regexes to include in the set
+	 * @return a new RegexSet
+	 */
+	public static RegexSet of(Collection<Regex> regexes) {
+		return new RegexSet(new ArrayList<>(regexes));
+	}
+
+	private RegexSet(List<Regex> regexes) {
+		this.regexes = Collections.unmodifiableList(regexes);
+		final Map<String, Integer> literalIndexes = new HashMap<>();
+		final List<String> literals = new ArrayList<>();
+		final List<List<Integer>> requiring = new ArrayList<>();
+		final List<Integer> unfiltered = new ArrayList<>();
+		for (int i = 0; i < regexes.size(); i++) {
+			final List<String> required = regexes.get(i).getRequiredLiterals();
+			if (required.isEmpty()) {
+				unfiltered.add(i);
+			} else {
+				// the longest literal is the least likely to appear by chance
+				final String literal = required.get(0);
+				Integer index = literalIndexes.get(literal);
+				if (index == null) {
+					index = literals.size();
+					literalIndexes.put(literal, index);
+					literals.add(literal);
+					requiring.add(new ArrayList<>(1));
+				}
+				requiring.get(index).add(i);
+			}
+		}
+		this.prefilter = literals.isEmpty() ? null : new AhoCorasick(literals);
+		this.regexesRequiringLiteral = new int[requiring.size()][];
+		for (int i = 0; i < requiring.size(); i++) {
+			regexesRequiringLiteral[i] = requiring.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+		this.unfilteredRegexes = unfiltered.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * The Regexes within this set.
+	 *
+	 * @return an unmodifiable list of the Regexes in the order they were supplied
+	 */
+	public List<Regex> getRegexes() {
+		return regexes;
+	}
+
+	/**
+	 * The number of Regexes in this set.
+	 *
+	 * @return the number of Regexes
+	 */
+	public int size() {
+		return regexes.size();
+	}
+
+	/**
+	 * Finds the position, within {@link #getRegexes() }, of every Regex that
+	 * matches within the source text.
+	 *
+	 * @param string the source text
+	 * @return the indexes of the matching Regexes in ascending order
+	 */
+	public List<Integer> getMatchingIndexes(CharSequence string) {
+		final CharSequence test = string == null ? "" : string;
+		final boolean[] candidates = findCandidates(test);
+		final List<Integer> result = new ArrayList<>();
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i] && regexes.get(i).matchesWithinString(test)) {
+				result.add(i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds every Regex that matches within the source text.
+	 *
+	 * @param string the source text
+	 * @return the matching Regexes in the order they were supplied
+	 */
+	public List<Regex> getMatchingRegexes(CharSequence string) {
+		final List<Regex> result = new ArrayList<>();
+		for (Integer index : getMatchingIndexes(string)) {
+			result.add(regexes.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the first match of every Regex that matches within the source text.
+	 *
+	 * @param string the source text
+	 * @return a map from the index of each matching Regex to its first Match, in
+	 * ascending order of index
+	 */
+	public Map<Integer, Match> getFirstMatches(CharSequence string) {
+		final CharSequence test = string == null ? "" : string;
+		final boolean[] candidates = findCandidates(test);
+		final Map<Integer, Match> result = new LinkedHashMap<>();
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i]) {
+				final Optional<Match> match = regexes.get(i).getFirstMatchFrom(test);
+				if (match.isPresent()) {
+					result.put(i, match.get());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether any Regex in this set matches within the source text.
+	 *
+	 * @param string the source text
+	 * @return true if at least one Regex matches
+	 */
+	public boolean matchesAny(CharSequence string) {
+		final CharSequence test = string == null ? "" : string;
+		final boolean[] candidates = findCandidates(test);
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i] && regexes.get(i).matchesWithinString(test)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether every Regex in this set matches within the source text.
+	 *
+	 * @param string the source text
+	 * @return true if all the Regexes match, or the set is empty
+	 */
+	public boolean matchesAll(CharSequence string) {
+		final CharSequence test = string == null ? "" : string;
+		final boolean[] candidates = findCandidates(test);
+		for (int i = 0; i < candidates.length; i++) {
+			if (!candidates[i] || !regexes.get(i).matchesWithinString(test)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean[] findCandidates(CharSequence test) {
+		final boolean[] candidates = new boolean[regexes.size()];
+		for (int index : unfilteredRegexes) {
+			candidates[index] = true;
+		}
+		if (prefilter != null) {
+			final boolean[] seen = new boolean[regexesRequiringLiteral.length];
+			final int[] remaining = new int[]{regexesRequiringLiteral.length};
+			prefilter.scan(test, literal -> {
+				if (!seen[literal]) {
+					seen[literal] = true;
+					for (int index : regexesRequiringLiteral[literal]) {
+						candidates[index] = true;
+					}
+					remaining[0]--;
+				}
+				// stop once every literal has been found
+				return remaining[0] > 0;
+			});
+		}
+		return candidates;
+	}
+}
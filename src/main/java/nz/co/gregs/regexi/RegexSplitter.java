@@ -1,8 +1,17 @@
 package nz.co.gregs.regexi;
 
+import java.io.Reader;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -16,14 +25,207 @@ public class RegexSplitter implements Serializable {
 		this.regex = baseRegex;
 	}
 
-	public String[] split(String sourceText) {
-		return sourceText.split(regex.getRegex());
+	/**
+	 * Splits the source text around the matches of the regex.
+	 *
+	 * <p>
+	 * The pieces are the same as {@link String#split(java.lang.String) } would
+	 * produce, but the regex is compiled once rather than on every call.</p>
+	 *
+	 * @param sourceText the source text
+	 * @return the pieces of the source text
+	 */
+	public String[] split(CharSequence sourceText) {
+		return split(sourceText, 0);
 	}
 
-	public List<String> splitToList(String sourceText) {
-		String[] split = sourceText.split(regex.getRegex());
+	/**
+	 * Splits the source text around the matches of the regex.
+	 *
+	 * <p>
+	 * The pieces and limit are the same as
+	 * {@link String#split(java.lang.String, int) } would produce.</p>
+	 *
+	 * @param sourceText the source text
+	 * @param limit the maximum number of pieces if positive, otherwise the
+	 * number of pieces is not limited and, if zero, trailing empty pieces are
+	 * removed
+	 * @return the pieces of the source text
+	 */
+	public String[] split(CharSequence sourceText, int limit) {
+		if (!regex.isTimed()) {
+			return split(new Pieces(regex.getMatcher(sourceText), sourceText, limit));
+		}
+		final long started = System.nanoTime();
+		Pieces pieces = null;
+		try {
+			pieces = new Pieces(regex.getMatcher(sourceText), sourceText, limit);
+			return split(pieces);
+		} finally {
+			regex.record(RegexOperation.SPLIT, sourceText, pieces != null && pieces.foundMatch(), started);
+		}
+	}
+
+	private static String[] split(Pieces pieces) {
+		return StreamSupport.stream(pieces, false).map(CharSequence::toString).toArray(String[]::new);
+	}
+
+	public List<String> splitToList(CharSequence sourceText) {
+		String[] split = split(sourceText);
 		List<String> asList = Arrays.asList(split);
 		return asList;
 	}
 
+	// String versions kept so that code compiled against earlier releases links
+	public String[] split(String sourceText) {
+		return split((CharSequence) sourceText);
+	}
+
+	public List<String> splitToList(String sourceText) {
+		return splitToList((CharSequence) sourceText);
+	}
+
+	/**
+	 * Splits the source text lazily, finding each piece only when it is
+	 * requested.
+	 *
+	 * <p>
+	 * The pieces are views created with
+	 * {@link CharSequence#subSequence(int, int) } so the source text must not
+	 * change while the stream is in use.</p>
+	 *
+	 * @param sourceText the source text
+	 * @return a lazy stream of the pieces of the source text
+	 * @see #split(java.lang.CharSequence)
+	 */
+	public Stream<CharSequence> splitToStream(CharSequence sourceText) {
+		return splitToStream(sourceText, 0);
+	}
+
+	/**
+	 * Splits the source text lazily, finding each piece only when it is
+	 * requested.
+	 *
+	 * @param sourceText the source text
+	 * @param limit the maximum number of pieces if positive, otherwise the
+	 * number of pieces is not limited and, if zero, trailing empty pieces are
+	 * removed
+	 * @return a lazy stream of the pieces of the source text
+	 * @see #split(java.lang.CharSequence, int)
+	 */
+	public Stream<CharSequence> splitToStream(CharSequence sourceText, int limit) {
+		return StreamSupport.stream(new Pieces(regex.getMatcher(sourceText), sourceText, limit), false);
+	}
+
+	/**
+	 * Splits the source text lazily, finding each piece only when it is
+	 * requested.
+	 *
+	 * @param sourceText the source text
+	 * @param limit the maximum number of pieces if positive, otherwise the
+	 * number of pieces is not limited and, if zero, trailing empty pieces are
+	 * removed
+	 * @return an iterator over the pieces of the source text
+	 * @see #split(java.lang.CharSequence, int)
+	 */
+	public Iterator<CharSequence> splitToIterator(CharSequence sourceText, int limit) {
+		return Spliterators.iterator(new Pieces(regex.getMatcher(sourceText), sourceText, limit));
+	}
+
+	/**
+	 * Splits the input as it is read, without loading the entire input into
+	 * memory.
+	 *
+	 * <p>
+	 * Matches are limited to {@link RegexStreamer#DEFAULT_MAXIMUM_MATCH_LENGTH}
+	 * chars, use {@link Regex#toStreamer() } to change the limit.</p>
+	 *
+	 * @param input the source text
+	 * @return a lazy stream of the pieces of the input
+	 */
+	public Stream<String> split(Reader input) {
+		return regex.toStreamer().split(input);
+	}
+
+	/**
+	 * Produces the pieces of the text in the same way as
+	 * {@link Pattern#split(java.lang.CharSequence, int) }, one match at a time.
+	 */
+	private static class Pieces extends Spliterators.AbstractSpliterator<CharSequence> {
+
+		private final Matcher matcher;
+		private final CharSequence text;
+		private final int limit;
+		private int index = 0;
+		private int count = 0;
+		private boolean finished = false;
+		private boolean wholeText = false;
+		// empty pieces are only produced, when the limit is zero, if a non-empty piece follows
+		private int deferredEmpties = 0;
+		private int emptiesToSupply = 0;
+		private CharSequence held = null;
+
+		Pieces(Matcher matcher, CharSequence text, int limit) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.matcher = matcher;
+			this.text = text;
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super CharSequence> action) {
+			if (emptiesToSupply > 0) {
+				emptiesToSupply--;
+				action.accept("");
+				return true;
+			}
+			if (held != null) {
+				final CharSequence piece = held;
+				held = null;
+				action.accept(piece);
+				return true;
+			}
+			CharSequence piece = nextPiece();
+			while (piece != null && limit == 0 && piece.length() == 0 && !wholeText) {
+				deferredEmpties++;
+				piece = nextPiece();
+			}
+			if (piece == null) {
+				return false;
+			}
+			if (deferredEmpties > 0) {
+				emptiesToSupply = deferredEmpties - 1;
+				deferredEmpties = 0;
+				held = piece;
+				action.accept("");
+				return true;
+			}
+			action.accept(piece);
+			return true;
+		}
+
+		boolean foundMatch() {
+			return count > 0;
+		}
+
+		private CharSequence nextPiece() {
+			if (finished) {
+				return null;
+			}
+			while ((limit <= 0 || count < limit - 1) && matcher.find()) {
+				if (index == 0 && matcher.start() == 0 && matcher.end() == 0) {
+					// an empty match at the start doesn't produce an empty leading piece
+					continue;
+				}
+				final CharSequence piece = text.subSequence(index, matcher.start());
+				index = matcher.end();
+				count++;
+				return piece;
+			}
+			finished = true;
+			// with no matches the text is returned whole, even if it is empty
+			wholeText = index == 0;
+			return text.subSequence(index, text.length());
+		}
+	}
 }
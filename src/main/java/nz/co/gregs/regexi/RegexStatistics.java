@@ -0,0 +1,228 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics that keep counts and histograms for each Regex operation in memory.
+ *
+ * <p>
+ * For each operation the statistics count the calls and the matches, and keep
+ * a histogram of the input lengths and another of the durations in
+ * nanoseconds. Recording is lock-free and doesn't allocate once an operation
+ * has been seen.</p>
+ *
+ * <p>
+ * Use a separate RegexStatistics for each Regex to find out which of them is
+ * using the most time:</p>
+ *
+ * <pre>
+ * RegexStatistics stats = new RegexStatistics();
+ * Regex regex = Regex.startingAnywhere().literal("ERROR").toRegex().withMetrics(stats);
+ * ...
+ * long calls = stats.getStatistics(RegexOperation.MATCHES_WITHIN_STRING).getCalls();
+ * </pre>
+ *
+ * @author gregorygraham
+ */
+public final class RegexStatistics implements RegexMetrics {
+
+	private static final RegexOperation[] OPERATIONS = RegexOperation.values();
+
+	private final AtomicReferenceArray<OperationStatistics> operations = new AtomicReferenceArray<>(OPERATIONS.length);
+
+	@Override
+	public void record(Regex regex, RegexOperation operation, int inputLength, boolean matched, long durationNanos) {
+		getStatistics(operation).record(inputLength, matched, durationNanos);
+	}
+
+	/**
+	 * The statistics for one operation.
+	 *
+	 * @param operation the operation
+	 * @return the live statistics for the operation
+	 */
+	public OperationStatistics getStatistics(RegexOperation operation) {
+		final int index = operation.ordinal();
+		OperationStatistics statistics = operations.get(index);
+		if (statistics == null) {
+			operations.compareAndSet(index, null, new OperationStatistics());
+			statistics = operations.get(index);
+		}
+		return statistics;
+	}
+
+	/**
+	 * The statistics for every operation that has been used.
+	 *
+	 * @return the live statistics for each operation
+	 */
+	public Map<RegexOperation, OperationStatistics> getAllStatistics() {
+		final Map<RegexOperation, OperationStatistics> all = new EnumMap<>(RegexOperation.class);
+		for (RegexOperation operation : OPERATIONS) {
+			final OperationStatistics statistics = operations.get(operation.ordinal());
+			if (statistics != null) {
+				all.put(operation, statistics);
+			}
+		}
+		return all;
+	}
+
+	/**
+	 * The number of operations of every kind.
+	 *
+	 * @return the total number of calls
+	 */
+	public long getCalls() {
+		long calls = 0;
+		for (OperationStatistics statistics : getAllStatistics().values()) {
+			calls += statistics.getCalls();
+		}
+		return calls;
+	}
+
+	/**
+	 * The total time spent in operations of every kind.
+	 *
+	 * @return the total duration in nanoseconds
+	 */
+	public long getTotalNanos() {
+		long nanos = 0;
+		for (OperationStatistics statistics : getAllStatistics().values()) {
+			nanos += statistics.getTotalNanos();
+		}
+		return nanos;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder("RegexStatistics{");
+		String separator = "";
+		for (Map.Entry<RegexOperation, OperationStatistics> entry : getAllStatistics().entrySet()) {
+			result.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+			separator = ", ";
+		}
+		return result.append('}').toString();
+	}
+
+	/**
+	 * The counts and histograms for one operation.
+	 */
+	public static final class OperationStatistics {
+
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder matches = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LogLinearHistogram inputLengths = new LogLinearHistogram();
+		private final LogLinearHistogram durations = new LogLinearHistogram();
+
+		OperationStatistics() {
+		}
+
+		void record(int inputLength, boolean matched, long durationNanos) {
+			calls.increment();
+			if (matched) {
+				matches.increment();
+			}
+			totalNanos.add(durationNanos);
+			inputLengths.record(inputLength);
+			durations.record(durationNanos);
+		}
+
+		/**
+		 * The number of times the operation was called.
+		 *
+		 * @return the number of calls
+		 */
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		/**
+		 * The number of calls that found a match.
+		 *
+		 * @return the number of matches
+		 */
+		public long getMatches() {
+			return matches.sum();
+		}
+
+		/**
+		 * The proportion of calls that found a match.
+		 *
+		 * @return the match ratio from 0.0 to 1.0, or 0.0 if there have been no
+		 * calls
+		 */
+		public double getMatchRatio() {
+			final long called = calls.sum();
+			return called == 0 ? 0.0 : (double) matches.sum() / called;
+		}
+
+		/**
+		 * The total time spent in the operation.
+		 *
+		 * @return the total duration in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		/**
+		 * The lengths of the source texts.
+		 *
+		 * @return the live histogram of input lengths in chars
+		 */
+		public LogLinearHistogram getInputLengths() {
+			return inputLengths;
+		}
+
+		/**
+		 * How long the operation took.
+		 *
+		 * @return the live histogram of durations in nanoseconds
+		 */
+		public LogLinearHistogram getDurations() {
+			return durations;
+		}
+
+		@Override
+		public String toString() {
+			return "{calls=" + getCalls()
+					+ ", matchRatio=" + String.format("%.3f", getMatchRatio())
+					+ ", inputLengths={" + inputLengths
+					+ "}, durationNanos={" + durations + "}}";
+		}
+	}
+}
@@ -0,0 +1,605 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import nz.co.gregs.regexi.internal.MappedFileMatcher;
+import nz.co.gregs.regexi.internal.ReplacementTemplate;
+import nz.co.gregs.regexi.internal.StreamingMatcher;
+
+/**
+ * Matches a Regex against a file, Reader, InputStream, or ReadableByteChannel
+ * without loading the entire input into memory.
+ *
+ * <p>
+ * The input is read in chunks into a sliding window. Matches that span chunks
+ * are found exactly as they would be within a String, as long as they are no
+ * longer than the maximum match length. Memory use is bounded by about twice
+ * the maximum match length plus the chunk size, regardless of the size of the
+ * input.</p>
+ *
+ * <p>
+ * Bytes are decoded using the charset, UTF-8 by default, with malformed input
+ * replaced rather than reported. Inputs are read as needed and never closed,
+ * so matches are available before the input is exhausted and the caller
+ * remains responsible for closing the input.</p>
+ *
+ * <p>
+ * Create a RegexStreamer with {@link Regex#toStreamer() }. RegexStreamers are
+ * immutable and may be shared between threads.</p>
+ *
+ * @author gregorygraham
+ */
+public class RegexStreamer {
+
+	/**
+	 * The default length, in chars, of the longest match expected.
+	 */
+	public static final int DEFAULT_MAXIMUM_MATCH_LENGTH = 16 * 1024;
+
+	/**
+	 * The default number of chars read from the input at a time.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * The default number of bytes of a file mapped at a time.
+	 */
+	public static final int DEFAULT_MAPPED_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+	private final Regex regex;
+	private final int maximumMatchLength;
+	private final int chunkSize;
+	private final Charset charset;
+	private final int mappedSegmentSize;
+
+	RegexStreamer(Regex regex) {
+		this(regex, DEFAULT_MAXIMUM_MATCH_LENGTH, DEFAULT_CHUNK_SIZE, StandardCharsets.UTF_8, DEFAULT_MAPPED_SEGMENT_SIZE);
+	}
+
+	private RegexStreamer(Regex regex, int maximumMatchLength, int chunkSize, Charset charset, int mappedSegmentSize) {
+		if (maximumMatchLength < 1) {
+			throw new IllegalArgumentException("The maximum match length must be at least 1: " + maximumMatchLength);
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least 1: " + chunkSize);
+		}
+		if (charset == null) {
+			throw new IllegalArgumentException("A charset is required");
+		}
+		this.regex = regex;
+		this.maximumMatchLength = maximumMatchLength;
+		this.chunkSize = chunkSize;
+		this.charset = charset;
+		this.mappedSegmentSize = mappedSegmentSize;
+	}
+
+	/**
+	 * Creates a copy of this RegexStreamer expecting matches of up to the
+	 * specified length.
+	 *
+	 * <p>
+	 * The maximum must cover how far the regex reads beyond the start of a
+	 * match, which for most regexes is the length of the longest match, including
+	 * any lookahead. Matches beyond the maximum may be cut short or missed, while
+	 * a larger maximum uses more memory.</p>
+	 *
+	 * @param maximumMatchLength the length, in chars, of the longest match
+	 * expected
+	 * @return a new RegexStreamer
+	 */
+	public RegexStreamer withMaximumMatchLength(int maximumMatchLength) {
+		return new RegexStreamer(regex, maximumMatchLength, chunkSize, charset, mappedSegmentSize);
+	}
+
+	/**
+	 * Creates a copy of this RegexStreamer that reads the specified number of
+	 * chars at a time.
+	 *
+	 * @param chunkSize the number of chars to read at a time
+	 * @return a new RegexStreamer
+	 */
+	public RegexStreamer withChunkSize(int chunkSize) {
+		return new RegexStreamer(regex, maximumMatchLength, chunkSize, charset, mappedSegmentSize);
+	}
+
+	/**
+	 * Creates a copy of this RegexStreamer that decodes files, InputStreams, and
+	 * ReadableByteChannels with the specified charset.
+	 *
+	 * @param charset the encoding of byte inputs
+	 * @return a new RegexStreamer
+	 */
+	public RegexStreamer withCharset(Charset charset) {
+		return new RegexStreamer(regex, maximumMatchLength, chunkSize, charset, mappedSegmentSize);
+	}
+
+	/**
+	 * Creates a copy of this RegexStreamer that maps the specified number of
+	 * bytes of a file at a time.
+	 *
+	 * <p>
+	 * The segment size must be at least 8 times the maximum match length plus
+	 * 8.</p>
+	 *
+	 * @param mappedSegmentSize the number of bytes to map at a time
+	 * @return a new RegexStreamer
+	 * @see #getAllMatches(java.nio.file.Path)
+	 */
+	public RegexStreamer withMappedSegmentSize(int mappedSegmentSize) {
+		return new RegexStreamer(regex, maximumMatchLength, chunkSize, charset, mappedSegmentSize);
+	}
+
+	public Regex getRegex() {
+		return regex;
+	}
+
+	public int getMaximumMatchLength() {
+		return maximumMatchLength;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	public int getMappedSegmentSize() {
+		return mappedSegmentSize;
+	}
+
+	/**
+	 * Tests whether the regex matches anywhere within the input.
+	 *
+	 * <p>
+	 * Reading stops at the first match.</p>
+	 *
+	 * @param input the source text
+	 * @return true if the regex matches somewhere within the input
+	 * @throws IOException if the input can't be read
+	 */
+	public boolean matchesWithin(Reader input) throws IOException {
+		return matcherFor(input).find(null);
+	}
+
+	/**
+	 * Tests whether the regex matches anywhere within the input.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return true if the regex matches somewhere within the input
+	 * @throws IOException if the input can't be read
+	 */
+	public boolean matchesWithin(InputStream input) throws IOException {
+		return matchesWithin(readerFor(input));
+	}
+
+	/**
+	 * Tests whether the regex matches anywhere within the input.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return true if the regex matches somewhere within the input
+	 * @throws IOException if the input can't be read
+	 */
+	public boolean matchesWithin(ReadableByteChannel input) throws IOException {
+		return matchesWithin(readerFor(input));
+	}
+
+	/**
+	 * Finds all the matches within the input as they are read.
+	 *
+	 * <p>
+	 * The stream is lazy: input is only read as the stream is consumed. Errors
+	 * reading the input are thrown as {@link UncheckedIOException}.</p>
+	 *
+	 * @param input the source text
+	 * @return a stream of every Match within the input
+	 */
+	public Stream<Match> getAllMatches(Reader input) {
+		final StreamingMatcher matcher = matcherFor(input);
+		return streamOf(new Iterator<Match>() {
+			private Match next = null;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && find(matcher, null)) {
+					next = matcher.toMatch();
+				}
+				return next != null;
+			}
+
+			@Override
+			public Match next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				final Match result = next;
+				next = null;
+				return result;
+			}
+		});
+	}
+
+	/**
+	 * Finds all the matches within the input as they are read.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return a stream of every Match within the input
+	 * @see #getAllMatches(java.io.Reader)
+	 */
+	public Stream<Match> getAllMatches(InputStream input) {
+		return getAllMatches(readerFor(input));
+	}
+
+	/**
+	 * Finds all the matches within the input as they are read.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return a stream of every Match within the input
+	 * @see #getAllMatches(java.io.Reader)
+	 */
+	public Stream<Match> getAllMatches(ReadableByteChannel input) {
+		return getAllMatches(readerFor(input));
+	}
+
+	/**
+	 * Tests whether the regex matches anywhere within the file.
+	 *
+	 * <p>
+	 * The file is memory mapped and searched without being copied into the
+	 * heap, see {@link #getAllMatches(java.nio.file.Path) }.</p>
+	 *
+	 * @param file the file to search
+	 * @return true if the regex matches somewhere within the file
+	 * @throws IOException if the file can't be read
+	 */
+	public boolean matchesWithin(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return regex.getMappedFileMatcher(channel, charset, maximumMatchLength, mappedSegmentSize).find();
+		}
+	}
+
+	/**
+	 * Finds all the matches within the file by memory mapping it.
+	 *
+	 * <p>
+	 * The file is searched in place, using the operating system's page cache
+	 * rather than the heap, so files of any size can be searched with a small
+	 * heap. Only US-ASCII, ISO-8859-1, and UTF-8 files can be searched this way,
+	 * use {@link #getAllMatches(java.nio.channels.ReadableByteChannel) } for
+	 * other charsets.</p>
+	 *
+	 * <p>
+	 * Each FileMatch reports its offsets in chars and bytes, and reads its text
+	 * from the file only when requested. The stream is lazy and holds the file
+	 * open, so it should be closed, for instance with try-with-resources, once
+	 * it is finished with. Errors mapping the file are thrown as
+	 * {@link UncheckedIOException}.</p>
+	 *
+	 * @param file the file to search
+	 * @return a stream of every match within the file
+	 * @throws IOException if the file can't be opened
+	 * @throws IllegalArgumentException if the charset is not US-ASCII,
+	 * ISO-8859-1, or UTF-8
+	 */
+	public Stream<FileMatch> getAllMatches(Path file) throws IOException {
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		final MappedFileMatcher matcher;
+		try {
+			matcher = regex.getMappedFileMatcher(channel, charset, maximumMatchLength, mappedSegmentSize);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+		return streamOf(new Iterator<FileMatch>() {
+			private FileMatch next = null;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && find(matcher)) {
+					next = new FileMatch(regex, matcher.toMatchResult(), matcher.start(), matcher.end(), matcher.byteStart(), matcher.byteEnd());
+				}
+				return next != null;
+			}
+
+			@Override
+			public FileMatch next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				final FileMatch result = next;
+				next = null;
+				return result;
+			}
+		}).onClose(() -> {
+			try {
+				channel.close();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+
+	/**
+	 * Splits the input around the matches of the regex as it is read.
+	 *
+	 * <p>
+	 * The pieces are the same as {@link String#split(java.lang.String) } would
+	 * produce, including the removal of trailing empty pieces. Each piece is
+	 * held in memory until it is complete, but the input as a whole is not.</p>
+	 *
+	 * @param input the source text
+	 * @return a lazy stream of the pieces of the input
+	 */
+	public Stream<String> split(Reader input) {
+		final StreamingMatcher matcher = matcherFor(input);
+		return streamOf(new Iterator<String>() {
+			private final StringBuilder piece = new StringBuilder();
+			private final ArrayDeque<String> ready = new ArrayDeque<>(1);
+			// empty pieces are only produced if a non-empty piece follows
+			private int emptyPieces = 0;
+			private boolean splitAny = false;
+			private boolean finished = false;
+
+			@Override
+			public boolean hasNext() {
+				while (ready.isEmpty() && !finished) {
+					if (find(matcher, piece)) {
+						if (!splitAny && matcher.end() == 0) {
+							// an empty match at the start doesn't produce an empty leading piece
+							continue;
+						}
+						splitAny = true;
+						if (piece.length() == 0) {
+							emptyPieces++;
+						} else {
+							completePiece();
+						}
+					} else {
+						finished = true;
+						if (!splitAny) {
+							ready.add(piece.toString());
+						} else if (piece.length() > 0) {
+							completePiece();
+						}
+					}
+				}
+				return !ready.isEmpty();
+			}
+
+			private void completePiece() {
+				for (; emptyPieces > 0; emptyPieces--) {
+					ready.add("");
+				}
+				ready.add(piece.toString());
+				piece.setLength(0);
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return ready.remove();
+			}
+		});
+	}
+
+	/**
+	 * Splits the input around the matches of the regex as it is read.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return a lazy stream of the pieces of the input
+	 * @see #split(java.io.Reader)
+	 */
+	public Stream<String> split(InputStream input) {
+		return split(readerFor(input));
+	}
+
+	/**
+	 * Splits the input around the matches of the regex as it is read.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @return a lazy stream of the pieces of the input
+	 * @see #split(java.io.Reader)
+	 */
+	public Stream<String> split(ReadableByteChannel input) {
+		return split(readerFor(input));
+	}
+
+	/**
+	 * Copies the input to the output, replacing every match of the regex.
+	 *
+	 * <p>
+	 * The replacement may refer to groups using {@code $1} or {@code ${name}}
+	 * just like {@link String#replaceAll(java.lang.String, java.lang.String) }.
+	 * Output is written as the input is read and the output is not flushed or
+	 * closed.</p>
+	 *
+	 * @param input the source text
+	 * @param output where to write the text with the replacements made, for
+	 * instance a Writer or StringBuilder
+	 * @param replacement the text to replace each match with
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 */
+	public long replaceAll(Reader input, Appendable output, String replacement) throws IOException {
+		return replaceAll(input, output, regex.compileReplacement(replacement));
+	}
+
+	long replaceAll(Reader input, Appendable output, ReplacementTemplate replacement) throws IOException {
+		return matcherFor(input).replaceAll(output, replacement);
+	}
+
+	/**
+	 * Copies the input to the output, replacing every match of the regex with
+	 * the result of the function.
+	 *
+	 * <p>
+	 * The MatchResult supplied to the function is only valid during the call,
+	 * and its offsets are counted from the start of the input. Output is written
+	 * as the input is read and the output is not flushed or closed.</p>
+	 *
+	 * @param input the source text
+	 * @param output where to write the text with the replacements made
+	 * @param replacer creates the replacement text for each match
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 */
+	public long replaceAll(Reader input, Appendable output, Function<MatchResult, String> replacer) throws IOException {
+		return matcherFor(input).replaceAll(output, replacer);
+	}
+
+	/**
+	 * Copies the input to the output, replacing every match of the regex.
+	 *
+	 * @param input the source bytes, decoded with {@link #getCharset() }
+	 * @param output where to write the text with the replacements made
+	 * @param replacement the text to replace each match with
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 * @see #replaceAll(java.io.Reader, java.lang.Appendable, java.lang.String)
+	 */
+	public long replaceAll(InputStream input, Appendable output, String replacement) throws IOException {
+		return replaceAll(readerFor(input), output, replacement);
+	}
+
+	/**
+	 * Copies the input to the channel, replacing every match of the regex.
+	 *
+	 * <p>
+	 * The output is encoded with {@link #getCharset() } and written as the input
+	 * is read. The channel is not closed.</p>
+	 *
+	 * @param input the source text
+	 * @param output where to write the text with the replacements made
+	 * @param replacement the text to replace each match with
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 * @see #replaceAll(java.io.Reader, java.lang.Appendable, java.lang.String)
+	 */
+	public long replaceAll(Reader input, WritableByteChannel output, String replacement) throws IOException {
+		return replaceAll(input, output, regex.compileReplacement(replacement));
+	}
+
+	long replaceAll(Reader input, WritableByteChannel output, ReplacementTemplate replacement) throws IOException {
+		final Writer writer = writerFor(output);
+		final long replaced = replaceAll(input, writer, replacement);
+		writer.flush();
+		return replaced;
+	}
+
+	/**
+	 * Copies the input channel to the output channel, replacing every match of
+	 * the regex.
+	 *
+	 * <p>
+	 * Both channels use {@link #getCharset() }. Neither channel is closed.</p>
+	 *
+	 * @param input the source bytes
+	 * @param output where to write the text with the replacements made
+	 * @param replacement the text to replace each match with
+	 * @return the number of replacements made
+	 * @throws IOException if the input can't be read or the output written
+	 * @see #replaceAll(java.io.Reader, java.lang.Appendable, java.lang.String)
+	 */
+	public long replaceAll(ReadableByteChannel input, WritableByteChannel output, String replacement) throws IOException {
+		return replaceAll(readerFor(input), output, replacement);
+	}
+
+	private StreamingMatcher matcherFor(Reader input) {
+		return regex.getStreamingMatcher(input, maximumMatchLength, chunkSize);
+	}
+
+	private Reader readerFor(InputStream input) {
+		return new InputStreamReader(input, charset);
+	}
+
+	private Reader readerFor(ReadableByteChannel input) {
+		return Channels.newReader(input,
+				charset.newDecoder()
+						.onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE),
+				-1);
+	}
+
+	private Writer writerFor(WritableByteChannel output) {
+		return Channels.newWriter(output,
+				charset.newEncoder()
+						.onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE),
+				-1);
+	}
+
+	private static boolean find(StreamingMatcher matcher, Appendable gap) {
+		try {
+			return matcher.find(gap);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static boolean find(MappedFileMatcher matcher) {
+		try {
+			return matcher.find();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static <T> Stream<T> streamOf(Iterator<T> iterator) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+}
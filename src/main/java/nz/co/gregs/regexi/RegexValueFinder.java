@@ -26,14 +26,14 @@ public class RegexValueFinder implements Serializable {
 	 *
 	 * <p>
 	 * This method only returns the first value from the first match within the
-	 * source text. Use {@link #getAllValuesFrom(java.lang.String) } to get all
+	 * source text. Use {@link #getAllValuesFrom(java.lang.CharSequence) } to get all
 	 * the appropriate values from the string.</p>
 	 *
 	 * @param sourceText the source text to search within.
 	 * @return the value of the named capture within the source text or an empty
 	 * optional.
 	 */
-	public Optional<String> getValueFrom(String sourceText) {
+	public Optional<String> getValueFrom(CharSequence sourceText) {
 
 		final Optional<Match> firstMatchFrom = regex.getFirstMatchFrom(sourceText);
 		if (firstMatchFrom.isPresent()) {
@@ -51,7 +51,7 @@ public class RegexValueFinder implements Serializable {
 	 * @param sourceText the source text to search within.
 	 * @return the values of the named capture within the source text.
 	 */
-	public List<String> getAllValuesFrom(String sourceText) {
+	public List<String> getAllValuesFrom(CharSequence sourceText) {
 		List<String> results = new ArrayList<>(0);
 		final List<Match> matches = regex.getAllMatches(sourceText);
 		if (matches.size() > 0) {
@@ -64,4 +64,13 @@ public class RegexValueFinder implements Serializable {
 		return results;
 	}
 
+	// String versions kept so that code compiled against earlier releases links
+	public Optional<String> getValueFrom(String sourceText) {
+		return getValueFrom((CharSequence) sourceText);
+	}
+
+	public List<String> getAllValuesFrom(String sourceText) {
+		return getAllValuesFrom((CharSequence) sourceText);
+	}
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A slow match operation kept by a {@link SlowMatchSampler}.
+ *
+ * <p>
+ * The sample holds the Regex, the operation, how long it took, and the start
+ * of the input. Use {@link #explain() } or {@link #getResponsiblePart() } to
+ * test the parts of the Regex against the input and find the part that made
+ * the operation slow. The input may have been truncated, in which case the
+ * explanation may not reproduce the slow match.</p>
+ *
+ * @author gregorygraham
+ */
+public final class SlowMatch {
+
+	// parts are given at least this long when explaining quick samples
+	private static final Duration MINIMUM_EXPLANATION_BUDGET = Duration.ofMillis(10);
+
+	private final Regex regex;
+	private final RegexOperation operation;
+	private final String inputPrefix;
+	private final int inputLength;
+	private final long durationNanos;
+	private final Instant recordedAt;
+
+	SlowMatch(Regex regex, RegexOperation operation, String inputPrefix, int inputLength, long durationNanos) {
+		this.regex = regex;
+		this.operation = operation;
+		this.inputPrefix = inputPrefix;
+		this.inputLength = inputLength;
+		this.durationNanos = durationNanos;
+		this.recordedAt = Instant.now();
+	}
+
+	/**
+	 * The Regex that was slow.
+	 *
+	 * @return the Regex
+	 */
+	public Regex getRegex() {
+		return regex;
+	}
+
+	/**
+	 * The operation that was slow.
+	 *
+	 * @return the operation
+	 */
+	public RegexOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * The start of the input to the operation.
+	 *
+	 * @return the input, truncated to the sampler's prefix length
+	 */
+	public String getInputPrefix() {
+		return inputPrefix;
+	}
+
+	/**
+	 * The length of the entire input to the operation.
+	 *
+	 * @return the input length in chars
+	 */
+	public int getInputLength() {
+		return inputLength;
+	}
+
+	/**
+	 * Whether the input was longer than the prefix that was kept.
+	 *
+	 * @return true if {@link #getInputPrefix() } is not the entire input
+	 */
+	public boolean isInputTruncated() {
+		return inputLength > inputPrefix.length();
+	}
+
+	/**
+	 * How long the operation took.
+	 *
+	 * @return the duration in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * When the operation finished.
+	 *
+	 * @return the time the sample was taken
+	 */
+	public Instant getRecordedAt() {
+		return recordedAt;
+	}
+
+	/**
+	 * Tests all parts of the Regex against the input prefix, the way the
+	 * operation did, timing each part.
+	 *
+	 * <p>
+	 * Each part is limited to the duration of the original operation, or 10
+	 * milliseconds if that is longer, so a pathological part is abandoned
+	 * rather than repeating the slow match. See
+	 * {@link Regex#testAgainst(java.lang.String, nz.co.gregs.regexi.MatchBudget) }
+	 * for the format.</p>
+	 *
+	 * @return the results of testing the parts of the Regex
+	 */
+	public List<String> explain() {
+		return regex.testAgainst(inputPrefix, operation, getExplanationBudget());
+	}
+
+	/**
+	 * Finds the part of the Regex that takes the longest to perform the
+	 * operation on the input prefix.
+	 *
+	 * <p>
+	 * Parts are limited in the same way as {@link #explain() } and a part that
+	 * is abandoned is the slowest.</p>
+	 *
+	 * @return the regular expression of the slowest part, or empty if the Regex
+	 * has no parts that can be tested alone
+	 */
+	public Optional<String> getResponsiblePart() {
+		return regex.findSlowestPart(inputPrefix, operation, getExplanationBudget());
+	}
+
+	private MatchBudget getExplanationBudget() {
+		final Duration original = Duration.ofNanos(durationNanos);
+		return MatchBudget.timeLimit(original.compareTo(MINIMUM_EXPLANATION_BUDGET) > 0 ? original : MINIMUM_EXPLANATION_BUDGET);
+	}
+
+	@Override
+	public String toString() {
+		return "SlowMatch{" + operation + " took " + durationNanos + "ns on " + inputLength + " chars: " + regex.getRegex() + '}';
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the slowest match operations, with the start of their input, so that
+ * pathological cases can be reproduced and fixed.
+ *
+ * <p>
+ * Attach a sampler to a Regex with
+ * {@link Regex#withSlowMatchSampler(nz.co.gregs.regexi.SlowMatchSampler) }.
+ * The sampler holds a fixed number of {@link SlowMatch}es and is lock-free.
+ * Once it is full, operations faster than the fastest sample are rejected
+ * after a single comparison, and the input is only copied when an operation
+ * earns a place.</p>
+ *
+ * <pre>
+ * SlowMatchSampler sampler = new SlowMatchSampler(10);
+ * Regex regex = ....toRegex().withSlowMatchSampler(sampler);
+ * ...
+ * for (SlowMatch slow : sampler.getSlowestMatches()) {
+ *     System.out.println(slow + " caused by " + slow.getResponsiblePart().orElse("?"));
+ * }
+ * </pre>
+ *
+ * @author gregorygraham
+ */
+public final class SlowMatchSampler {
+
+	/**
+	 * The number of chars of each input kept by default.
+	 */
+	public static final int DEFAULT_PREFIX_LENGTH = 256;
+
+	private final AtomicReferenceArray<SlowMatch> samples;
+	private final int prefixLength;
+	// the duration an operation has to beat, lower than the true minimum while samples are being replaced
+	private volatile long floorNanos = -1;
+
+	/**
+	 * Creates a sampler that keeps the slowest operations and the first
+	 * {@value #DEFAULT_PREFIX_LENGTH} chars of their input.
+	 *
+	 * @param capacity the number of operations to keep
+	 */
+	public SlowMatchSampler(int capacity) {
+		this(capacity, DEFAULT_PREFIX_LENGTH);
+	}
+
+	/**
+	 * Creates a sampler that keeps the slowest operations and the start of their
+	 * input.
+	 *
+	 * @param capacity the number of operations to keep
+	 * @param prefixLength the number of chars of each input to keep
+	 */
+	public SlowMatchSampler(int capacity, int prefixLength) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("A SlowMatchSampler must keep at least one sample: " + capacity);
+		}
+		if (prefixLength < 0) {
+			throw new IllegalArgumentException("A SlowMatchSampler prefix length must not be negative: " + prefixLength);
+		}
+		this.samples = new AtomicReferenceArray<>(capacity);
+		this.prefixLength = prefixLength;
+	}
+
+	/**
+	 * Keeps the operation if it is slower than the fastest sample.
+	 */
+	void offer(Regex regex, RegexOperation operation, CharSequence input, long durationNanos) {
+		if (durationNanos <= floorNanos) {
+			return;
+		}
+		SlowMatch sample = null;
+		while (true) {
+			int fastest = -1;
+			SlowMatch fastestSample = null;
+			long fastestNanos = Long.MAX_VALUE;
+			for (int i = 0; i < samples.length(); i++) {
+				final SlowMatch current = samples.get(i);
+				final long nanos = current == null ? -1 : current.getDurationNanos();
+				if (nanos < fastestNanos) {
+					fastest = i;
+					fastestSample = current;
+					fastestNanos = nanos;
+				}
+			}
+			if (durationNanos <= fastestNanos) {
+				return;
+			}
+			if (sample == null) {
+				sample = new SlowMatch(regex, operation, prefixOf(input), input == null ? 0 : input.length(), durationNanos);
+			}
+			if (samples.compareAndSet(fastest, fastestSample, sample)) {
+				updateFloor();
+				return;
+			}
+		}
+	}
+
+	private String prefixOf(CharSequence input) {
+		if (input == null) {
+			return "";
+		}
+		return input.subSequence(0, Math.min(input.length(), prefixLength)).toString();
+	}
+
+	private void updateFloor() {
+		long floor = fastestSample();
+		floorNanos = floor;
+		// clear() may have emptied the samples after they were read, so check the floor still holds
+		long actual = fastestSample();
+		while (actual < floor) {
+			floor = actual;
+			floorNanos = floor;
+			actual = fastestSample();
+		}
+	}
+
+	private long fastestSample() {
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < samples.length() && fastest >= 0; i++) {
+			final SlowMatch current = samples.get(i);
+			fastest = Math.min(fastest, current == null ? -1 : current.getDurationNanos());
+		}
+		return fastest;
+	}
+
+	/**
+	 * The operations kept by the sampler.
+	 *
+	 * @return the slowest operations, slowest first
+	 */
+	public List<SlowMatch> getSlowestMatches() {
+		final List<SlowMatch> slowest = new ArrayList<>(samples.length());
+		for (int i = 0; i < samples.length(); i++) {
+			final SlowMatch current = samples.get(i);
+			if (current != null) {
+				slowest.add(current);
+			}
+		}
+		slowest.sort(Comparator.comparingLong(SlowMatch::getDurationNanos).reversed());
+		return slowest;
+	}
+
+	/**
+	 * The number of operations the sampler keeps.
+	 *
+	 * @return the capacity of the sampler
+	 */
+	public int getCapacity() {
+		return samples.length();
+	}
+
+	/**
+	 * The number of chars of each input the sampler keeps.
+	 *
+	 * @return the prefix length
+	 */
+	public int getPrefixLength() {
+		return prefixLength;
+	}
+
+	/**
+	 * Discards every sample.
+	 *
+	 * <p>
+	 * Operations finishing while the sampler is cleared may or may not be
+	 * kept.</p>
+	 */
+	public void clear() {
+		for (int i = 0; i < samples.length(); i++) {
+			samples.set(i, null);
+		}
+		floorNanos = -1;
+	}
+
+	@Override
+	public String toString() {
+		return "SlowMatchSampler{" + getSlowestMatches() + '}';
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi;
+
+/**
+ * Thrown when a strict regex is built from a PartialRegex that risks
+ * catastrophic backtracking.
+ *
+ * @author gregorygraham
+ * @see nz.co.gregs.regexi.internal.PartialRegex#toStrictRegex()
+ */
+public class UnsafeRegexException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String regex;
+	private final BacktrackingReport report;
+
+	/**
+	 * Creates the exception.
+	 *
+	 * @param regex the regular expression string that was refused
+	 * @param report the analysis of the regex
+	 */
+	public UnsafeRegexException(String regex, BacktrackingReport report) {
+		super("Refusing to build " + regex + ": "
+				+ (report.getFindings().isEmpty() ? "the regex could not be fully analysed" : report.getFindings().get(0)));
+		this.regex = regex;
+		this.report = report;
+	}
+
+	/**
+	 * The regular expression that was refused.
+	 *
+	 * @return the regular expression string
+	 */
+	public String getRegex() {
+		return regex;
+	}
+
+	/**
+	 * The analysis that caused the regex to be refused.
+	 *
+	 * @return the backtracking report
+	 */
+	public BacktrackingReport getReport() {
+		return report;
+	}
+}
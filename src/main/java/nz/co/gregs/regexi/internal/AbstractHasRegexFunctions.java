@@ -5,6 +5,7 @@
 package nz.co.gregs.regexi.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,6 +16,7 @@ import java.util.List;
 public abstract class AbstractHasRegexFunctions<REGEX extends AbstractHasRegexFunctions<REGEX>> implements HasRegexFunctions<REGEX> {
 
 	private final List<String> namedGroups = new ArrayList<String>(0);
+	private final List<String> namedGroupsView = Collections.unmodifiableList(namedGroups);
 
 	protected void registerNamedGroup(String name) {
 		this.namedGroups.add(name);
@@ -28,6 +30,6 @@ public abstract class AbstractHasRegexFunctions<REGEX extends AbstractHasRegexFu
 
 	@Override
 	public List<String> getNamedGroups() {
-		return new ArrayList<String>(this.namedGroups);
+		return namedGroupsView;
 	}
 }
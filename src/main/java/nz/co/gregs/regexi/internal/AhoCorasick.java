@@ -0,0 +1,290 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * An Aho-Corasick automaton that finds keywords within text in a single pass.
+ *
+ * <p>
+ * The search reproduces the behaviour of a regex alternation of literals: the
+ * match that starts earliest wins and, of the keywords starting at that
+ * position, the one that was supplied first is chosen.</p>
+ *
+ * <p>
+ * The root is visited for most characters of the text, so its transitions for
+ * Latin-1 characters are kept in a table sized to the keywords' first
+ * characters. Other characters, like every other state, use a binary search.</p>
+ *
+ * @author gregorygraham
+ */
+public class AhoCorasick {
+
+	private static final int ROOT = 0;
+	private static final int NONE = -1;
+	// the root's transitions for characters below this are looked up directly
+	private static final int DENSE_ROOT_SIZE = 256;
+
+	private final int[] rootTransitions;
+	private final char[][] labels;
+	private final int[][] targets;
+	private final int[] failure;
+	private final int[] keywordAt;
+	private final int[] outputLink;
+	private final int[] keywordLengths;
+	private final int maximumLength;
+
+	/**
+	 * Builds the automaton for the keywords.
+	 *
+	 * @param keywords the non-empty keywords to search for
+	 */
+	public AhoCorasick(List<String> keywords) {
+		final TrieBuilder trie = new TrieBuilder();
+		keywordLengths = new int[keywords.size()];
+		int longest = 0;
+		for (int i = 0; i < keywords.size(); i++) {
+			final String keyword = keywords.get(i);
+			if (keyword.isEmpty()) {
+				throw new IllegalArgumentException("Keywords must not be empty");
+			}
+			trie.add(keyword, i);
+			keywordLengths[i] = keyword.length();
+			longest = Math.max(longest, keyword.length());
+		}
+		maximumLength = longest;
+
+		final int states = trie.size();
+		labels = new char[states][];
+		targets = new int[states][];
+		keywordAt = new int[states];
+		for (int state = 0; state < states; state++) {
+			labels[state] = trie.labels(state);
+			targets[state] = trie.targets(state);
+			keywordAt[state] = trie.keyword(state);
+		}
+		final char[] rootLabels = labels[ROOT];
+		rootTransitions = new int[rootLabels.length == 0 ? 0 : Math.min(rootLabels[rootLabels.length - 1] + 1, DENSE_ROOT_SIZE)];
+		for (int i = 0; i < rootLabels.length && rootLabels[i] < rootTransitions.length; i++) {
+			rootTransitions[rootLabels[i]] = targets[ROOT][i];
+		}
+
+		failure = new int[states];
+		outputLink = new int[states];
+		outputLink[ROOT] = NONE;
+		// breadth first so that every failure target is complete before it is used
+		final int[] queue = new int[states];
+		int head = 0;
+		int tail = 0;
+		for (int child : targets[ROOT]) {
+			failure[child] = ROOT;
+			outputLink[child] = NONE;
+			queue[tail++] = child;
+		}
+		while (head < tail) {
+			final int state = queue[head++];
+			for (int i = 0; i < labels[state].length; i++) {
+				final char c = labels[state][i];
+				final int child = targets[state][i];
+				final int fallback = step(failure[state], c);
+				failure[child] = fallback;
+				outputLink[child] = keywordAt[fallback] != NONE ? fallback : outputLink[fallback];
+				queue[tail++] = child;
+			}
+		}
+	}
+
+	/**
+	 * Finds the first keyword within the text at or after the starting index.
+	 *
+	 * <p>
+	 * The result packs the start of the match into the high 32 bits and the index
+	 * of the keyword into the low 32 bits so that searching does not allocate.
+	 * Use {@link #startOf(long) } and {@link #keywordOf(long) } to unpack it.</p>
+	 *
+	 * @param text the text to search
+	 * @param from the index to start searching from
+	 * @return the packed match or -1 if there is no match
+	 */
+	long find(CharSequence text, int from) {
+		final int length = text.length();
+		int state = ROOT;
+		int bestStart = NONE;
+		int bestKeyword = NONE;
+		for (int position = from; position < length; position++) {
+			if (bestStart != NONE && position >= bestStart + maximumLength) {
+				// nothing starting at or before bestStart can still be in progress
+				break;
+			}
+			state = step(state, text.charAt(position));
+			int output = keywordAt[state] != NONE ? state : outputLink[state];
+			while (output != NONE) {
+				final int keyword = keywordAt[output];
+				final int start = position - keywordLengths[keyword] + 1;
+				if (bestStart == NONE || start < bestStart || (start == bestStart && keyword < bestKeyword)) {
+					bestStart = start;
+					bestKeyword = keyword;
+				}
+				output = outputLink[output];
+			}
+		}
+		if (bestStart == NONE) {
+			return -1;
+		}
+		return ((long) bestStart << 32) | bestKeyword;
+	}
+
+	/**
+	 * Reports every occurrence of every keyword within the text, including
+	 * overlapping occurrences, in the order they end.
+	 *
+	 * <p>
+	 * Duplicate keywords are reported using the index of their first
+	 * appearance.</p>
+	 *
+	 * @param text the text to search
+	 * @param found called with the index of each keyword found, return false to
+	 * stop searching
+	 */
+	public void scan(CharSequence text, IntPredicate found) {
+		final int length = text.length();
+		int state = ROOT;
+		for (int position = 0; position < length; position++) {
+			state = step(state, text.charAt(position));
+			int output = keywordAt[state] != NONE ? state : outputLink[state];
+			while (output != NONE) {
+				if (!found.test(keywordAt[output])) {
+					return;
+				}
+				output = outputLink[output];
+			}
+		}
+	}
+
+	static int startOf(long found) {
+		return (int) (found >>> 32);
+	}
+
+	static int keywordOf(long found) {
+		return (int) found;
+	}
+
+	int lengthOf(int keyword) {
+		return keywordLengths[keyword];
+	}
+
+	private int step(int state, char c) {
+		while (true) {
+			if (state == ROOT) {
+				if (c < rootTransitions.length) {
+					return rootTransitions[c];
+				}
+				final int index = Arrays.binarySearch(labels[ROOT], c);
+				return index >= 0 ? targets[ROOT][index] : ROOT;
+			}
+			final int index = Arrays.binarySearch(labels[state], c);
+			if (index >= 0) {
+				return targets[state][index];
+			}
+			state = failure[state];
+		}
+	}
+
+	/**
+	 * Builds the trie with growable per-state edge lists before it is compacted
+	 * into arrays.
+	 */
+	private static class TrieBuilder {
+
+		private final List<StringBuilder> edgeLabels = new ArrayList<>();
+		private final List<List<Integer>> edgeTargets = new ArrayList<>();
+		private final List<Integer> keywords = new ArrayList<>();
+
+		TrieBuilder() {
+			newState();
+		}
+
+		private int newState() {
+			edgeLabels.add(new StringBuilder(0));
+			edgeTargets.add(new ArrayList<>(0));
+			keywords.add(NONE);
+			return keywords.size() - 1;
+		}
+
+		void add(String keyword, int index) {
+			int state = ROOT;
+			for (int i = 0; i < keyword.length(); i++) {
+				final char c = keyword.charAt(i);
+				final int edge = edgeLabels.get(state).indexOf(String.valueOf(c));
+				if (edge >= 0) {
+					state = edgeTargets.get(state).get(edge);
+				} else {
+					final int next = newState();
+					edgeLabels.get(state).append(c);
+					edgeTargets.get(state).add(next);
+					state = next;
+				}
+			}
+			if (keywords.get(state) == NONE) {
+				// duplicates keep the first index, as the regex would
+				keywords.set(state, index);
+			}
+		}
+
+		int size() {
+			return keywords.size();
+		}
+
+		char[] labels(int state) {
+			final char[] result = edgeLabels.get(state).toString().toCharArray();
+			Arrays.sort(result);
+			return result;
+		}
+
+		int[] targets(int state) {
+			final StringBuilder stateLabels = edgeLabels.get(state);
+			final char[] sorted = labels(state);
+			final int[] result = new int[sorted.length];
+			for (int i = 0; i < sorted.length; i++) {
+				result[i] = edgeTargets.get(state).get(stateLabels.indexOf(String.valueOf(sorted[i])));
+			}
+			return result;
+		}
+
+		int keyword(int state) {
+			return keywords.get(state);
+		}
+	}
+}
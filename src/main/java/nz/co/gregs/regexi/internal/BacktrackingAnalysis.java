@@ -0,0 +1,764 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import nz.co.gregs.regexi.BacktrackingReport;
+import nz.co.gregs.regexi.BacktrackingRisk;
+import nz.co.gregs.regexi.internal.SyntaxNode.*;
+
+/**
+ * Finds quantifiers that can make the regex engine backtrack catastrophically.
+ *
+ * <p>
+ * The syntax tree is converted into a position automaton, where each state is
+ * a character consuming node, and the automaton is checked for ambiguity:</p>
+ * <ul>
+ * <li>exponential: two different paths lead from a looping state back to
+ * itself on the same text, like {@code (a|a)*b} or {@code (a+)+b}</li>
+ * <li>polynomial: one looping state can reach a second looping state while
+ * both loop on the same text, like {@code \d+\.?\d+$}</li>
+ * </ul>
+ *
+ * <p>
+ * Ambiguity only costs time when the rest of the regex can fail, so states
+ * from which the regex is certain to match are ignored. Character classes are
+ * compared on a sample of characters: all of Latin-1, a selection of other
+ * scripts, and every literal in the regex. Large counted repeats are treated
+ * as unbounded, back references are ignored, and the contents of lookarounds
+ * are analysed separately.</p>
+ *
+ * @author gregorygraham
+ */
+final class BacktrackingAnalysis {
+
+	private static final int MAXIMUM_POSITIONS = 2000;
+	private static final int MAXIMUM_LOOP_SIZE = 100;
+	private static final int MAXIMUM_SEARCH = 200000;
+	private static final int MAXIMUM_EXPANDED_REPEAT = 3;
+	private static final char[] OTHER_SAMPLES = new char[]{
+		'\u0100', '\u0391', '\u03b1', '\u0410', '\u0430', '\u05d0', '\u0660', '\u0e01',
+		'\u2028', '\u2029', '\u3000', '\u3042', '\u4e00', '\uac00', '\uff10', '\ufffd'
+	};
+
+	private final char[] alphabet;
+	private final List<BitSet> characters = new ArrayList<>();
+	private final List<String> labels = new ArrayList<>();
+	private final List<BitSet> follow = new ArrayList<>();
+	private final List<SyntaxNode> lookarounds = new ArrayList<>();
+	private final Map<SyntaxNode, BitSet> classCache = new HashMap<>();
+	private final List<String> exponential = new ArrayList<>();
+	private final List<String> polynomial = new ArrayList<>();
+	private boolean complete = true;
+	private int searched = 0;
+
+	private BacktrackingAnalysis(char[] alphabet) {
+		this.alphabet = alphabet;
+	}
+
+	/**
+	 * Analyses the regex.
+	 *
+	 * @param syntax the syntax tree of the regex, or null if it could not be
+	 * parsed
+	 * @return the report
+	 */
+	static BacktrackingReport analyse(RegexSyntax syntax) {
+		if (syntax == null) {
+			return new BacktrackingReport(BacktrackingRisk.NONE, new ArrayList<>(0), false);
+		}
+		final List<String> exponential = new ArrayList<>();
+		final List<String> polynomial = new ArrayList<>();
+		boolean complete = true;
+		final List<SyntaxNode> pending = new ArrayList<>();
+		pending.add(syntax.getRoot());
+		final char[] alphabet = alphabetFor(syntax.getRoot());
+		for (int i = 0; i < pending.size(); i++) {
+			final BacktrackingAnalysis analysis = new BacktrackingAnalysis(alphabet);
+			analysis.run(pending.get(i));
+			exponential.addAll(analysis.exponential);
+			polynomial.addAll(analysis.polynomial);
+			complete = complete && analysis.complete;
+			pending.addAll(analysis.lookarounds);
+		}
+		final List<String> findings = new ArrayList<>(exponential);
+		findings.addAll(polynomial);
+		final BacktrackingRisk risk = !exponential.isEmpty() ? BacktrackingRisk.EXPONENTIAL
+				: !polynomial.isEmpty() ? BacktrackingRisk.POLYNOMIAL
+						: BacktrackingRisk.NONE;
+		return new BacktrackingReport(risk, findings, complete);
+	}
+
+	private static char[] alphabetFor(SyntaxNode root) {
+		final Set<Character> samples = new LinkedHashSet<>();
+		// friendly characters first so the example texts are readable
+		for (char c = 'a'; c <= 'z'; c++) {
+			samples.add(c);
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			samples.add(c);
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			samples.add(c);
+		}
+		for (char c = ' '; c < 127; c++) {
+			samples.add(c);
+		}
+		for (char c = 0; c < 256; c++) {
+			samples.add(c);
+		}
+		for (char c : OTHER_SAMPLES) {
+			samples.add(c);
+		}
+		addLiterals(root, samples);
+		final char[] result = new char[samples.size()];
+		int index = 0;
+		for (Character c : samples) {
+			result[index++] = c;
+		}
+		return result;
+	}
+
+	private static void addLiterals(SyntaxNode node, Set<Character> samples) {
+		if (node instanceof Literal) {
+			samples.add(((Literal) node).character);
+		} else {
+			for (SyntaxNode child : childrenOf(node)) {
+				addLiterals(child, samples);
+			}
+		}
+	}
+
+	private static List<SyntaxNode> childrenOf(SyntaxNode node) {
+		if (node instanceof Sequence) {
+			return ((Sequence) node).elements;
+		} else if (node instanceof Alternation) {
+			return ((Alternation) node).options;
+		} else if (node instanceof Grouping) {
+			return Arrays.asList(((Grouping) node).contents);
+		} else if (node instanceof AtomicGroup) {
+			return Arrays.asList(((AtomicGroup) node).contents);
+		} else if (node instanceof Repeat) {
+			return Arrays.asList(((Repeat) node).contents);
+		} else if (node instanceof Lookaround) {
+			return Arrays.asList(((Lookaround) node).contents);
+		}
+		return new ArrayList<>(0);
+	}
+
+	private void run(SyntaxNode root) {
+		final Fragment fragment;
+		try {
+			fragment = compile(root);
+		} catch (TooComplex ex) {
+			complete = false;
+			return;
+		}
+		if (fragment.surelyNullable) {
+			// the regex matches immediately wherever it starts
+			return;
+		}
+		final int size = characters.size();
+		final int[] components = stronglyConnectedComponents(size, position -> toArray(follow.get(position)));
+		final boolean[] looping = new boolean[size];
+		final Map<Integer, List<Integer>> members = new HashMap<>();
+		for (int position = 0; position < size; position++) {
+			members.computeIfAbsent(components[position], key -> new ArrayList<>()).add(position);
+		}
+		for (List<Integer> component : members.values()) {
+			final int first = component.get(0);
+			if (component.size() > 1 || follow.get(first).get(first)) {
+				for (int position : component) {
+					looping[position] = true;
+				}
+				findExponentialAmbiguity(component, fragment.certainLast);
+			}
+		}
+		if (exponential.isEmpty()) {
+			findPolynomialAmbiguity(components, looping, fragment.certainLast);
+		}
+	}
+
+	/**
+	 * What is known about the positions a node contributes to the automaton.
+	 */
+	private static class Fragment {
+
+		final BitSet first;
+		final BitSet last;
+		// the last positions after which the node certainly matches
+		final BitSet certainLast;
+		final boolean nullable;
+		// true if the node matches the empty string unconditionally
+		final boolean surelyNullable;
+
+		Fragment(BitSet first, BitSet last, BitSet certainLast, boolean nullable, boolean surelyNullable) {
+			this.first = first;
+			this.last = last;
+			this.certainLast = certainLast;
+			this.nullable = nullable;
+			this.surelyNullable = surelyNullable;
+		}
+
+		static Fragment empty(boolean surelyNullable) {
+			return new Fragment(new BitSet(), new BitSet(), new BitSet(), true, surelyNullable);
+		}
+
+		static Fragment single(int position) {
+			final BitSet set = new BitSet();
+			set.set(position);
+			return new Fragment(set, (BitSet) set.clone(), (BitSet) set.clone(), false, false);
+		}
+	}
+
+	private static class TooComplex extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		TooComplex() {
+			super(null, null, false, false);
+		}
+	}
+
+	private Fragment compile(SyntaxNode node) {
+		if (node instanceof Literal || node instanceof CharacterClass) {
+			return Fragment.single(addPosition(charactersOf(node), labelOf(node)));
+		} else if (node instanceof Sequence) {
+			Fragment result = Fragment.empty(true);
+			for (SyntaxNode element : ((Sequence) node).elements) {
+				result = concatenate(result, compile(element));
+			}
+			return result;
+		} else if (node instanceof Alternation) {
+			Fragment result = null;
+			for (SyntaxNode option : ((Alternation) node).options) {
+				final Fragment fragment = compile(option);
+				result = result == null ? fragment : alternate(result, fragment);
+			}
+			return result;
+		} else if (node instanceof Grouping) {
+			return compile(((Grouping) node).contents);
+		} else if (node instanceof Repeat) {
+			return compileRepeat((Repeat) node);
+		} else if (node instanceof AtomicGroup) {
+			return compileUnit(node);
+		} else if (node instanceof Lookaround) {
+			lookarounds.add(((Lookaround) node).contents);
+			return Fragment.empty(false);
+		}
+		// assertions and back references are treated as possibly failing empty matches
+		return Fragment.empty(false);
+	}
+
+	private Fragment compileRepeat(Repeat repeat) {
+		if (repeat.mode == Mode.POSSESSIVE) {
+			return compileUnit(repeat);
+		}
+		if (repeat.maximum == 0) {
+			return Fragment.empty(true);
+		}
+		final boolean unbounded = repeat.isUnbounded() || repeat.maximum > MAXIMUM_EXPANDED_REPEAT;
+		final int copies = unbounded ? Math.min(repeat.minimum, 2) : repeat.minimum;
+		Fragment result = Fragment.empty(true);
+		for (int i = 0; i < copies; i++) {
+			result = concatenate(result, compile(repeat.contents));
+		}
+		if (unbounded) {
+			return concatenate(result, star(compile(repeat.contents)));
+		}
+		Fragment optional = Fragment.empty(true);
+		for (int i = repeat.minimum; i < repeat.maximum; i++) {
+			optional = optional(concatenate(compile(repeat.contents), optional));
+		}
+		return concatenate(result, optional);
+	}
+
+	/**
+	 * Atomic groups and possessive quantifiers never backtrack into their
+	 * contents, and only match one way, so they are treated as a single
+	 * position.
+	 */
+	private Fragment compileUnit(SyntaxNode node) {
+		final BitSet set = new BitSet();
+		collectCharacters(node, set);
+		final int position = addPosition(set, "(?>...)");
+		final boolean nullable = isNullable(node);
+		final Fragment single = Fragment.single(position);
+		return new Fragment(single.first, single.last, single.certainLast, nullable, nullable);
+	}
+
+	private Fragment concatenate(Fragment first, Fragment second) {
+		for (int position = first.last.nextSetBit(0); position >= 0; position = first.last.nextSetBit(position + 1)) {
+			follow.get(position).or(second.first);
+		}
+		final BitSet start = (BitSet) first.first.clone();
+		if (first.nullable) {
+			start.or(second.first);
+		}
+		final BitSet end = (BitSet) second.last.clone();
+		if (second.nullable) {
+			end.or(first.last);
+		}
+		final BitSet certainEnd = (BitSet) second.certainLast.clone();
+		if (second.surelyNullable) {
+			certainEnd.or(first.certainLast);
+		}
+		return new Fragment(start, end, certainEnd,
+				first.nullable && second.nullable,
+				first.surelyNullable && second.surelyNullable);
+	}
+
+	private static Fragment alternate(Fragment first, Fragment second) {
+		final BitSet start = (BitSet) first.first.clone();
+		start.or(second.first);
+		final BitSet end = (BitSet) first.last.clone();
+		end.or(second.last);
+		final BitSet certainEnd = (BitSet) first.certainLast.clone();
+		certainEnd.or(second.certainLast);
+		return new Fragment(start, end, certainEnd,
+				first.nullable || second.nullable,
+				first.surelyNullable || second.surelyNullable);
+	}
+
+	private Fragment star(Fragment fragment) {
+		for (int position = fragment.last.nextSetBit(0); position >= 0; position = fragment.last.nextSetBit(position + 1)) {
+			follow.get(position).or(fragment.first);
+		}
+		return new Fragment(fragment.first, fragment.last, fragment.certainLast, true, true);
+	}
+
+	private static Fragment optional(Fragment fragment) {
+		return new Fragment(fragment.first, fragment.last, fragment.certainLast, true, true);
+	}
+
+	private int addPosition(BitSet set, String label) {
+		final int position = characters.size();
+		if (position >= MAXIMUM_POSITIONS) {
+			throw new TooComplex();
+		}
+		characters.add(set);
+		labels.add(label);
+		follow.add(new BitSet());
+		return position;
+	}
+
+	private BitSet charactersOf(SyntaxNode node) {
+		BitSet set = classCache.get(node);
+		if (set == null) {
+			set = new BitSet(alphabet.length);
+			for (int i = 0; i < alphabet.length; i++) {
+				if (node instanceof Literal
+						? ((Literal) node).character == alphabet[i]
+						: ((CharacterClass) node).matches(alphabet[i])) {
+					set.set(i);
+				}
+			}
+			classCache.put(node, set);
+		}
+		return set;
+	}
+
+	private void collectCharacters(SyntaxNode node, BitSet set) {
+		if (node instanceof Literal || node instanceof CharacterClass) {
+			set.or(charactersOf(node));
+		} else if (!(node instanceof Lookaround)) {
+			for (SyntaxNode child : childrenOf(node)) {
+				collectCharacters(child, set);
+			}
+		}
+	}
+
+	private static boolean isNullable(SyntaxNode node) {
+		if (node instanceof Literal || node instanceof CharacterClass) {
+			return false;
+		} else if (node instanceof Sequence) {
+			return ((Sequence) node).elements.stream().allMatch(BacktrackingAnalysis::isNullable);
+		} else if (node instanceof Alternation) {
+			return ((Alternation) node).options.stream().anyMatch(BacktrackingAnalysis::isNullable);
+		} else if (node instanceof Repeat) {
+			return ((Repeat) node).minimum == 0 || isNullable(((Repeat) node).contents);
+		} else if (node instanceof Grouping || node instanceof AtomicGroup) {
+			return isNullable(childrenOf(node).get(0));
+		}
+		return true;
+	}
+
+	private static String labelOf(SyntaxNode node) {
+		if (node instanceof Literal) {
+			return describe(String.valueOf(((Literal) node).character));
+		}
+		return ((CharacterClass) node).source;
+	}
+
+	private static String describe(String text) {
+		final StringBuilder builder = new StringBuilder("\"");
+		for (char c : text.toCharArray()) {
+			if (c >= ' ' && c < 127) {
+				builder.append(c);
+			} else {
+				builder.append(String.format("\\u%04x", (int) c));
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * Looks for a looping position that can return to itself on the same text
+	 * by two different paths.
+	 *
+	 * <p>
+	 * This is the case when the product of the loop with itself has a strongly
+	 * connected component that contains both a pair of equal positions and a
+	 * pair of different positions.</p>
+	 */
+	private void findExponentialAmbiguity(List<Integer> component, BitSet certain) {
+		final int size = component.size();
+		if (size > MAXIMUM_LOOP_SIZE) {
+			complete = false;
+			return;
+		}
+		final int[][] successors = localSuccessors(component);
+		final boolean[][] overlapping = new boolean[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				overlapping[i][j] = characters.get(component.get(i)).intersects(characters.get(component.get(j)));
+			}
+		}
+		final IntFunction<int[]> pairSuccessors = pair -> {
+			final int[] first = successors[pair / size];
+			final int[] second = successors[pair % size];
+			final int[] result = new int[first.length * second.length];
+			int count = 0;
+			for (int i : first) {
+				for (int j : second) {
+					if (overlapping[i][j]) {
+						result[count++] = i * size + j;
+					}
+				}
+			}
+			return Arrays.copyOf(result, count);
+		};
+		final int[] pairComponents = stronglyConnectedComponents(size * size, pairSuccessors);
+		final Map<Integer, Integer> diagonals = new HashMap<>();
+		final Map<Integer, Integer> others = new HashMap<>();
+		for (int pair = 0; pair < size * size; pair++) {
+			final int i = pair / size;
+			final int j = pair % size;
+			if (i == j) {
+				if (!certain.get(component.get(i))) {
+					diagonals.putIfAbsent(pairComponents[pair], pair);
+				}
+			} else {
+				others.putIfAbsent(pairComponents[pair], pair);
+			}
+		}
+		for (Map.Entry<Integer, Integer> entry : diagonals.entrySet()) {
+			final Integer other = others.get(entry.getKey());
+			if (other != null) {
+				final int diagonal = entry.getValue();
+				final int[] components = pairComponents;
+				final String there = pathText(diagonal, other, pairSuccessors, pair -> components[pair] == entry.getKey(), size, component);
+				final String back = pathText(other, diagonal, pairSuccessors, pair -> components[pair] == entry.getKey(), size, component);
+				final String pump = there + back;
+				final String label = labels.get(component.get(diagonal / size));
+				exponential.add("EXPONENTIAL: the quantifier repeating " + label + " can match " + describe(pump)
+						+ " in more than one way, so each extra repetition of " + describe(pump)
+						+ " before a failing character doubles the backtracking");
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Looks for a looping position that can reach a different looping position
+	 * while both loop on the same text.
+	 *
+	 * <p>
+	 * Searches the product of the automaton with itself three times for a path
+	 * from (p, p, q) to (p, q, q).</p>
+	 */
+	private void findPolynomialAmbiguity(int[] components, boolean[] looping, BitSet certain) {
+		final int size = characters.size();
+		final BitSet[] reachable = new BitSet[size];
+		for (int p = 0; p < size && polynomial.isEmpty(); p++) {
+			if (!looping[p] || certain.get(p)) {
+				continue;
+			}
+			if (reachable[p] == null) {
+				reachable[p] = reachableFrom(p);
+			}
+			for (int q = 0; q < size && polynomial.isEmpty(); q++) {
+				if (!looping[q] || components[q] == components[p] || certain.get(q) || !reachable[p].get(q)) {
+					continue;
+				}
+				final String text = findPolynomialPath(p, q, components);
+				if (text == null) {
+					if (searched > MAXIMUM_SEARCH) {
+						complete = false;
+						return;
+					}
+				} else {
+					polynomial.add("POLYNOMIAL: the quantifiers repeating " + labels.get(p) + " and " + labels.get(q)
+							+ " can both match " + describe(text)
+							+ ", so repeating " + describe(text) + " before a failing character makes the backtracking grow polynomially");
+				}
+			}
+		}
+	}
+
+	private String findPolynomialPath(int p, int q, int[] components) {
+		final int size = characters.size();
+		final long start = encode(p, p, q, size);
+		final long target = encode(p, q, q, size);
+		final Map<Long, long[]> parents = new HashMap<>();
+		final ArrayDeque<Long> queue = new ArrayDeque<>();
+		parents.put(start, null);
+		queue.add(start);
+		while (!queue.isEmpty()) {
+			if (++searched > MAXIMUM_SEARCH) {
+				return null;
+			}
+			final long current = queue.poll();
+			final int x = (int) (current / ((long) size * size));
+			final int y = (int) ((current / size) % size);
+			final int z = (int) (current % size);
+			final BitSet followX = follow.get(x);
+			final BitSet followY = follow.get(y);
+			final BitSet followZ = follow.get(z);
+			for (int nx = followX.nextSetBit(0); nx >= 0; nx = followX.nextSetBit(nx + 1)) {
+				if (components[nx] != components[p]) {
+					continue;
+				}
+				for (int nz = followZ.nextSetBit(0); nz >= 0; nz = followZ.nextSetBit(nz + 1)) {
+					if (components[nz] != components[q]) {
+						continue;
+					}
+					final BitSet common = (BitSet) characters.get(nx).clone();
+					common.and(characters.get(nz));
+					if (common.isEmpty()) {
+						continue;
+					}
+					for (int ny = followY.nextSetBit(0); ny >= 0; ny = followY.nextSetBit(ny + 1)) {
+						final int character = firstCommon(common, characters.get(ny));
+						if (character < 0) {
+							continue;
+						}
+						final long next = encode(nx, ny, nz, size);
+						if (!parents.containsKey(next)) {
+							parents.put(next, new long[]{current, character});
+							if (next == target) {
+								return textTo(next, parents);
+							}
+							queue.add(next);
+						}
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static int firstCommon(BitSet first, BitSet second) {
+		for (int i = first.nextSetBit(0); i >= 0; i = first.nextSetBit(i + 1)) {
+			if (second.get(i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static long encode(int x, int y, int z, int size) {
+		return ((long) x * size + y) * size + z;
+	}
+
+	private String textTo(long node, Map<Long, long[]> parents) {
+		final StringBuilder text = new StringBuilder();
+		long[] parent = parents.get(node);
+		while (parent != null) {
+			text.append(alphabet[(int) parent[1]]);
+			parent = parents.get(parent[0]);
+		}
+		return text.reverse().toString();
+	}
+
+	private BitSet reachableFrom(int position) {
+		final BitSet reached = new BitSet();
+		final ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(position);
+		while (!queue.isEmpty()) {
+			final BitSet next = follow.get(queue.poll());
+			for (int i = next.nextSetBit(0); i >= 0; i = next.nextSetBit(i + 1)) {
+				if (!reached.get(i)) {
+					reached.set(i);
+					queue.add(i);
+				}
+			}
+		}
+		return reached;
+	}
+
+	private int[][] localSuccessors(List<Integer> component) {
+		final Map<Integer, Integer> local = new HashMap<>();
+		for (int i = 0; i < component.size(); i++) {
+			local.put(component.get(i), i);
+		}
+		final int[][] successors = new int[component.size()][];
+		for (int i = 0; i < component.size(); i++) {
+			final BitSet next = follow.get(component.get(i));
+			final List<Integer> inside = new ArrayList<>();
+			for (int j = next.nextSetBit(0); j >= 0; j = next.nextSetBit(j + 1)) {
+				final Integer index = local.get(j);
+				if (index != null) {
+					inside.add(index);
+				}
+			}
+			successors[i] = inside.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return successors;
+	}
+
+	/**
+	 * Finds the text along the shortest path between two pairs of positions
+	 * within the same component of the product automaton.
+	 */
+	private String pathText(int from, int to, IntFunction<int[]> successors, IntPredicate allowed, int size, List<Integer> component) {
+		final Map<Integer, int[]> parents = new HashMap<>();
+		final ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(from);
+		parents.put(from, null);
+		while (!queue.isEmpty()) {
+			final int current = queue.poll();
+			for (int next : successors.apply(current)) {
+				if (!allowed.test(next)) {
+					continue;
+				}
+				final boolean arrived = next == to;
+				if (arrived || (!parents.containsKey(next))) {
+					final BitSet common = (BitSet) characters.get(component.get(next / size)).clone();
+					common.and(characters.get(component.get(next % size)));
+					if (arrived) {
+						final StringBuilder text = new StringBuilder().append(alphabet[common.nextSetBit(0)]);
+						int step = current;
+						while (parents.get(step) != null) {
+							text.append(alphabet[parents.get(step)[1]]);
+							step = parents.get(step)[0];
+						}
+						return text.reverse().toString();
+					}
+					parents.put(next, new int[]{current, common.nextSetBit(0)});
+					queue.add(next);
+				}
+			}
+		}
+		return "";
+	}
+
+	private static int[] toArray(BitSet set) {
+		return set.stream().toArray();
+	}
+
+	/**
+	 * Tarjan's algorithm, without recursion so that large automata can't
+	 * overflow the stack.
+	 *
+	 * @return the component number of every node
+	 */
+	private static int[] stronglyConnectedComponents(int size, IntFunction<int[]> successors) {
+		final int[] index = new int[size];
+		final int[] lowLink = new int[size];
+		final int[] component = new int[size];
+		final boolean[] onStack = new boolean[size];
+		Arrays.fill(index, -1);
+		final int[] stack = new int[size];
+		int stackSize = 0;
+		int nextIndex = 0;
+		int nextComponent = 0;
+		final int[] callNode = new int[size];
+		final int[][] callSuccessors = new int[size][];
+		final int[] callPosition = new int[size];
+		for (int root = 0; root < size; root++) {
+			if (index[root] >= 0) {
+				continue;
+			}
+			int depth = 0;
+			callNode[0] = root;
+			callSuccessors[0] = successors.apply(root);
+			callPosition[0] = 0;
+			index[root] = lowLink[root] = nextIndex++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			while (depth >= 0) {
+				final int node = callNode[depth];
+				if (callPosition[depth] < callSuccessors[depth].length) {
+					final int next = callSuccessors[depth][callPosition[depth]++];
+					if (index[next] < 0) {
+						index[next] = lowLink[next] = nextIndex++;
+						stack[stackSize++] = next;
+						onStack[next] = true;
+						depth++;
+						callNode[depth] = next;
+						callSuccessors[depth] = successors.apply(next);
+						callPosition[depth] = 0;
+					} else if (onStack[next]) {
+						lowLink[node] = Math.min(lowLink[node], index[next]);
+					}
+				} else {
+					if (lowLink[node] == index[node]) {
+						int member;
+						do {
+							member = stack[--stackSize];
+							onStack[member] = false;
+							component[member] = nextComponent;
+						} while (member != node);
+						nextComponent++;
+					}
+					callSuccessors[depth] = null;
+					depth--;
+					if (depth >= 0) {
+						final int parent = callNode[depth];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+					}
+				}
+			}
+		}
+		return component;
+	}
+}
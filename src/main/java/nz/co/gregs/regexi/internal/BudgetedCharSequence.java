@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.time.Duration;
+import nz.co.gregs.regexi.MatchBudget;
+import nz.co.gregs.regexi.MatchBudgetExceededException;
+
+/**
+ * A view of the input that counts the characters the regex engine reads and
+ * abandons the match when the {@link MatchBudget} is exhausted.
+ *
+ * <p>
+ * java.util.regex reads its input through {@link CharSequence#charAt(int) } so
+ * every read is a step. The clock is only checked every
+ * {@link #CLOCK_INTERVAL} steps to keep the overhead low.</p>
+ *
+ * @author gregorygraham
+ */
+class BudgetedCharSequence implements CharSequence {
+
+	private static final int CLOCK_INTERVAL = 1024;
+
+	private final CharSequence text;
+	private final MatchBudget budget;
+	private final long stepLimit;
+	private final long started;
+	private final long deadline;
+	private final boolean timed;
+	private long steps = 0;
+
+	BudgetedCharSequence(CharSequence text, MatchBudget budget) {
+		this.text = text;
+		this.budget = budget;
+		this.stepLimit = budget.getStepLimit().orElse(Long.MAX_VALUE);
+		this.started = System.nanoTime();
+		this.timed = budget.getTimeLimit().isPresent();
+		this.deadline = timed ? started + budget.getTimeLimit().get().toNanos() : 0;
+	}
+
+	/**
+	 * Wraps the text if there is a budget to enforce.
+	 *
+	 * @param text the input
+	 * @param budget the budget, or null for no budget
+	 * @return the text itself or a BudgetedCharSequence wrapping it
+	 */
+	static CharSequence track(CharSequence text, MatchBudget budget) {
+		return budget == null ? text : new BudgetedCharSequence(text, budget);
+	}
+
+	@Override
+	public char charAt(int index) {
+		steps++;
+		if (steps > stepLimit) {
+			throw exceeded();
+		}
+		if (timed && steps % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+			throw exceeded();
+		}
+		return text.charAt(index);
+	}
+
+	private MatchBudgetExceededException exceeded() {
+		return new MatchBudgetExceededException(budget, steps, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	@Override
+	public int length() {
+		return text.length();
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		// extracting groups after the match is not part of the search
+		return text.subSequence(start, end);
+	}
+
+	@Override
+	public String toString() {
+		return text.toString();
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.regex.Pattern;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+
+/**
+ * The parts of {@link FlightRecorderSupport} that use jdk.jfr, only loaded
+ * once the module is known to be available.
+ *
+ * @author gregorygraham
+ */
+final class FlightRecorderEvents {
+
+	private FlightRecorderEvents() {
+	}
+
+	static void registerListener() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recorderInitialized(FlightRecorder recorder) {
+				updateTimingMatches();
+			}
+
+			@Override
+			public void recordingStateChanged(Recording recording) {
+				updateTimingMatches();
+			}
+		});
+	}
+
+	private static void updateTimingMatches() {
+		// only called once Flight Recorder is initialized so this doesn't start it
+		FlightRecorderSupport.setTimingMatches(EventType.getEventType(SlowMatchEvent.class).isEnabled());
+	}
+
+	static Pattern compile(String regex, int flags) {
+		final PatternCompileEvent event = new PatternCompileEvent();
+		event.begin();
+		final Pattern pattern = Pattern.compile(regex, flags);
+		event.end();
+		if (event.shouldCommit()) {
+			event.regex = regex;
+			event.regexLength = regex.length();
+			event.flags = flags;
+			event.commit();
+		}
+		return pattern;
+	}
+
+	static void slowMatch(int regexId, String regex, String operation, int inputLength, boolean matched, long durationNanos) {
+		final SlowMatchEvent event = new SlowMatchEvent();
+		if (event.isEnabled()) {
+			event.regex = regex;
+			event.regexId = regexId;
+			event.operation = operation;
+			event.inputLength = inputLength;
+			event.matched = matched;
+			event.matchTime = durationNanos;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Emits JDK Flight Recorder events for Pattern compilation and slow matches.
+ *
+ * <p>
+ * Every Pattern compiled by a PartialRegex produces a
+ * {@value PatternCompileEvent#NAME} event with the regex and how long it took
+ * to compile. While a recording has the {@value SlowMatchEvent#NAME} event
+ * enabled, Regex operations are timed and those that take at least the slow
+ * match threshold produce an event with the regex, the operation, the input
+ * length and the duration. When no recording is running operations are not
+ * timed at all.</p>
+ *
+ * <p>
+ * The threshold defaults to 10 milliseconds and can be set with the
+ * {@value #THRESHOLD_PROPERTY} system property, in milliseconds, or
+ * {@link #setSlowMatchThreshold(java.time.Duration) }.</p>
+ *
+ * <p>
+ * Flight Recorder is optional: on JVMs without the jdk.jfr module no events
+ * are produced. This class doesn't refer to any jdk.jfr types so that it loads
+ * without them, everything that does is in FlightRecorderEvents.</p>
+ *
+ * @author gregorygraham
+ */
+public final class FlightRecorderSupport {
+
+	/**
+	 * The system property for the slow match threshold in milliseconds.
+	 */
+	public static final String THRESHOLD_PROPERTY = "nz.co.gregs.regexi.slowMatchThresholdMillis";
+
+	private static final boolean AVAILABLE = registerListener();
+	private static volatile boolean slowMatchesEnabled = false;
+	private static volatile long thresholdNanos = Duration.ofMillis(Long.getLong(THRESHOLD_PROPERTY, 10)).toNanos();
+
+	private FlightRecorderSupport() {
+	}
+
+	private static boolean registerListener() {
+		if (!ModuleLayer.boot().findModule("jdk.jfr").isPresent()) {
+			return false;
+		}
+		try {
+			FlightRecorderEvents.registerListener();
+			return true;
+		} catch (LinkageError | SecurityException | IllegalStateException ex) {
+			return false;
+		}
+	}
+
+	static void setTimingMatches(boolean enabled) {
+		slowMatchesEnabled = enabled;
+	}
+
+	/**
+	 * Whether Flight Recorder events can be produced by this JVM.
+	 *
+	 * @return true if the jdk.jfr module is available
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * Whether a recording wants slow match events, so Regex operations need to
+	 * be timed.
+	 *
+	 * @return true if slow match events are enabled
+	 */
+	public static boolean isTimingMatches() {
+		return slowMatchesEnabled;
+	}
+
+	/**
+	 * The shortest Regex operation that produces a slow match event.
+	 *
+	 * @return the slow match threshold
+	 */
+	public static Duration getSlowMatchThreshold() {
+		return Duration.ofNanos(thresholdNanos);
+	}
+
+	/**
+	 * Sets the shortest Regex operation that produces a slow match event.
+	 *
+	 * @param threshold the slow match threshold, zero to record every operation
+	 */
+	public static void setSlowMatchThreshold(Duration threshold) {
+		if (threshold == null || threshold.isNegative()) {
+			throw new IllegalArgumentException("The slow match threshold must not be negative: " + threshold);
+		}
+		thresholdNanos = threshold.toNanos();
+	}
+
+	/**
+	 * Compiles the regex, producing a compile event if Flight Recorder is
+	 * available.
+	 *
+	 * @param regex the regular expression
+	 * @param flags the Pattern flags
+	 * @return the compiled Pattern
+	 */
+	static Pattern compile(String regex, int flags) {
+		if (!AVAILABLE) {
+			return Pattern.compile(regex, flags);
+		}
+		return FlightRecorderEvents.compile(regex, flags);
+	}
+
+	/**
+	 * Produces a slow match event if the operation took at least the slow match
+	 * threshold.
+	 *
+	 * <p>
+	 * Only call this when {@link #isTimingMatches() } is true.</p>
+	 *
+	 * @param regex the Regex, identified by its identity hash code
+	 * @param regexString the regular expression
+	 * @param operation the operation that was performed
+	 * @param inputLength the length of the source text
+	 * @param matched whether the operation found a match
+	 * @param durationNanos how long the operation took
+	 */
+	public static void matchFinished(Object regex, String regexString, String operation, int inputLength, boolean matched, long durationNanos) {
+		if (AVAILABLE && durationNanos >= thresholdNanos) {
+			FlightRecorderEvents.slowMatch(System.identityHashCode(regex), regexString, operation, inputLength, matched, durationNanos);
+		}
+	}
+}
@@ -23,6 +23,11 @@ public class Group<REGEX extends AbstractHasRegexFunctions<REGEX>> extends Regex
 		return "("+regexp+")";
 	}
 
+	@Override
+	protected PartialRegex enclose() {
+		return new GroupedSequence(toRegexString(), getCurrent());
+	}
+
 	@Override
 	public REGEX endGroup() {
 		return super.endGroup();
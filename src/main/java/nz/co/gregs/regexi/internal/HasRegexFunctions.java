@@ -40,6 +40,11 @@ import nz.co.gregs.regexi.Regex;
  */
 public interface HasRegexFunctions<REGEX extends AbstractHasRegexFunctions<REGEX>> {
 
+	/**
+	 * Lists the names of the named captures registered with this regex.
+	 *
+	 * @return an unmodifiable list of the names, in the order they were added
+	 */
 	List<String> getNamedGroups();
 
 	/**
@@ -1030,7 +1035,7 @@ public interface HasRegexFunctions<REGEX extends AbstractHasRegexFunctions<REGEX
 	 *
 	 * <p>
 	 * Named captures can be used with named back references and can be retrieved
-	 * with {@link PartialRegex#getAllNamedCapturesOfFirstMatchWithinString(java.lang.String)
+	 * with {@link PartialRegex#getAllNamedCapturesOfFirstMatchWithinString(java.lang.CharSequence)
 	 * } and {@code Regex.getAllMatches(target).get(index).getAllNamedCaptures()}
 	 * </p>
 	 *
@@ -1052,7 +1057,7 @@ public interface HasRegexFunctions<REGEX extends AbstractHasRegexFunctions<REGEX
 	 *
 	 * <p>
 	 * Named captures can be used with named back references and can be retrieved
-	 * with {@link PartialRegex#getAllNamedCapturesOfFirstMatchWithinString(java.lang.String)
+	 * with {@link PartialRegex#getAllNamedCapturesOfFirstMatchWithinString(java.lang.CharSequence)
 	 * } and {@code Regex.getAllMatches(target).get(index).getAllNamedCaptures()}
 	 * </p>
 	 *
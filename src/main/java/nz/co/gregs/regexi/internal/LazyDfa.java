@@ -0,0 +1,577 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import nz.co.gregs.regexi.internal.SyntaxNode.*;
+
+/**
+ * A lazily constructed DFA that decides whether a regex matches in time linear
+ * in the length of the input.
+ *
+ * <p>
+ * The regex's syntax tree is compiled into a Thompson NFA and DFA states, each
+ * a set of NFA instructions, are created as the input requires them. Only
+ * regular constructs are supported: regexes with back references,
+ * lookarounds, atomic groups, possessive quantifiers, word boundaries, or
+ * \G can't be represented and {@link #forSearching(nz.co.gregs.regexi.internal.RegexSyntax)
+ * } returns null for them.</p>
+ *
+ * <p>
+ * The DFA only answers whether there is a match, not where it is, so greedy
+ * and reluctant quantifiers are treated alike. Quantifiers whose contents can
+ * match nothing aren't supported because java.util.regex refuses to repeat an
+ * empty iteration, which can change the result. Character classes defer to
+ * java.util.regex for membership so they match exactly the same characters as
+ * the regex engine. Inputs containing surrogate characters are left to the
+ * regex engine, which matches them as code points, and {@link #test(java.lang.CharSequence)
+ * } returns {@link #UNDECIDED}.</p>
+ *
+ * <p>
+ * The DFA is safe to share between threads. States are cached up to a limit,
+ * after which new states are created as needed but not kept. Transitions are
+ * only cached between cached states, so a state that isn't kept can be freed
+ * as soon as the input moves on, and matching remains linear while memory use
+ * is bounded.</p>
+ *
+ * @author gregorygraham
+ */
+final class LazyDfa {
+
+	static final int NO_MATCH = 0;
+	static final int MATCH = 1;
+	static final int UNDECIDED = -1;
+
+	private static final int MAXIMUM_INSTRUCTIONS = 10000;
+	private static final int MAXIMUM_STATES = 4096;
+	private static final int CACHED_CHARACTERS = 256;
+
+	// the kinds of the characters on either side of a position
+	private static final int NONE = 0;
+	private static final int LINE_FEED = 1;
+	private static final int CARRIAGE_RETURN = 2;
+	private static final int OTHER_TERMINATOR = 3;
+	private static final int OTHER = 4;
+
+	private final Program program;
+	private final boolean anchored;
+	private final Map<State, State> states = new ConcurrentHashMap<>();
+	private final State initial;
+	// kept for the life of the DFA so transitions to it can be cached
+	private final State matched = new State(new int[0], NONE, true);
+
+	private LazyDfa(Program program, boolean anchored) {
+		this.program = program;
+		this.anchored = anchored;
+		this.initial = intern(anchored ? new int[]{program.start} : new int[0], NONE);
+	}
+
+	/**
+	 * Creates a DFA that tests whether the regex matches anywhere within the
+	 * input, like {@link java.util.regex.Matcher#find() }.
+	 *
+	 * @param syntax the regex's syntax tree
+	 * @return the DFA, or null if the regex is not supported
+	 */
+	static LazyDfa forSearching(RegexSyntax syntax) {
+		final Program program = Program.compile(syntax);
+		return program == null ? null : new LazyDfa(program, false);
+	}
+
+	/**
+	 * Creates a DFA that tests whether the regex matches the entire input, like
+	 * {@link java.util.regex.Matcher#matches() }.
+	 *
+	 * @param syntax the regex's syntax tree
+	 * @return the DFA, or null if the regex is not supported
+	 */
+	static LazyDfa forEntireInput(RegexSyntax syntax) {
+		final Program program = Program.compile(syntax);
+		return program == null ? null : new LazyDfa(program, true);
+	}
+
+	/**
+	 * Tests the input.
+	 *
+	 * @param text the input to test
+	 * @return {@link #MATCH}, {@link #NO_MATCH}, or {@link #UNDECIDED} if the
+	 * input must be tested by the regex engine instead
+	 */
+	int test(CharSequence text) {
+		State state = initial;
+		final int length = text.length();
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if (Character.isSurrogate(c)) {
+				return UNDECIDED;
+			}
+			state = step(state, c);
+			if (state == matched) {
+				return MATCH;
+			}
+			if (anchored && state.kernel.length == 0) {
+				return NO_MATCH;
+			}
+		}
+		return matchesAtEnd(state) ? MATCH : NO_MATCH;
+	}
+
+	private State step(State state, char c) {
+		if (state.transitions == null) {
+			return computeTransition(state, c);
+		}
+		State next;
+		if (c < CACHED_CHARACTERS) {
+			next = state.transitions[c];
+			if (next == null) {
+				next = computeTransition(state, c);
+				if (next.isCached()) {
+					state.transitions[c] = next;
+				}
+			}
+		} else {
+			Map<Character, State> others = state.otherTransitions;
+			if (others == null) {
+				others = new ConcurrentHashMap<>();
+				state.otherTransitions = others;
+			}
+			next = others.get(c);
+			if (next == null) {
+				next = computeTransition(state, c);
+				if (next.isCached()) {
+					others.put(c, next);
+				}
+			}
+		}
+		return next;
+	}
+
+	private State computeTransition(State state, char c) {
+		final int kind = kindOf(c);
+		final int[] reached = expand(state, kind);
+		final int[] following = new int[reached.length];
+		int count = 0;
+		for (int instruction : reached) {
+			switch (program.kinds[instruction]) {
+				case Program.MATCHED:
+					if (!anchored) {
+						// searching only needs to find one match
+						return matched;
+					}
+					break;
+				case Program.CHARACTER:
+					if (program.characters[instruction] == c) {
+						following[count++] = program.next[instruction];
+					}
+					break;
+				case Program.CLASS:
+					if (program.classes[instruction].matches(c)) {
+						following[count++] = program.next[instruction];
+					}
+					break;
+				default:
+			}
+		}
+		final int[] kernel = Arrays.copyOf(following, count);
+		Arrays.sort(kernel);
+		return intern(kernel, kind);
+	}
+
+	private boolean matchesAtEnd(State state) {
+		byte result = state.endResult;
+		if (result == 0) {
+			result = 2;
+			for (int instruction : expand(state, NONE)) {
+				if (program.kinds[instruction] == Program.MATCHED) {
+					result = 1;
+					break;
+				}
+			}
+			state.endResult = result;
+		}
+		return result == 1;
+	}
+
+	/**
+	 * Follows the empty transitions from the state's instructions.
+	 *
+	 * @param state the current state
+	 * @param following the kind of the next character, or NONE at the end of
+	 * the input
+	 * @return the consuming and matching instructions that can be reached
+	 */
+	private int[] expand(State state, int following) {
+		final boolean[] visited = new boolean[program.size];
+		final int[] stack = new int[program.size];
+		final int[] reached = new int[program.size];
+		int stackSize = 0;
+		int count = 0;
+		for (int instruction : state.kernel) {
+			stack[stackSize++] = instruction;
+		}
+		if (!anchored) {
+			// searching can start a new match at every position
+			stack[stackSize++] = program.start;
+		}
+		while (stackSize > 0) {
+			final int instruction = stack[--stackSize];
+			if (visited[instruction]) {
+				continue;
+			}
+			visited[instruction] = true;
+			switch (program.kinds[instruction]) {
+				case Program.SPLIT:
+					stack[stackSize++] = program.alternatives[instruction];
+					stack[stackSize++] = program.next[instruction];
+					break;
+				case Program.ASSERT:
+					if (program.assertions[instruction].isSatisfied(state.preceding, following)) {
+						stack[stackSize++] = program.next[instruction];
+					}
+					break;
+				default:
+					reached[count++] = instruction;
+			}
+		}
+		return Arrays.copyOf(reached, count);
+	}
+
+	private State intern(int[] kernel, int preceding) {
+		if (states.size() >= MAXIMUM_STATES) {
+			final State state = new State(kernel, preceding, false);
+			final State existing = states.get(state);
+			return existing == null ? state : existing;
+		}
+		final State state = new State(kernel, preceding, true);
+		final State existing = states.putIfAbsent(state, state);
+		return existing == null ? state : existing;
+	}
+
+	private static int kindOf(char c) {
+		switch (c) {
+			case '\n':
+				return LINE_FEED;
+			case '\r':
+				return CARRIAGE_RETURN;
+			case '\u0085':
+			case '\u2028':
+			case '\u2029':
+				return OTHER_TERMINATOR;
+			default:
+				return OTHER;
+		}
+	}
+
+	/**
+	 * A set of NFA instructions waiting for the next character, and the kind of
+	 * the previous character which zero width assertions may need.
+	 */
+	private static final class State {
+
+		final int[] kernel;
+		final int preceding;
+		// null for states that aren't cached, which never cache their transitions
+		final State[] transitions;
+		volatile Map<Character, State> otherTransitions;
+		// 0 = unknown, 1 = matches at the end of the input, 2 = doesn't match
+		volatile byte endResult = 0;
+		private final int hash;
+
+		State(int[] kernel, int preceding, boolean cached) {
+			this.kernel = kernel;
+			this.preceding = preceding;
+			this.transitions = cached ? new State[CACHED_CHARACTERS] : null;
+			this.hash = 31 * Arrays.hashCode(kernel) + preceding;
+		}
+
+		boolean isCached() {
+			return transitions != null;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof State)) {
+				return false;
+			}
+			final State other = (State) obj;
+			return preceding == other.preceding && Arrays.equals(kernel, other.kernel);
+		}
+	}
+
+	/**
+	 * The zero width assertions the DFA supports, all of which depend only on
+	 * the characters either side of the position.
+	 */
+	private static enum Anchor {
+		BEGINNING_OF_INPUT {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				return preceding == NONE;
+			}
+		},
+		END_OF_INPUT {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				return following == NONE;
+			}
+		},
+		BEGINNING_OF_LINE {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				// like Perl, ^ never matches at the end of the input, and \r\n is a single terminator
+				return following != NONE
+						&& (preceding == NONE
+						|| (preceding != OTHER && !(preceding == CARRIAGE_RETURN && following == LINE_FEED)));
+			}
+		},
+		BEGINNING_OF_UNIX_LINE {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				return following != NONE && (preceding == NONE || preceding == LINE_FEED);
+			}
+		},
+		END_OF_LINE {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				return following == NONE
+						|| following == CARRIAGE_RETURN
+						|| following == OTHER_TERMINATOR
+						|| (following == LINE_FEED && preceding != CARRIAGE_RETURN);
+			}
+		},
+		END_OF_UNIX_LINE {
+			@Override
+			boolean isSatisfied(int preceding, int following) {
+				return following == NONE || following == LINE_FEED;
+			}
+		};
+
+		abstract boolean isSatisfied(int preceding, int following);
+	}
+
+	private static class UnsupportedConstruct extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedConstruct() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * A Thompson NFA stored as parallel arrays of instructions.
+	 */
+	private static final class Program {
+
+		static final int CHARACTER = 0;
+		static final int CLASS = 1;
+		static final int SPLIT = 2;
+		static final int ASSERT = 3;
+		static final int MATCHED = 4;
+
+		int size = 0;
+		int start;
+		int[] kinds = new int[16];
+		int[] next = new int[16];
+		int[] alternatives = new int[16];
+		char[] characters = new char[16];
+		CharacterClass[] classes = new CharacterClass[16];
+		Anchor[] assertions = new Anchor[16];
+
+		static Program compile(RegexSyntax syntax) {
+			if (syntax == null) {
+				return null;
+			}
+			try {
+				final Program program = new Program();
+				final int end = program.add(MATCHED, -1);
+				program.start = program.compile(syntax.getRoot(), end);
+				return program;
+			} catch (UnsupportedConstruct ex) {
+				return null;
+			}
+		}
+
+		private int add(int kind, int following) {
+			if (size == MAXIMUM_INSTRUCTIONS) {
+				throw new UnsupportedConstruct();
+			}
+			if (size == kinds.length) {
+				final int capacity = size * 2;
+				kinds = Arrays.copyOf(kinds, capacity);
+				next = Arrays.copyOf(next, capacity);
+				alternatives = Arrays.copyOf(alternatives, capacity);
+				characters = Arrays.copyOf(characters, capacity);
+				classes = Arrays.copyOf(classes, capacity);
+				assertions = Arrays.copyOf(assertions, capacity);
+			}
+			kinds[size] = kind;
+			next[size] = following;
+			return size++;
+		}
+
+		private int split(int first, int second) {
+			final int instruction = add(SPLIT, first);
+			alternatives[instruction] = second;
+			return instruction;
+		}
+
+		/**
+		 * Adds the instructions for the node, working backwards from the
+		 * instruction that follows it.
+		 *
+		 * @return the first instruction of the node
+		 */
+		private int compile(SyntaxNode node, int following) {
+			if (node instanceof Literal) {
+				final int instruction = add(CHARACTER, following);
+				characters[instruction] = ((Literal) node).character;
+				return instruction;
+			} else if (node instanceof CharacterClass) {
+				final int instruction = add(CLASS, following);
+				classes[instruction] = (CharacterClass) node;
+				return instruction;
+			} else if (node instanceof Sequence) {
+				final List<SyntaxNode> elements = ((Sequence) node).elements;
+				int first = following;
+				for (int i = elements.size() - 1; i >= 0; i--) {
+					first = compile(elements.get(i), first);
+				}
+				return first;
+			} else if (node instanceof Alternation) {
+				final List<SyntaxNode> options = ((Alternation) node).options;
+				int first = compile(options.get(options.size() - 1), following);
+				for (int i = options.size() - 2; i >= 0; i--) {
+					first = split(compile(options.get(i), following), first);
+				}
+				return first;
+			} else if (node instanceof Grouping) {
+				return compile(((Grouping) node).contents, following);
+			} else if (node instanceof Repeat) {
+				return compileRepeat((Repeat) node, following);
+			} else if (node instanceof Assertion) {
+				final int instruction = add(ASSERT, following);
+				assertions[instruction] = anchorFor((Assertion) node);
+				return instruction;
+			}
+			throw new UnsupportedConstruct();
+		}
+
+		private int compileRepeat(Repeat repeat, int following) {
+			if (repeat.mode == Mode.POSSESSIVE) {
+				throw new UnsupportedConstruct();
+			}
+			if (canMatchEmpty(repeat.contents)) {
+				// java.util.regex refuses to repeat an iteration that matched nothing, which a DFA can't express
+				throw new UnsupportedConstruct();
+			}
+			int first;
+			if (repeat.isUnbounded()) {
+				first = split(-1, following);
+				// compile may grow the arrays so don't read next until it returns
+				final int body = compile(repeat.contents, first);
+				next[first] = body;
+			} else {
+				first = following;
+				for (int i = repeat.minimum; i < repeat.maximum; i++) {
+					first = split(compile(repeat.contents, first), following);
+				}
+			}
+			for (int i = 0; i < repeat.minimum; i++) {
+				first = compile(repeat.contents, first);
+			}
+			return first;
+		}
+
+		/**
+		 * Tests whether the node can match without consuming any characters.
+		 */
+		private static boolean canMatchEmpty(SyntaxNode node) {
+			if (node instanceof Literal || node instanceof CharacterClass) {
+				return false;
+			} else if (node instanceof Sequence) {
+				for (SyntaxNode element : ((Sequence) node).elements) {
+					if (!canMatchEmpty(element)) {
+						return false;
+					}
+				}
+				return true;
+			} else if (node instanceof Alternation) {
+				for (SyntaxNode option : ((Alternation) node).options) {
+					if (canMatchEmpty(option)) {
+						return true;
+					}
+				}
+				return false;
+			} else if (node instanceof Grouping) {
+				return canMatchEmpty(((Grouping) node).contents);
+			} else if (node instanceof Repeat) {
+				return ((Repeat) node).minimum == 0 || canMatchEmpty(((Repeat) node).contents);
+			}
+			// assertions, and anything else, are treated as possibly empty
+			return true;
+		}
+
+		private static Anchor anchorFor(Assertion assertion) {
+			final boolean multiline = (assertion.flags & Pattern.MULTILINE) != 0;
+			final boolean unixLines = (assertion.flags & Pattern.UNIX_LINES) != 0;
+			switch (assertion.boundary) {
+				case BEGINNING_OF_INPUT:
+					return Anchor.BEGINNING_OF_INPUT;
+				case END_OF_INPUT:
+					return Anchor.END_OF_INPUT;
+				case BEGINNING_OF_LINE:
+					if (!multiline) {
+						return Anchor.BEGINNING_OF_INPUT;
+					}
+					return unixLines ? Anchor.BEGINNING_OF_UNIX_LINE : Anchor.BEGINNING_OF_LINE;
+				case END_OF_LINE:
+					if (multiline) {
+						return unixLines ? Anchor.END_OF_UNIX_LINE : Anchor.END_OF_LINE;
+					}
+					// without MULTILINE $ depends on the final two characters
+					throw new UnsupportedConstruct();
+				default:
+					// word boundaries need more than one character of context
+					throw new UnsupportedConstruct();
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.MatchResult;
+
+/**
+ * The result of ending an {@link OrGroup} whose options are all literals.
+ *
+ * <p>
+ * The regex string is identical to the OrGroup's but, when a regex consists of
+ * only this alternation, matching is performed by an {@link AhoCorasick}
+ * automaton which examines each character once regardless of the number of
+ * options. Results are reported exactly as the regex engine would report them,
+ * including the capturing groups.</p>
+ *
+ * @author gregorygraham
+ */
+class LiteralAlternation extends UnescapedSequence {
+
+	private final List<String> keywords;
+	// the captured spans of each option, as pairs of offsets within the option
+	private final int[][] captures;
+	// the group number of each option's first capture
+	private final int[] firstGroup;
+	private final int groupCount;
+	private volatile AhoCorasick automaton;
+
+	private LiteralAlternation(String regexString, List<String> keywords, int[][] captures) {
+		super(regexString);
+		this.keywords = keywords;
+		this.captures = captures;
+		this.firstGroup = new int[captures.length];
+		// group 1 is the alternation itself
+		int group = 2;
+		for (int i = 0; i < captures.length; i++) {
+			firstGroup[i] = group;
+			group += captures[i].length / 2;
+		}
+		this.groupCount = group - 1;
+	}
+
+	/**
+	 * Creates a LiteralAlternation if every option is made of only literals.
+	 *
+	 * @param regexString the regex string of the OrGroup
+	 * @param options the contents of each option within the OrGroup
+	 * @return a LiteralAlternation or null if any option is not a simple literal
+	 */
+	static LiteralAlternation from(String regexString, List<PartialRegex> options) {
+		final List<String> keywords = new ArrayList<>(options.size());
+		final int[][] captures = new int[options.size()][];
+		for (int i = 0; i < options.size(); i++) {
+			final StringBuilder keyword = new StringBuilder();
+			final List<Integer> spans = new ArrayList<>(0);
+			for (PartialRegex part : sequenceOf(options.get(i))) {
+				if (part instanceof LiteralSequence) {
+					keyword.append(((LiteralSequence) part).getLiteral());
+				} else if (part instanceof GroupedSequence) {
+					final String contents = literalOf(((GroupedSequence) part).getContents());
+					if (contents == null) {
+						return null;
+					}
+					spans.add(keyword.length());
+					keyword.append(contents);
+					spans.add(keyword.length());
+				} else {
+					return null;
+				}
+			}
+			if (keyword.length() == 0) {
+				// empty options produce empty matches which the automaton can't report
+				return null;
+			}
+			keywords.add(keyword.toString());
+			captures[i] = spans.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return new LiteralAlternation(regexString, keywords, captures);
+	}
+
+	private static String literalOf(PartialRegex regex) {
+		final StringBuilder literal = new StringBuilder();
+		for (PartialRegex part : sequenceOf(regex)) {
+			if (part instanceof LiteralSequence) {
+				literal.append(((LiteralSequence) part).getLiteral());
+			} else {
+				return null;
+			}
+		}
+		return literal.toString();
+	}
+
+	private static List<PartialRegex> sequenceOf(PartialRegex regex) {
+		final List<PartialRegex> sequence = new ArrayList<>();
+		regex.addSequenceTo(sequence);
+		sequence.removeIf(part -> part.toRegexString().isEmpty());
+		return sequence;
+	}
+
+	private AhoCorasick getAutomaton() {
+		AhoCorasick result = automaton;
+		if (result == null) {
+			result = new AhoCorasick(keywords);
+			automaton = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the first option that matches within the text at or after the
+	 * starting index.
+	 *
+	 * @param text the text to search
+	 * @param from the index to start searching at
+	 * @return the packed match as described in
+	 * {@link AhoCorasick#find(java.lang.CharSequence, int) } or -1
+	 */
+	long find(CharSequence text, int from) {
+		return getAutomaton().find(text, from);
+	}
+
+	/**
+	 * Creates the MatchResult the regex engine would have produced for the match
+	 * found by {@link #find(java.lang.CharSequence, int) }.
+	 *
+	 * @param text the text that was searched
+	 * @param found the packed match
+	 * @return a MatchResult for the match
+	 */
+	MatchResult toMatchResult(CharSequence text, long found) {
+		final int start = AhoCorasick.startOf(found);
+		final int option = AhoCorasick.keywordOf(found);
+		final int[] offsets = new int[(groupCount + 1) * 2];
+		Arrays.fill(offsets, -1);
+		offsets[0] = start;
+		offsets[1] = start + getAutomaton().lengthOf(option);
+		offsets[2] = offsets[0];
+		offsets[3] = offsets[1];
+		final int[] spans = captures[option];
+		for (int i = 0; i < spans.length; i += 2) {
+			final int group = firstGroup[option] + i / 2;
+			offsets[group * 2] = start + spans[i];
+			offsets[group * 2 + 1] = start + spans[i + 1];
+		}
+		return new OffsetMatchResult(text, offsets);
+	}
+
+	/**
+	 * Finds the first match at or after the starting index, if any.
+	 *
+	 * @param text the text to search
+	 * @param from the index to start searching at
+	 * @return the MatchResult or null if there are no more matches
+	 */
+	MatchResult findMatchResult(CharSequence text, int from) {
+		final long found = find(text, from);
+		return found < 0 ? null : toMatchResult(text, found);
+	}
+}
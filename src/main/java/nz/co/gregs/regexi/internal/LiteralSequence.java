@@ -17,6 +17,7 @@ import java.util.List;
 public class LiteralSequence extends PartialRegex {
 
 	private final String literal;
+	private final String unescaped;
 
 	/**
 	 * Creates a new literal sequence by replacing all protected characters as
@@ -29,6 +30,7 @@ public class LiteralSequence extends PartialRegex {
 	 * @param literals the literal characters to be added to the pattern
 	 */
 	public LiteralSequence(String literals) {
+		this.unescaped = literals == null ? "" : literals;
 		if (literals == null) {
 			this.literal = "";
 		} else {
@@ -55,6 +57,15 @@ public class LiteralSequence extends PartialRegex {
 		return "" + literal;
 	}
 
+	/**
+	 * The literal characters matched by this sequence, without any escaping.
+	 *
+	 * @return the original literal characters
+	 */
+	String getLiteral() {
+		return unescaped;
+	}
+
 	@Override
 	public List<PartialRegex> getRegexParts() {
 		List<PartialRegex> result = new ArrayList<PartialRegex>(1);
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import nz.co.gregs.regexi.MatchBudget;
+import nz.co.gregs.regexi.MatchBudgetExceededException;
+
+/**
+ * Finds matches of a PartialRegex within a file by memory mapping it and
+ * searching the mapped bytes directly, without copying the file into the
+ * heap.
+ *
+ * <p>
+ * The file is mapped a segment at a time, because a CharSequence can't be
+ * longer than {@link Integer#MAX_VALUE}, and segments overlap so that matches
+ * spanning segments are found exactly as they would be in the complete text.
+ * Matches are decided in the same way as {@link StreamingMatcher}: a match is
+ * only reported once the regex engine didn't need to look past the end of the
+ * segment, or the match is already as long as the maximum match length.</p>
+ *
+ * <p>
+ * Offsets are reported in both chars and bytes from the start of the file.
+ * Matches keep their segment mapped until they are garbage collected so that
+ * their text can be read later.</p>
+ *
+ * @author gregorygraham
+ */
+public final class MappedFileMatcher {
+
+	private final PartialRegex regex;
+	private final FileChannel channel;
+	private final Charset charset;
+	private final int maximumMatchLength;
+	private final int segmentSize;
+	private final MatchBudget budget;
+	private final long fileSize;
+	private final Matcher matcher;
+	private MappedText segment = null;
+	private boolean lastSegment = false;
+	// the offsets, in bytes and chars, of the start of the segment within the file
+	private long segmentByte = 0;
+	private long segmentChar = 0;
+	// where the next search starts within the segment
+	private int searchFrom = 0;
+
+	/**
+	 * Creates a MappedFileMatcher for the file.
+	 *
+	 * <p>
+	 * The channel is read from the start and is not closed.</p>
+	 *
+	 * @param regex the regex to find
+	 * @param channel the file to search
+	 * @param charset the encoding of the file, US-ASCII, ISO-8859-1, or UTF-8
+	 * @param maximumMatchLength the length, in chars, of the longest match
+	 * expected
+	 * @param segmentSize the number of bytes to map at a time, which must be at
+	 * least 8 times the maximum match length plus 8
+	 * @param budget the limits for each search, or null for no limits
+	 * @throws IOException if the size of the file can't be read
+	 */
+	public MappedFileMatcher(PartialRegex regex, FileChannel channel, Charset charset, int maximumMatchLength, int segmentSize, MatchBudget budget) throws IOException {
+		if (!MappedText.supports(charset)) {
+			throw new IllegalArgumentException("Files can only be mapped as US-ASCII, ISO-8859-1, or UTF-8: " + charset);
+		}
+		if (maximumMatchLength < 1) {
+			throw new IllegalArgumentException("The maximum match length must be at least 1: " + maximumMatchLength);
+		}
+		// so that each segment holds more than twice the maximum match length, even in UTF-8
+		if (segmentSize < 8L * maximumMatchLength + 8) {
+			throw new IllegalArgumentException("The segment size must be at least 8 times the maximum match length plus 8: " + segmentSize);
+		}
+		this.regex = regex;
+		this.channel = channel;
+		this.charset = charset;
+		this.maximumMatchLength = maximumMatchLength;
+		this.segmentSize = segmentSize;
+		this.budget = budget;
+		this.fileSize = channel.size();
+		this.matcher = regex.getPattern().matcher("");
+		matcher.useTransparentBounds(true);
+		matcher.useAnchoringBounds(false);
+	}
+
+	/**
+	 * Finds the next match.
+	 *
+	 * @return true if a match was found
+	 * @throws IOException if the file can't be mapped
+	 * @throws MatchBudgetExceededException if a search exceeds the budget
+	 */
+	public boolean find() throws IOException {
+		if (segment == null) {
+			map();
+		}
+		while (true) {
+			final int length = segment.length();
+			if (searchFrom <= length) {
+				matcher.reset(BudgetedCharSequence.track(segment, budget));
+				matcher.region(searchFrom, length);
+				final boolean found = matcher.find();
+				final boolean decided = lastSegment || !matcher.hitEnd();
+				// a match that relies on the segment ending here reads further than the maximum
+				if (found && (decided || (matcher.start() + maximumMatchLength < length && matcher.end() < length && !matcher.requireEnd()))) {
+					// like Matcher.find(), an empty match moves the search along by one
+					searchFrom = matcher.end() == matcher.start() ? matcher.end() + 1 : matcher.end();
+					return true;
+				}
+				if (!found && decided) {
+					searchFrom = length + 1;
+				} else {
+					// matches starting this far back would already have been found
+					searchFrom = Math.max(searchFrom, length - maximumMatchLength);
+				}
+			}
+			if (lastSegment) {
+				return false;
+			}
+			// keep the maximum match length before the search for lookbehinds
+			final int keep = segment.characterStart(Math.max(0, Math.min(searchFrom, length) - maximumMatchLength));
+			segmentByte += segment.byteOffset(keep);
+			segmentChar += keep;
+			searchFrom -= keep;
+			map();
+		}
+	}
+
+	private void map() throws IOException {
+		final long size = Math.min(segmentSize, fileSize - segmentByte);
+		final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, segmentByte, size);
+		lastSegment = segmentByte + size == fileSize;
+		if (!lastSegment) {
+			bytes.limit(MappedText.completeLength(bytes, charset));
+		}
+		segment = MappedText.of(bytes, charset);
+	}
+
+	/**
+	 * The offset within the file, in chars, of the start of the current match.
+	 *
+	 * @return the offset of the first char of the match
+	 */
+	public long start() {
+		return segmentChar + matcher.start();
+	}
+
+	/**
+	 * The offset within the file, in chars, of the end of the current match.
+	 *
+	 * @return the offset after the last char of the match
+	 */
+	public long end() {
+		return segmentChar + matcher.end();
+	}
+
+	/**
+	 * The offset within the file, in bytes, of the start of the current match.
+	 *
+	 * @return the offset of the first byte of the match
+	 */
+	public long byteStart() {
+		return segmentByte + segment.byteOffset(matcher.start());
+	}
+
+	/**
+	 * The offset within the file, in bytes, of the end of the current match.
+	 *
+	 * @return the offset after the last byte of the match
+	 */
+	public long byteEnd() {
+		return segmentByte + segment.byteOffset(matcher.end());
+	}
+
+	/**
+	 * The current match, with its groups read from the mapped file only when
+	 * they are requested.
+	 *
+	 * <p>
+	 * The offsets of the MatchResult are counted in chars from the start of the
+	 * file, and throw ArithmeticException if they are beyond the range of an
+	 * int.</p>
+	 *
+	 * @return the groups of the current match
+	 */
+	public MatchResult toMatchResult() {
+		return OffsetMatchResult.viewOf(segment, segmentChar, matcher);
+	}
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A read-only CharSequence view of encoded bytes that decodes characters as
+ * they are read, so that memory mapped files can be searched without copying
+ * them into a String.
+ *
+ * <p>
+ * ISO-8859-1 and US-ASCII are read directly, one byte per char. UTF-8 is
+ * indexed once when the view is created, recording a checkpoint every 1024
+ * chars. Blocks of pure ASCII between checkpoints are read directly, and other
+ * blocks are decoded a block at a time as they are read. Bytes that aren't
+ * valid in the encoding are read as U+FFFD.</p>
+ *
+ * @author gregorygraham
+ */
+abstract class MappedText implements CharSequence {
+
+	/**
+	 * Tests whether the charset can be read by a MappedText.
+	 *
+	 * @param charset the encoding of the bytes
+	 * @return true for US-ASCII, ISO-8859-1, and UTF-8
+	 */
+	static boolean supports(Charset charset) {
+		return charset.equals(StandardCharsets.US_ASCII)
+				|| charset.equals(StandardCharsets.ISO_8859_1)
+				|| charset.equals(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a view of the bytes from the start of the buffer to its limit.
+	 *
+	 * @param bytes the encoded text
+	 * @param charset the encoding, which must be {@link #supports(java.nio.charset.Charset) supported}
+	 * @return a view of the bytes as chars
+	 */
+	static MappedText of(ByteBuffer bytes, Charset charset) {
+		if (charset.equals(StandardCharsets.ISO_8859_1)) {
+			return new SingleByteText(bytes, false);
+		}
+		if (charset.equals(StandardCharsets.US_ASCII)) {
+			return new SingleByteText(bytes, true);
+		}
+		final int limit = bytes.limit();
+		for (int i = 0; i < limit; i++) {
+			if (bytes.get(i) < 0) {
+				return new Utf8Text(bytes);
+			}
+		}
+		return new SingleByteText(bytes, true);
+	}
+
+	/**
+	 * The length, in bytes, of the longest prefix of the buffer that doesn't
+	 * end part way through an encoded character.
+	 *
+	 * @param bytes the encoded text
+	 * @param charset the encoding
+	 * @return the number of bytes that can be decoded without the bytes that
+	 * follow the buffer
+	 */
+	static int completeLength(ByteBuffer bytes, Charset charset) {
+		final int limit = bytes.limit();
+		if (!charset.equals(StandardCharsets.UTF_8)) {
+			return limit;
+		}
+		for (int start = limit - 1; start >= Math.max(0, limit - 4); start--) {
+			final int lead = bytes.get(start) & 0xFF;
+			if ((lead & 0xC0) != 0x80) {
+				return start + Utf8Text.expectedLength(lead) > limit ? start : limit;
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * The offset within the bytes of the encoded character containing the char.
+	 *
+	 * @param index the index of a char, or the length of this view
+	 * @return the offset of the first byte of the character
+	 */
+	abstract int byteOffset(int index);
+
+	/**
+	 * The index of the first char of the character containing the char.
+	 *
+	 * <p>
+	 * Characters outside the Basic Multilingual Plane are two chars long, and
+	 * the view can only be split before the first of them.</p>
+	 *
+	 * @param index the index of a char, or the length of this view
+	 * @return the index of the first char of the character
+	 */
+	abstract int characterStart(int index);
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length() || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length());
+		}
+		final StringBuilder result = new StringBuilder(end - start);
+		appendTo(result, start, end);
+		return result.toString();
+	}
+
+	/**
+	 * Copies the chars to the builder.
+	 *
+	 * @param builder where to copy the chars
+	 * @param start the index of the first char to copy
+	 * @param end the index after the last char to copy
+	 */
+	abstract void appendTo(StringBuilder builder, int start, int end);
+
+	@Override
+	public String toString() {
+		return subSequence(0, length()).toString();
+	}
+
+	/**
+	 * Reads ISO-8859-1, or ASCII, one byte per char.
+	 */
+	private static final class SingleByteText extends MappedText {
+
+		private final ByteBuffer bytes;
+		private final boolean ascii;
+
+		SingleByteText(ByteBuffer bytes, boolean ascii) {
+			this.bytes = bytes;
+			this.ascii = ascii;
+		}
+
+		@Override
+		public int length() {
+			return bytes.limit();
+		}
+
+		@Override
+		public char charAt(int index) {
+			final byte b = bytes.get(index);
+			if (ascii && b < 0) {
+				return '\uFFFD';
+			}
+			return (char) (b & 0xFF);
+		}
+
+		@Override
+		int byteOffset(int index) {
+			return index;
+		}
+
+		@Override
+		int characterStart(int index) {
+			return index;
+		}
+
+		@Override
+		void appendTo(StringBuilder builder, int start, int end) {
+			for (int i = start; i < end; i++) {
+				builder.append(charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Reads UTF-8 using an index of checkpoints and a cache of decoded blocks.
+	 */
+	private static final class Utf8Text extends MappedText {
+
+		private static final int CHECKPOINT_SHIFT = 10;
+		private static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_SHIFT;
+
+		private final ByteBuffer bytes;
+		private final int limit;
+		private final int length;
+		// the first character starting at or after each multiple of the interval
+		private final int[] checkpointChars;
+		private final int[] checkpointBytes;
+		// blocks between checkpoints that are entirely ASCII are read directly
+		private final boolean[] asciiBlocks;
+		// the two most recently read blocks, decoded, as the regex engine often steps back a little
+		private int recentBlock = -1;
+		private char[] recentChars = new char[CHECKPOINT_INTERVAL + 2];
+		private int[] recentOffsets = new int[CHECKPOINT_INTERVAL + 2];
+		private int olderBlock = -1;
+		private char[] olderChars = new char[CHECKPOINT_INTERVAL + 2];
+		private int[] olderOffsets = new int[CHECKPOINT_INTERVAL + 2];
+
+		Utf8Text(ByteBuffer bytes) {
+			this.bytes = bytes;
+			this.limit = bytes.limit();
+			int[] chars = new int[16];
+			int[] offsets = new int[16];
+			boolean[] ascii = new boolean[16];
+			int checkpoints = 0;
+			int index = 0;
+			for (int offset = 0; offset < limit;) {
+				if (index >= checkpoints << CHECKPOINT_SHIFT) {
+					if (checkpoints == chars.length) {
+						chars = Arrays.copyOf(chars, checkpoints * 2);
+						offsets = Arrays.copyOf(offsets, checkpoints * 2);
+						ascii = Arrays.copyOf(ascii, checkpoints * 2);
+					}
+					chars[checkpoints] = index;
+					offsets[checkpoints] = offset;
+					ascii[checkpoints] = true;
+					checkpoints++;
+				}
+				if (bytes.get(offset) >= 0) {
+					index++;
+					offset++;
+				} else {
+					final int decoded = decode(bytes, offset, limit);
+					ascii[checkpoints - 1] = false;
+					index += charCount(decoded);
+					offset += byteCount(decoded);
+				}
+			}
+			this.length = index;
+			this.checkpointChars = Arrays.copyOf(chars, Math.max(1, checkpoints));
+			this.checkpointBytes = Arrays.copyOf(offsets, Math.max(1, checkpoints));
+			this.asciiBlocks = Arrays.copyOf(ascii, Math.max(1, checkpoints));
+		}
+
+		static int expectedLength(int lead) {
+			if (lead < 0xC2) {
+				return 1;
+			} else if (lead < 0xE0) {
+				return 2;
+			} else if (lead < 0xF0) {
+				return 3;
+			} else if (lead < 0xF5) {
+				return 4;
+			}
+			return 1;
+		}
+
+		/**
+		 * Decodes the character at the offset, packing the code point with the
+		 * number of bytes it uses.
+		 */
+		private static int decode(ByteBuffer bytes, int offset, int limit) {
+			final int lead = bytes.get(offset) & 0xFF;
+			if (lead < 0x80) {
+				return lead << 3 | 1;
+			}
+			final int length = expectedLength(lead);
+			if (length == 1 || offset + length > limit) {
+				return 0xFFFD << 3 | 1;
+			}
+			final int second = bytes.get(offset + 1) & 0xFF;
+			// exclude overlong encodings, surrogates, and code points beyond U+10FFFF
+			final int lowest = lead == 0xE0 ? 0xA0 : lead == 0xF0 ? 0x90 : 0x80;
+			final int highest = lead == 0xED ? 0x9F : lead == 0xF4 ? 0x8F : 0xBF;
+			if (second < lowest || second > highest) {
+				return 0xFFFD << 3 | 1;
+			}
+			int codePoint = (lead & (0x7F >> length)) << 6 | (second & 0x3F);
+			for (int i = 2; i < length; i++) {
+				final int next = bytes.get(offset + i) & 0xFF;
+				if ((next & 0xC0) != 0x80) {
+					return 0xFFFD << 3 | 1;
+				}
+				codePoint = codePoint << 6 | (next & 0x3F);
+			}
+			return codePoint << 3 | length;
+		}
+
+		private static int codePoint(int decoded) {
+			return decoded >>> 3;
+		}
+
+		private static int byteCount(int decoded) {
+			return decoded & 7;
+		}
+
+		private static int charCount(int decoded) {
+			return decoded >>> 3 >= Character.MIN_SUPPLEMENTARY_CODE_POINT ? 2 : 1;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+			}
+			final int block = checkpointFor(index);
+			if (asciiBlocks[block]) {
+				return (char) bytes.get(checkpointBytes[block] + index - checkpointChars[block]);
+			}
+			readBlock(block);
+			return recentChars[index - checkpointChars[block]];
+		}
+
+		private void readBlock(int block) {
+			if (block != recentBlock) {
+				final char[] chars = olderChars;
+				final int[] offsets = olderOffsets;
+				olderChars = recentChars;
+				olderOffsets = recentOffsets;
+				recentChars = chars;
+				recentOffsets = offsets;
+				final int older = olderBlock;
+				olderBlock = recentBlock;
+				recentBlock = block;
+				if (older != block) {
+					decodeBlock(block, chars, offsets);
+				}
+			}
+		}
+
+		private void decodeBlock(int block, char[] chars, int[] offsets) {
+			final int end = block + 1 < checkpointChars.length ? checkpointChars[block + 1] : length;
+			int character = checkpointChars[block];
+			int offset = checkpointBytes[block];
+			int index = 0;
+			while (character < end) {
+				final int decoded = decode(bytes, offset, limit);
+				final int codePoint = codePoint(decoded);
+				if (charCount(decoded) == 1) {
+					offsets[index] = offset;
+					chars[index++] = (char) codePoint;
+				} else {
+					offsets[index] = offset;
+					chars[index++] = Character.highSurrogate(codePoint);
+					offsets[index] = offset;
+					chars[index++] = Character.lowSurrogate(codePoint);
+				}
+				character += charCount(decoded);
+				offset += byteCount(decoded);
+			}
+		}
+
+		private int checkpointFor(int index) {
+			int checkpoint = Math.min(index >> CHECKPOINT_SHIFT, checkpointChars.length - 1);
+			if (checkpointChars[checkpoint] > index) {
+				checkpoint--;
+			}
+			return checkpoint;
+		}
+
+		@Override
+		int byteOffset(int index) {
+			if (index >= length) {
+				return limit;
+			}
+			final int block = checkpointFor(index);
+			if (asciiBlocks[block]) {
+				return checkpointBytes[block] + index - checkpointChars[block];
+			}
+			readBlock(block);
+			return recentOffsets[index - checkpointChars[block]];
+		}
+
+		@Override
+		int characterStart(int index) {
+			if (index >= length) {
+				return length;
+			}
+			final int checkpoint = checkpointFor(index);
+			int character = checkpointChars[checkpoint];
+			int offset = checkpointBytes[checkpoint];
+			while (true) {
+				final int decoded = decode(bytes, offset, limit);
+				if (index < character + charCount(decoded)) {
+					return character;
+				}
+				character += charCount(decoded);
+				offset += byteCount(decoded);
+			}
+		}
+
+		@Override
+		void appendTo(StringBuilder builder, int start, int end) {
+			if (start == end) {
+				return;
+			}
+			final int checkpoint = checkpointFor(start);
+			int character = checkpointChars[checkpoint];
+			int offset = checkpointBytes[checkpoint];
+			while (character < end) {
+				final int decoded = decode(bytes, offset, limit);
+				final int codePoint = codePoint(decoded);
+				if (charCount(decoded) == 1) {
+					if (character >= start) {
+						builder.append((char) codePoint);
+					}
+				} else {
+					if (character >= start) {
+						builder.append(Character.highSurrogate(codePoint));
+					}
+					if (character + 1 >= start && character + 1 < end) {
+						builder.append(Character.lowSurrogate(codePoint));
+					}
+				}
+				character += charCount(decoded);
+				offset += byteCount(decoded);
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ *
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ *
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ *
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.
+ *     Under the following terms:
+ *
+ *         Attribution -
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made.
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial -
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike -
+ *             If you remix, transform, or build upon the material,
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions -
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the
+ *             license permits.
+ *
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import nz.co.gregs.regexi.MatchBudget;
+import nz.co.gregs.regexi.MatchBudgetExceededException;
+
+/**
+ * A bounded, lock-free pool of Matchers for a single PartialRegex.
+ *
+ * <p>
+ * Matchers are borrowed, reset to the new input, used, and returned to the
+ * pool so that steady-state boolean matching does not allocate. The pool does
+ * not use ThreadLocals so it is safe to use from virtual threads. When every
+ * pooled Matcher is in use a new Matcher is created, and discarded if there is
+ * no room for it when it is released.</p>
+ *
+ * @author gregorygraham
+ */
+public class MatcherPool {
+
+	private static final String EMPTY = "";
+
+	private final PartialRegex regex;
+	private final AtomicReferenceArray<Matcher> slots;
+
+	/**
+	 * Creates a pool that will hold at most the specified number of idle
+	 * Matchers.
+	 *
+	 * @param regex the regex to create Matchers from
+	 * @param size the maximum number of idle Matchers kept by the pool
+	 */
+	public MatcherPool(PartialRegex regex, int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("A MatcherPool must hold at least one Matcher: " + size);
+		}
+		this.regex = regex;
+		this.slots = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * Tests the string using {@link Matcher#find() } on a pooled Matcher.
+	 *
+	 * @param string the string to test
+	 * @return true if the regex matches somewhere within the string
+	 */
+	public boolean find(CharSequence string) {
+		return find(string, null);
+	}
+
+	/**
+	 * Tests the string using {@link Matcher#find() } on a pooled Matcher,
+	 * abandoning the test if it exceeds the budget.
+	 *
+	 * @param string the string to test
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return true if the regex matches somewhere within the string
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean find(CharSequence string, MatchBudget budget) {
+		final LiteralAlternation alternation = regex.getLiteralAlternation();
+		if (alternation != null) {
+			return alternation.find(string, 0) >= 0;
+		}
+		if (!regex.mightMatch(string)) {
+			return false;
+		}
+		final LazyDfa dfa = regex.getSearchingDfa();
+		final int decision = dfa == null ? LazyDfa.UNDECIDED : dfa.test(string);
+		if (decision != LazyDfa.UNDECIDED) {
+			return decision == LazyDfa.MATCH;
+		}
+		final Matcher matcher = borrow(BudgetedCharSequence.track(string, budget));
+		try {
+			return matcher.find();
+		} finally {
+			release(matcher);
+		}
+	}
+
+	/**
+	 * Tests the string using {@link Matcher#matches() } on a pooled Matcher.
+	 *
+	 * @param string the string to test
+	 * @return true if the regex matches the entire string
+	 */
+	public boolean matches(CharSequence string) {
+		return matches(string, null);
+	}
+
+	/**
+	 * Tests the string using {@link Matcher#matches() } on a pooled Matcher,
+	 * abandoning the test if it exceeds the budget.
+	 *
+	 * @param string the string to test
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return true if the regex matches the entire string
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matches(CharSequence string, MatchBudget budget) {
+		if (!regex.mightMatch(string)) {
+			return false;
+		}
+		final LazyDfa dfa = regex.getEntireInputDfa();
+		final int decision = dfa == null ? LazyDfa.UNDECIDED : dfa.test(string);
+		if (decision != LazyDfa.UNDECIDED) {
+			return decision == LazyDfa.MATCH;
+		}
+		final Matcher matcher = borrow(BudgetedCharSequence.track(string, budget));
+		try {
+			return matcher.matches();
+		} finally {
+			release(matcher);
+		}
+	}
+
+	private Matcher borrow(CharSequence string) {
+		final int size = slots.length();
+		final int start = startingSlot(size);
+		for (int i = 0; i < size; i++) {
+			final int index = (start + i) % size;
+			final Matcher matcher = slots.get(index);
+			if (matcher != null && slots.compareAndSet(index, matcher, null)) {
+				return matcher.reset(string);
+			}
+		}
+		return regex.getPattern().matcher(string);
+	}
+
+	private void release(Matcher matcher) {
+		// don't keep the last input alive while the matcher is idle
+		matcher.reset(EMPTY);
+		final int size = slots.length();
+		final int start = startingSlot(size);
+		for (int i = 0; i < size; i++) {
+			final int index = (start + i) % size;
+			if (slots.get(index) == null && slots.compareAndSet(index, null, matcher)) {
+				return;
+			}
+		}
+	}
+
+	private static int startingSlot(int size) {
+		// spread threads across the pool to reduce contention on the first slot
+		return (int) (Thread.currentThread().getId() % size);
+	}
+}
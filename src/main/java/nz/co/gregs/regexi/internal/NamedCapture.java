@@ -5,7 +5,7 @@
  */
 package nz.co.gregs.regexi.internal;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -35,9 +35,7 @@ public class NamedCapture<REGEX extends AbstractHasRegexFunctions<REGEX>> extend
 
 	@Override
 	public List<String> getNamedGroups() {
-		ArrayList<String> arrayList = new ArrayList<String>(1);
-		arrayList.add(name);
-		return arrayList;
+		return Collections.singletonList(name);
 	}
 
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+
+/**
+ * A MatchResult described by the start and end offsets of each group within
+ * the source text.
+ *
+ * <p>
+ * The groups are only copied out of the text when they are requested, so the
+ * text must not change while the result is in use.</p>
+ *
+ * @author gregorygraham
+ */
+class OffsetMatchResult implements MatchResult {
+
+	private final CharSequence text;
+	// the position of the first char of the text within the entire input
+	private final long base;
+	// start and end of group n are at 2n and 2n+1, -1 if the group didn't match
+	private final int[] offsets;
+
+	OffsetMatchResult(CharSequence text, int[] offsets) {
+		this(text, 0, offsets);
+	}
+
+	OffsetMatchResult(CharSequence text, long base, int[] offsets) {
+		this.text = text;
+		this.base = base;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Records the current match of the matcher as a view over the text.
+	 *
+	 * <p>
+	 * Unlike {@link Matcher#toMatchResult() } this doesn't copy the text, only
+	 * the offsets of the groups.</p>
+	 *
+	 * @param text the text the matcher is searching
+	 * @param base the position of the first char of the text within the entire
+	 * input
+	 * @param matcher a matcher that has just found a match
+	 * @return the match as a view over the text
+	 */
+	static OffsetMatchResult viewOf(CharSequence text, long base, Matcher matcher) {
+		return new OffsetMatchResult(text, base, offsetsOf(matcher, 0));
+	}
+
+	/**
+	 * Records the current match of the matcher by copying the part of the text
+	 * the groups cover, for text that will change after the match is found.
+	 *
+	 * @param text the text the matcher is searching
+	 * @param base the position of the first char of the text within the entire
+	 * input
+	 * @param matcher a matcher that has just found a match
+	 * @return the match, independent of the text
+	 */
+	static OffsetMatchResult copyOf(CharSequence text, long base, Matcher matcher) {
+		int from = matcher.start();
+		int to = matcher.end();
+		for (int group = 1; group <= matcher.groupCount(); group++) {
+			if (matcher.start(group) >= 0) {
+				from = Math.min(from, matcher.start(group));
+				to = Math.max(to, matcher.end(group));
+			}
+		}
+		return new OffsetMatchResult(text.subSequence(from, to).toString(), base + from, offsetsOf(matcher, from));
+	}
+
+	private static int[] offsetsOf(Matcher matcher, int from) {
+		final int[] offsets = new int[(matcher.groupCount() + 1) * 2];
+		for (int group = 0; group <= matcher.groupCount(); group++) {
+			final int start = matcher.start(group);
+			offsets[group * 2] = start < 0 ? -1 : start - from;
+			offsets[group * 2 + 1] = start < 0 ? -1 : matcher.end(group) - from;
+		}
+		return offsets;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if the position is beyond the range of an int
+	 */
+	@Override
+	public int start() {
+		return start(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if the position is beyond the range of an int
+	 */
+	@Override
+	public int start(int group) {
+		checkGroup(group);
+		return position(offsets[group * 2]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if the position is beyond the range of an int
+	 */
+	@Override
+	public int end() {
+		return end(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if the position is beyond the range of an int
+	 */
+	@Override
+	public int end(int group) {
+		checkGroup(group);
+		return position(offsets[group * 2 + 1]);
+	}
+
+	private int position(int offset) {
+		return offset < 0 ? -1 : Math.toIntExact(base + offset);
+	}
+
+	@Override
+	public String group() {
+		return group(0);
+	}
+
+	@Override
+	public String group(int group) {
+		checkGroup(group);
+		final int start = offsets[group * 2];
+		if (start < 0) {
+			return null;
+		}
+		return text.subSequence(start, offsets[group * 2 + 1]).toString();
+	}
+
+	@Override
+	public int groupCount() {
+		return offsets.length / 2 - 1;
+	}
+
+	private void checkGroup(int group) {
+		if (group < 0 || group > groupCount()) {
+			throw new IndexOutOfBoundsException("No group " + group);
+		}
+	}
+}
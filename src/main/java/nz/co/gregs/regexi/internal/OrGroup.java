@@ -6,29 +6,71 @@
 package nz.co.gregs.regexi.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ *
+ * <p>
+ * Successive or() calls usually extend the most recent OrGroup, so the option
+ * arrays are shared: an OrGroup only reads its first {@code count} options and
+ * the first OrGroup to extend the arrays claims the next slot. Any other
+ * OrGroup extending the same arrays copies them instead, so building a large
+ * alternation stays linear and branching from an OrGroup doesn't affect its
+ * siblings.</p>
  *
  * @author gregorygraham
  * @param <REGEX> the type returned by {@link #endOrGroup() }
  */
 public class OrGroup<REGEX extends AbstractHasRegexFunctions<REGEX>> extends RegexGroup<OrGroup<REGEX>, REGEX> {
 
-	private final List<String> ors = new ArrayList<>(0);
+	private static final int MINIMUM_CAPACITY = 4;
+
+	private final String[] ors;
+	// null when the options are only known as strings
+	private final PartialRegex[] options;
+	private final int count;
+	// the number of slots claimed by any OrGroup sharing the arrays
+	private final AtomicInteger claimed;
 
 	protected OrGroup(REGEX original) {
-		super(original);
+		this(original, new String[MINIMUM_CAPACITY], new PartialRegex[MINIMUM_CAPACITY], 0, new AtomicInteger(0));
 	}
 
 	protected OrGroup(REGEX original, List<String> previousOptions) {
+		this(original, previousOptions.toArray(new String[0]), null, previousOptions.size(), new AtomicInteger(previousOptions.size()));
+	}
+
+	private OrGroup(REGEX original, String[] ors, PartialRegex[] options, int count, AtomicInteger claimed) {
 		super(original);
-		ors.addAll(previousOptions);
+		this.ors = ors;
+		this.options = options;
+		this.count = count;
+		this.claimed = claimed;
 	}
 
 	public OrGroup<REGEX> or() {
-		ors.add(getCurrent().toRegexString());
-		return new OrGroup<>(getOrigin(), ors);
+		final int newCount = count + 1;
+		final String[] newOrs;
+		final PartialRegex[] newOptions;
+		final AtomicInteger newClaimed;
+		if (newCount <= ors.length && claimed.compareAndSet(count, newCount)) {
+			// we own the slot at count now so extend the shared arrays
+			newOrs = ors;
+			newOptions = options;
+			newClaimed = claimed;
+		} else {
+			final int capacity = Math.max(MINIMUM_CAPACITY, newCount * 2);
+			newOrs = Arrays.copyOf(ors, capacity);
+			newOptions = options == null ? null : Arrays.copyOf(options, capacity);
+			newClaimed = new AtomicInteger(newCount);
+		}
+		newOrs[count] = getCurrent().toRegexString();
+		if (newOptions != null) {
+			newOptions[count] = getCurrent();
+		}
+		return new OrGroup<>(getOrigin(), newOrs, newOptions, newCount, newClaimed);
 	}
 
 	public REGEX endOrGroup() {
@@ -38,16 +80,38 @@ public class OrGroup<REGEX extends AbstractHasRegexFunctions<REGEX>> extends Reg
 	@Override
 	public String toRegexString() {
 		final String regexp = getCurrent().toRegexString();
-		ors.add(regexp);
-		String result = "";
-		for (String or : ors) {
-			result += (result.isEmpty() ? "" : "|") + or;
+		final StringBuilder result = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			appendOption(result, ors[i]);
 		}
-		if (result.isEmpty()) {
-			return result;
+		appendOption(result, regexp);
+		if (result.length() == 0) {
+			return "";
 		} else {
-			return "(" + result + ")";
+			return result.insert(0, '(').append(')').toString();
+		}
+	}
+
+	@Override
+	protected PartialRegex enclose() {
+		final String regexString = toRegexString();
+		if (options != null) {
+			final List<PartialRegex> allOptions = new ArrayList<>(count + 1);
+			allOptions.addAll(Arrays.asList(options).subList(0, count));
+			allOptions.add(getCurrent());
+			final LiteralAlternation alternation = LiteralAlternation.from(regexString, allOptions);
+			if (alternation != null) {
+				return alternation;
+			}
+		}
+		return new UnescapedSequence(regexString);
+	}
+
+	private static void appendOption(StringBuilder result, String option) {
+		if (result.length() > 0) {
+			result.append('|');
 		}
+		result.append(option);
 	}
 
 }
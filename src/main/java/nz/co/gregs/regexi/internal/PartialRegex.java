@@ -36,7 +36,6 @@ import java.util.*;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import nz.co.gregs.regexi.*;
 
@@ -46,7 +45,25 @@ import nz.co.gregs.regexi.*;
  */
 public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRegex> {
 
-	private Pattern compiledVersion;
+	/*
+	 * Compiled patterns and the anchored versions are immutable and thread-safe,
+	 * so they are lazily created without locking. Racing threads may each create
+	 * an equivalent instance but the volatile fields guarantee every thread sees
+	 * a fully constructed one.
+	 */
+	private volatile Pattern compiledVersion;
+	private volatile PartialRegex beginningVersion;
+	private volatile PartialRegex endVersion;
+	private LiteralAlternation literalAlternation;
+	private volatile boolean literalAlternationChecked = false;
+	private RegexSyntax syntax;
+	private volatile boolean syntaxChecked = false;
+	private volatile String[] prefilter;
+	private volatile Map<String, Integer> namedGroupNumbers;
+	private LazyDfa searchingDfa;
+	private LazyDfa entireInputDfa;
+	private volatile boolean dfaChecked = false;
+	private volatile BacktrackingReport backtrackingReport;
 	private int flags = 0;
 
 	protected PartialRegex() {
@@ -71,6 +88,61 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 		return new Regex(this);
 	}
 
+	/**
+	 * Transforms the PartialRegex into a full Regex, refusing if the regex risks
+	 * catastrophic backtracking.
+	 *
+	 * <p>
+	 * Use this when regexes are built from untrusted or user supplied
+	 * configuration so that dangerous regexes are rejected when they are built
+	 * rather than discovered later as CPU spikes. Regexes that can't be fully
+	 * analysed are also refused.</p>
+	 *
+	 * @return a Regex
+	 * @throws UnsafeRegexException if the regex risks any catastrophic
+	 * backtracking
+	 * @see #getBacktrackingReport()
+	 */
+	public Regex toStrictRegex() {
+		return toStrictRegex(BacktrackingRisk.NONE);
+	}
+
+	/**
+	 * Transforms the PartialRegex into a full Regex, refusing if the regex risks
+	 * more backtracking than is acceptable.
+	 *
+	 * @param acceptable the highest acceptable risk, for instance
+	 * {@link BacktrackingRisk#POLYNOMIAL} to only refuse exponential regexes
+	 * @return a Regex
+	 * @throws UnsafeRegexException if the regex risks more backtracking than is
+	 * acceptable
+	 * @see #getBacktrackingReport()
+	 */
+	public Regex toStrictRegex(BacktrackingRisk acceptable) {
+		final BacktrackingReport report = getBacktrackingReport();
+		if (!report.isAtMost(acceptable)) {
+			throw new UnsafeRegexException(toRegexString(), report);
+		}
+		return toRegex();
+	}
+
+	/**
+	 * Analyses this regex for catastrophic backtracking without running it.
+	 *
+	 * <p>
+	 * See {@link BacktrackingReport} for what the analysis covers.</p>
+	 *
+	 * @return the analysis of this regex
+	 */
+	public BacktrackingReport getBacktrackingReport() {
+		BacktrackingReport report = backtrackingReport;
+		if (report == null) {
+			report = BacktrackingAnalysis.analyse(getSyntax());
+			backtrackingReport = report;
+		}
+		return report;
+	}
+
 	/**
 	 * Transforms the PartialRegex into a full Regex ready for use with matching.
 	 *
@@ -116,6 +188,19 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 
 	@Override
 	public abstract String toRegexString();
+
+	/**
+	 * Appends the regex string of this PartialRegex to the builder.
+	 *
+	 * <p>
+	 * Composite PartialRegexes override this to render all of their parts into
+	 * the one builder rather than concatenating the strings of each part.</p>
+	 *
+	 * @param builder the builder to append the regex string to
+	 */
+	protected void appendRegexString(StringBuilder builder) {
+		builder.append(toRegexString());
+	}
 	
 	@Override
 	public String toString(){
@@ -125,6 +210,19 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 	@Override
 	public abstract List<PartialRegex> getRegexParts();
 
+	/**
+	 * Adds the PartialRegexes that form this PartialRegex, in order, to the list.
+	 *
+	 * <p>
+	 * Unlike {@link #getRegexParts() } this includes untestable parts, like
+	 * quantifiers, so that the list describes the whole regex.</p>
+	 *
+	 * @param sequence the list to add the parts to
+	 */
+	void addSequenceTo(List<PartialRegex> sequence) {
+		sequence.add(this);
+	}
+
 	/**
 	 * Adds the regular expression to the end of current expression as a new
 	 * group.
@@ -161,12 +259,194 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 			.or().literal('0').oneOrMore().notFollowedBy(Regex.startingAnywhere().digit())
 			.endOrGroup();
 
-	protected synchronized final Pattern getPattern() {
-		if (compiledVersion == null) {
+	protected final Pattern getPattern() {
+		Pattern pattern = compiledVersion;
+		if (pattern == null) {
 			final String regex = this.toRegexString();
-			compiledVersion = Pattern.compile(regex, flags);
+			pattern = FlightRecorderSupport.compile(regex, flags);
+			compiledVersion = pattern;
+		}
+		return pattern;
+	}
+
+	/**
+	 * Returns the syntax tree of this regex.
+	 *
+	 * @return the syntax tree, or null if the regex could not be analysed
+	 */
+	final RegexSyntax getSyntax() {
+		if (!syntaxChecked) {
+			syntax = RegexSyntax.parse(toRegexString(), flags);
+			syntaxChecked = true;
+		}
+		return syntax;
+	}
+
+	/**
+	 * Returns the group number of every named capture in this regex.
+	 *
+	 * <p>
+	 * The numbers are the ones used by {@link MatchResult#group(int) }, so named
+	 * captures can be read from any MatchResult of this regex without looking
+	 * the name up in the Pattern.</p>
+	 *
+	 * @return an unmodifiable map from name to group number, in the order the
+	 * names appear in the regex
+	 */
+	public final Map<String, Integer> getNamedGroupNumbers() {
+		Map<String, Integer> numbers = namedGroupNumbers;
+		if (numbers == null) {
+			final RegexSyntax tree = getSyntax();
+			numbers = tree != null
+					? tree.getNamedGroups()
+					: RegexSyntax.numberNamedGroups(toRegexString(), flags);
+			namedGroupNumbers = numbers;
+		}
+		return numbers;
+	}
+
+	/**
+	 * Lists the literal strings that must appear within the input for this regex
+	 * to match.
+	 *
+	 * <p>
+	 * For instance
+	 * {@code Regex.startingAnywhere().literal("day").digit().literal("s")} requires
+	 * "day" and "s". Case insensitive sections and optional elements don't
+	 * contribute any literals. The longest literals are listed first.</p>
+	 *
+	 * @return the required literals, which may be empty
+	 */
+	public List<String> getRequiredLiterals() {
+		final RegexSyntax tree = getSyntax();
+		return tree == null ? Collections.emptyList() : tree.getRequiredLiterals();
+	}
+
+	/**
+	 * Checks that the string contains every literal this regex requires.
+	 *
+	 * <p>
+	 * This is a fast rejection test using {@link String#indexOf(java.lang.String)
+	 * }, or an equivalent search for other CharSequences: if it returns false the
+	 * regex cannot match anywhere within the string and the regex engine need not
+	 * be run. A return value of true means only that the regex might match.</p>
+	 *
+	 * @param string the string to check
+	 * @return false if the regex definitely does not match within the string
+	 */
+	final boolean mightMatch(CharSequence string) {
+		String[] literals = prefilter;
+		if (literals == null) {
+			literals = getRequiredLiterals().toArray(new String[0]);
+			prefilter = literals;
+		}
+		for (String literal : literals) {
+			if (indexOf(string, literal) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int indexOf(CharSequence string, String literal) {
+		if (string instanceof String) {
+			return ((String) string).indexOf(literal);
+		}
+		final int length = literal.length();
+		if (length == 0) {
+			return 0;
+		}
+		final char first = literal.charAt(0);
+		final int last = string.length() - length;
+		for (int i = 0; i <= last; i++) {
+			if (string.charAt(i) == first) {
+				int j = 1;
+				while (j < length && string.charAt(i + j) == literal.charAt(j)) {
+					j++;
+				}
+				if (j == length) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the DFA that tests whether this regex matches anywhere within a
+	 * string.
+	 *
+	 * @return the DFA, or null if this regex uses constructs, like back
+	 * references or lookarounds, that the DFA does not support
+	 */
+	final LazyDfa getSearchingDfa() {
+		checkDfa();
+		return searchingDfa;
+	}
+
+	/**
+	 * Returns the DFA that tests whether this regex matches an entire string.
+	 *
+	 * @return the DFA, or null if this regex uses constructs, like back
+	 * references or lookarounds, that the DFA does not support
+	 */
+	final LazyDfa getEntireInputDfa() {
+		checkDfa();
+		return entireInputDfa;
+	}
+
+	private void checkDfa() {
+		if (!dfaChecked) {
+			final RegexSyntax tree = getSyntax();
+			searchingDfa = LazyDfa.forSearching(tree);
+			entireInputDfa = LazyDfa.forEntireInput(tree);
+			dfaChecked = true;
+		}
+	}
+
+	/**
+	 * Decides whether this regex matches within the string without using the
+	 * regex engine, if possible.
+	 *
+	 * @param string the string to test
+	 * @return {@link LazyDfa#MATCH}, {@link LazyDfa#NO_MATCH}, or
+	 * {@link LazyDfa#UNDECIDED} if the regex engine must decide
+	 */
+	private int decideMatchWithin(CharSequence string) {
+		if (!mightMatch(string)) {
+			return LazyDfa.NO_MATCH;
 		}
-		return compiledVersion;
+		final LazyDfa dfa = getSearchingDfa();
+		return dfa == null ? LazyDfa.UNDECIDED : dfa.test(string);
+	}
+
+	/**
+	 * Returns the alternation of literals that makes up this entire regex, if
+	 * there is one.
+	 *
+	 * <p>
+	 * Regexes that are only a list of literal options, for instance keyword
+	 * lists, are searched with an Aho-Corasick automaton instead of the regex
+	 * engine.</p>
+	 *
+	 * @return the LiteralAlternation or null if this regex is not just an
+	 * alternation of literals
+	 */
+	final LiteralAlternation getLiteralAlternation() {
+		if (!literalAlternationChecked) {
+			LiteralAlternation found = null;
+			if ((flags & ~(Pattern.MULTILINE | Pattern.DOTALL)) == 0) {
+				final List<PartialRegex> sequence = new ArrayList<>();
+				addSequenceTo(sequence);
+				sequence.removeIf(part -> part.toRegexString().isEmpty());
+				if (sequence.size() == 1 && sequence.get(0) instanceof LiteralAlternation) {
+					found = (LiteralAlternation) sequence.get(0);
+				}
+			}
+			literalAlternation = found;
+			literalAlternationChecked = true;
+		}
+		return literalAlternation;
 	}
 
 	/**
@@ -179,9 +459,30 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 	 * @param string the string to test with this regex
 	 * @return true if the beginning of the string matches this regex.
 	 */
-	public synchronized boolean matchesEntireString(String string) {
-		String test = checkForNull(string);
-		return getMatcher(test).matches();
+	public boolean matchesEntireString(CharSequence string) {
+		return matchesEntireString(string, null);
+	}
+
+	/**
+	 * Tests whether the supplied string matches this regex in it's entirety,
+	 * abandoning the test if it exceeds the budget.
+	 *
+	 * @param string the string to test with this regex
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return true if the entire string matches this regex.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesEntireString(CharSequence string, MatchBudget budget) {
+		CharSequence test = checkForNull(string);
+		if (!mightMatch(test)) {
+			return false;
+		}
+		final LazyDfa dfa = getEntireInputDfa();
+		final int decision = dfa == null ? LazyDfa.UNDECIDED : dfa.test(test);
+		if (decision != LazyDfa.UNDECIDED) {
+			return decision == LazyDfa.MATCH;
+		}
+		return getMatcher(test, budget).matches();
 	}
 
 	/**
@@ -189,19 +490,51 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 	 * the string.
 	 *
 	 * The method works by combining {@link Regex#startingFromTheBeginning()
-	 * } with this regex and calling {@link #matchesWithinString(java.lang.String)
-	 * }.
+	 * } with this regex and calling {@link #matchesWithinString(java.lang.CharSequence)
+	 * }. The combined regex is created, and compiled, once and reused for every
+	 * subsequent call.
 	 *
 	 * @param string the string to test with this regex
 	 * @return true if the beginning of the string matches this regex.
 	 */
-	public synchronized boolean matchesBeginningOf(String string) {
-		String test = checkForNull(string);
-		boolean result = Regex.startingFromTheBeginning().add(this).matchesWithinString(test);
+	public boolean matchesBeginningOf(CharSequence string) {
+		return matchesBeginningOf(string, null);
+	}
+
+	/**
+	 * Tests whether the supplied string matches this regex at the beginning of
+	 * the string, abandoning the test if it exceeds the budget.
+	 *
+	 * @param string the string to test with this regex
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return true if the beginning of the string matches this regex.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesBeginningOf(CharSequence string, MatchBudget budget) {
+		CharSequence test = checkForNull(string);
+		boolean result = getBeginningVersion().matchesWithinString(test, budget);
 		return result;
 	}
 
-	private String checkForNull(String string) {
+	private PartialRegex getBeginningVersion() {
+		PartialRegex version = beginningVersion;
+		if (version == null) {
+			version = Regex.startingFromTheBeginning().add(this);
+			beginningVersion = version;
+		}
+		return version;
+	}
+
+	private PartialRegex getEndVersion() {
+		PartialRegex version = endVersion;
+		if (version == null) {
+			version = endOfTheString();
+			endVersion = version;
+		}
+		return version;
+	}
+
+	private CharSequence checkForNull(CharSequence string) {
 		return (string != null ? string : "");
 	}
 
@@ -210,30 +543,85 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 	 * string.
 	 *
 	 * The method works by combining this regex with {@link #endOfTheString() }
-	 * and calling {@link #matchesWithinString(java.lang.String) }.
+	 * and calling {@link #matchesWithinString(java.lang.CharSequence) }. The combined
+	 * regex is created, and compiled, once and reused for every subsequent call.
+	 *
+	 * @param string the string to test with this regex
+	 * @return true if the end of the string matches this regex.
+	 */
+	public boolean matchesEndOf(CharSequence string) {
+		return matchesEndOf(string, null);
+	}
+
+	/**
+	 * Tests whether the supplied string matches this regex at the end of the
+	 * string, abandoning the test if it exceeds the budget.
 	 *
 	 * @param string the string to test with this regex
+	 * @param budget the limits on the regex engine, or null for no limits
 	 * @return true if the end of the string matches this regex.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
 	 */
-	public synchronized boolean matchesEndOf(String string) {
-		String test = checkForNull(string);
-		boolean result = endOfTheString().matchesWithinString(test);
+	public boolean matchesEndOf(CharSequence string, MatchBudget budget) {
+		CharSequence test = checkForNull(string);
+		boolean result = getEndVersion().matchesWithinString(test, budget);
 		return result;
 	}
 
-	public synchronized boolean matchesWithinString(String string) {
-		String test = checkForNull(string);
-		return getMatcher(test).find();
+	public boolean matchesWithinString(CharSequence string) {
+		return matchesWithinString(string, null);
+	}
+
+	/**
+	 * Tests whether this regex matches anywhere within the supplied string,
+	 * abandoning the test if it exceeds the budget.
+	 *
+	 * @param string the string to test with this regex
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return true if this regex matches within the string.
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public boolean matchesWithinString(CharSequence string, MatchBudget budget) {
+		CharSequence test = checkForNull(string);
+		final LiteralAlternation alternation = getLiteralAlternation();
+		if (alternation != null) {
+			return alternation.find(test, 0) >= 0;
+		}
+		final int decision = decideMatchWithin(test);
+		if (decision != LazyDfa.UNDECIDED) {
+			return decision == LazyDfa.MATCH;
+		}
+		return getMatcher(test, budget).find();
 	}
 
-	public synchronized Stream<MatchResult> getMatchResultsStream(String string) {
+	public Stream<MatchResult> getMatchResultsStream(CharSequence string) {
 		return getMatcher(string).results();
 	}
 
-	public synchronized Matcher getMatcher(String string) {
+	public Stream<MatchResult> getMatchResultsStream(CharSequence string, MatchBudget budget) {
+		return getMatcher(string, budget).results();
+	}
+
+	public Matcher getMatcher(CharSequence string) {
 		return getPattern().matcher(string);
 	}
 
+	/**
+	 * Creates a Matcher that abandons its work once it exceeds the budget.
+	 *
+	 * <p>
+	 * The budget covers everything done with the Matcher, starting when it is
+	 * created, so long running uses should create a new Matcher for each
+	 * operation.</p>
+	 *
+	 * @param string the source text
+	 * @param budget the limits for the Matcher, or null for no limits
+	 * @return a Matcher for the source text
+	 */
+	public Matcher getMatcher(CharSequence string, MatchBudget budget) {
+		return getPattern().matcher(BudgetedCharSequence.track(string, budget));
+	}
+
 	/**
 	 * Convenient access to Matcher.toMatchResult.
 	 * <p>
@@ -244,37 +632,133 @@ public abstract class PartialRegex extends AbstractHasRegexFunctions<PartialRege
 	 * @param string the string to generate the MatchResult for
 	 * @since 1.5
 	 */
-	public synchronized MatchResult getMatchResult(String string) {
+	public MatchResult getMatchResult(CharSequence string) {
 		return getMatcher(string).toMatchResult();
 	}
 
-	public synchronized HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(String string) {
+	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(CharSequence string) {
+		return getAllNamedCapturesOfFirstMatchWithinString(string, null);
+	}
+
+	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(CharSequence string, MatchBudget budget) {
 		HashMap<String, String> resultMap = new HashMap<String, String>(0);
-		Matcher matcher = getMatcher(string);
+		if (string != null && decideMatchWithin(string) == LazyDfa.NO_MATCH) {
+			return resultMap;
+		}
+		Matcher matcher = getMatcher(string, budget);
 		if (matcher.find()) {
-			for (String name : getNamedGroups()) {
-				final String group = matcher.group(name);
+			for (Map.Entry<String, Integer> entry : getNamedGroupNumbers().entrySet()) {
+				final String group = matcher.group(entry.getValue());
 				if (group != null) {
-					resultMap.put(name, group);
+					resultMap.put(entry.getKey(), group);
 				}
 			}
 		}
 		return resultMap;
 	}
 
-	public synchronized List<Match> getAllMatches(String string) {
-		Matcher matcher = getMatcher(string);
-		List<Match> matches = matcher.results().map(
-				m -> Match.from(this, m)
-		).collect(Collectors.toList());
+	public List<Match> getAllMatches(CharSequence string) {
+		return getAllMatches(string, null);
+	}
+
+	/**
+	 * Finds every match of this regex within the string, abandoning the search
+	 * if it exceeds the budget.
+	 *
+	 * @param string the string to search
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return every match found in the string
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public List<Match> getAllMatches(CharSequence string, MatchBudget budget) {
+		final LiteralAlternation alternation = getLiteralAlternation();
+		if (alternation != null) {
+			List<Match> matches = new ArrayList<>();
+			MatchResult result = alternation.findMatchResult(string, 0);
+			while (result != null) {
+				matches.add(Match.from(this, result));
+				result = alternation.findMatchResult(string, result.end());
+			}
+			return matches;
+		}
+		if (string != null && decideMatchWithin(string) == LazyDfa.NO_MATCH) {
+			return new ArrayList<>(0);
+		}
+		Matcher matcher = getMatcher(string, budget);
+		List<Match> matches = new ArrayList<>();
+		while (matcher.find()) {
+			matches.add(Match.from(this, OffsetMatchResult.viewOf(string, 0, matcher)));
+		}
 		return matches;
 	}
 
-	public synchronized Optional<Match> getFirstMatchFrom(String string) {
-		Matcher matcher = getMatcher(string);
+	public Optional<Match> getFirstMatchFrom(CharSequence string) {
+		return getFirstMatchFrom(string, null);
+	}
+
+	// String versions of the matching methods, which compiled code written
+	// before CharSequence was accepted still refers to
+	public boolean matchesEntireString(String string) {
+		return matchesEntireString((CharSequence) string);
+	}
+
+	public boolean matchesBeginningOf(String string) {
+		return matchesBeginningOf((CharSequence) string);
+	}
+
+	public boolean matchesEndOf(String string) {
+		return matchesEndOf((CharSequence) string);
+	}
+
+	public boolean matchesWithinString(String string) {
+		return matchesWithinString((CharSequence) string);
+	}
+
+	public Stream<MatchResult> getMatchResultsStream(String string) {
+		return getMatchResultsStream((CharSequence) string);
+	}
+
+	public Matcher getMatcher(String string) {
+		return getMatcher((CharSequence) string);
+	}
+
+	public MatchResult getMatchResult(String string) {
+		return getMatchResult((CharSequence) string);
+	}
+
+	public HashMap<String, String> getAllNamedCapturesOfFirstMatchWithinString(String string) {
+		return getAllNamedCapturesOfFirstMatchWithinString((CharSequence) string);
+	}
+
+	public List<Match> getAllMatches(String string) {
+		return getAllMatches((CharSequence) string);
+	}
+
+	public Optional<Match> getFirstMatchFrom(String string) {
+		return getFirstMatchFrom((CharSequence) string);
+	}
+
+	/**
+	 * Finds the first match of this regex within the string, abandoning the
+	 * search if it exceeds the budget.
+	 *
+	 * @param string the string to search
+	 * @param budget the limits on the regex engine, or null for no limits
+	 * @return the first match found in the string, if there is one
+	 * @throws MatchBudgetExceededException if the budget is exceeded
+	 */
+	public Optional<Match> getFirstMatchFrom(CharSequence string, MatchBudget budget) {
+		final LiteralAlternation alternation = getLiteralAlternation();
+		if (alternation != null) {
+			final MatchResult result = alternation.findMatchResult(string, 0);
+			return result == null ? Optional.empty() : Optional.of(Match.from(this, result));
+		}
+		if (string != null && decideMatchWithin(string) == LazyDfa.NO_MATCH) {
+			return Optional.empty();
+		}
+		Matcher matcher = getMatcher(string, budget);
 		if (matcher.find()) {
-			MatchResult result = matcher.toMatchResult();
-			return Optional.of(Match.from(this, result));
+			return Optional.of(Match.from(this, OffsetMatchResult.viewOf(string, 0, matcher)));
 		}
 		return Optional.empty();
 	}
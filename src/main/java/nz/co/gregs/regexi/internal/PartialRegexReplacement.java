@@ -18,49 +18,53 @@ import nz.co.gregs.regexi.RegexReplacer;
  * @author gregorygraham
  */
 public class PartialRegexReplacement implements Serializable {
-  
-  String pattern = "";
-  Regex regex;
+
+	private final ReplacementTemplate.Builder template = new ReplacementTemplate.Builder();
+	Regex regex;
 
 	public PartialRegexReplacement(Regex regex) {
 		this.regex = regex;
 	}
 
-	private String escape(String unescaped) {
-		String escaped;
-		if (unescaped == null) {
-			escaped = "";
-		} else {
-			escaped = unescaped
-					.replaceAll("\\$", "\\$")
-					.replaceAll("\\\\", "\\\\\\\\");
-		}
-		return escaped;
-	}
-
 	public PartialRegexReplacement numberedReference(int literal) {
-		pattern += "$" + literal;
+		template.group(literal);
 		return this;
 	}
 
+	/**
+	 * Adds the value of the named capture to the replacement.
+	 *
+	 * @param name the name of a capture within the regex
+	 * @return this replacement
+	 * @throws IllegalArgumentException if the regex has no capture with that name
+	 */
 	public PartialRegexReplacement namedReference(String name) {
-		pattern += "${" + name + "}";
+		final Integer number = regex.getNamedGroupNumbers().get(name);
+		if (number == null) {
+			throw new IllegalArgumentException("No group with name {" + name + "}");
+		}
+		template.namedGroup(name, number);
 		return this;
 	}
 
 	public PartialRegexReplacement literal(String literal) {
-		pattern += escape(literal);
+		template.literal(literal == null ? "" : literal);
 		return this;
 	}
 
 	public String getReplacementPattern() {
-		return pattern;
+		return template.getReplacement();
 	}
 
-	public Matcher getMatcher(String s) {
+	public Matcher getMatcher(CharSequence s) {
 		return regex.getMatcher(s);
 	}
 
+	// kept so that code compiled against earlier releases links
+	public Matcher getMatcher(String s) {
+		return getMatcher((CharSequence) s);
+	}
+
 	public RegexReplacer nothing() {
 		return new RegexReplacer(regex, "");
 	}
@@ -68,8 +72,8 @@ public class PartialRegexReplacement implements Serializable {
 	public PartialRegexReplacement backslash() {
 		return this.literal("\\");
 	}
-  
-  public RegexReplacer getReplacer(){
-    return new RegexReplacer(regex, pattern);
-  }
+
+	public RegexReplacer getReplacer() {
+		return new RegexReplacer(regex, template.build());
+	}
 }
@@ -6,34 +6,120 @@
 package nz.co.gregs.regexi.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * A flat sequence of PartialRegexes.
+ *
+ * <p>
+ * Adding to a RegexCombination does not nest the combinations, instead the
+ * parts of both sides are gathered into a single array so that rendering and
+ * {@link #getRegexParts() } are linear in the number of parts and do not
+ * recurse.</p>
+ *
+ * <p>
+ * Because fluent chains nearly always extend the most recent combination, the
+ * array is shared: a combination only ever reads the first {@code size}
+ * elements, and the first combination to extend an array claims the following
+ * slots. Any other combination extending the same array copies it instead. This
+ * makes building an N step regex O(N) rather than O(N^2) while leaving every
+ * combination immutable.</p>
  *
  * @author gregorygraham
  */
 class RegexCombination extends PartialRegex {
 
-	private final PartialRegex first;
-	private final PartialRegex second;
+	private static final int MINIMUM_CAPACITY = 8;
+
+	private final PartialRegex[] parts;
+	private final int size;
+	// the number of slots in parts claimed by any combination sharing the array
+	private final AtomicInteger claimed;
+	// all parts are immutable so the rendered string only needs to be built once
+	private volatile String regexString;
 
 	protected RegexCombination(PartialRegex first, PartialRegex second) {
-		this.first = first;
-		this.second = second;
+		final PartialRegex[] added = partsOf(second);
+		final int addedSize = sizeOf(second);
+		if (first instanceof RegexCombination) {
+			final RegexCombination previous = (RegexCombination) first;
+			final int newSize = previous.size + addedSize;
+			if (newSize <= previous.parts.length && previous.claimed.compareAndSet(previous.size, newSize)) {
+				// we own the slots after previous.size now so extend the shared array
+				this.parts = previous.parts;
+				this.claimed = previous.claimed;
+			} else {
+				this.parts = Arrays.copyOf(previous.parts, Math.max(MINIMUM_CAPACITY, newSize * 2));
+				this.claimed = new AtomicInteger(newSize);
+			}
+			System.arraycopy(added, 0, this.parts, previous.size, addedSize);
+			this.size = newSize;
+		} else {
+			this.size = 1 + addedSize;
+			this.parts = new PartialRegex[Math.max(MINIMUM_CAPACITY, size * 2)];
+			this.parts[0] = first;
+			System.arraycopy(added, 0, this.parts, 1, addedSize);
+			this.claimed = new AtomicInteger(size);
+		}
 		inheritStoredState(first);
 		inheritStoredState(second);
 	}
 
+	private static PartialRegex[] partsOf(PartialRegex regex) {
+		if (regex instanceof RegexCombination) {
+			return ((RegexCombination) regex).parts;
+		} else {
+			return new PartialRegex[]{regex};
+		}
+	}
+
+	private static int sizeOf(PartialRegex regex) {
+		if (regex instanceof RegexCombination) {
+			return ((RegexCombination) regex).size;
+		} else {
+			return 1;
+		}
+	}
+
 	@Override
 	public String toRegexString() {
-		return first.toRegexString() + second.toRegexString();
+		String result = regexString;
+		if (result == null) {
+			final StringBuilder builder = new StringBuilder();
+			appendRegexString(builder);
+			result = builder.toString();
+			regexString = result;
+		}
+		return result;
+	}
+
+	@Override
+	protected void appendRegexString(StringBuilder builder) {
+		final String cached = regexString;
+		if (cached != null) {
+			builder.append(cached);
+		} else {
+			for (int i = 0; i < size; i++) {
+				parts[i].appendRegexString(builder);
+			}
+		}
+	}
+
+	@Override
+	void addSequenceTo(List<PartialRegex> sequence) {
+		for (int i = 0; i < size; i++) {
+			parts[i].addSequenceTo(sequence);
+		}
 	}
 
 	@Override
 	public List<PartialRegex> getRegexParts() {
-		List<PartialRegex> result = new ArrayList<PartialRegex>(1);
-		result.addAll(first.getRegexParts());
-		result.addAll(second.getRegexParts());
+		List<PartialRegex> result = new ArrayList<PartialRegex>(size);
+		for (int i = 0; i < size; i++) {
+			result.addAll(parts[i].getRegexParts());
+		}
 		return result;
 	}
 }
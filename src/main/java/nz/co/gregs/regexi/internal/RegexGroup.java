@@ -30,7 +30,7 @@
  */
 package nz.co.gregs.regexi.internal;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import nz.co.gregs.regexi.Regex;
 
@@ -62,7 +62,7 @@ public abstract class RegexGroup<THIS extends RegexGroup<THIS, REGEX>, REGEX ext
 
 	@Override
 	public List<String> getNamedGroups(){
-		return new ArrayList<>(0);
+		return Collections.emptyList();
 	}
 
 	/**
@@ -80,7 +80,21 @@ public abstract class RegexGroup<THIS extends RegexGroup<THIS, REGEX>, REGEX ext
 	}
 
 	protected REGEX endGroup() {
-		return getOrigin().unescaped(this.toRegexString());
+		return getOrigin().add(enclose());
+	}
+
+	/**
+	 * Creates the PartialRegex that represents this group once it is ended.
+	 *
+	 * <p>
+	 * By default the group is reduced to an {@link UnescapedSequence} of its
+	 * regex string. Groups that need to remember what they contain return a
+	 * more specific PartialRegex.</p>
+	 *
+	 * @return the PartialRegex to add to the origin when this group ends
+	 */
+	protected PartialRegex enclose() {
+		return new UnescapedSequence(this.toRegexString());
 	}
 
 	@Override
@@ -0,0 +1,830 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import nz.co.gregs.regexi.internal.SyntaxNode.*;
+
+/**
+ * The syntax tree of a regular expression string.
+ *
+ * <p>
+ * Regexi renders groups to strings as they are ended, so the PartialRegex tree
+ * does not describe the structure inside them. RegexSyntax parses the rendered
+ * string, following the java.util.regex grammar, so that the structure can be
+ * analysed.</p>
+ *
+ * <p>
+ * Constructs that the parser doesn't understand, or flags that change the
+ * grammar like COMMENTS and LITERAL, cause {@link #parse(java.lang.String, int)
+ * } to return null. Every use of the syntax tree is an optimisation so the
+ * caller simply falls back to the regex engine.</p>
+ *
+ * @author gregorygraham
+ */
+class RegexSyntax {
+
+	private static final int UNSUPPORTED_FLAGS = Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ;
+
+	private final SyntaxNode root;
+	private final int flags;
+	private final int groupCount;
+	private final Map<String, Integer> namedGroups;
+
+	private RegexSyntax(SyntaxNode root, int flags, int groupCount, Map<String, Integer> namedGroups) {
+		this.root = root;
+		this.flags = flags;
+		this.groupCount = groupCount;
+		this.namedGroups = Collections.unmodifiableMap(namedGroups);
+	}
+
+	/**
+	 * Parses the regular expression.
+	 *
+	 * @param regex the regular expression string
+	 * @param flags the flags the regex is compiled with
+	 * @return the syntax tree or null if the regex can't be analysed
+	 */
+	static RegexSyntax parse(String regex, int flags) {
+		if ((flags & UNSUPPORTED_FLAGS) != 0) {
+			return null;
+		}
+		try {
+			final Parser parser = new Parser(regex, flags);
+			final SyntaxNode root = parser.parseAll();
+			return new RegexSyntax(root, flags, parser.groupCount, parser.namedGroups);
+		} catch (UnsupportedSyntax | PatternSyntaxException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the group number of every named capture without parsing the rest of
+	 * the regex.
+	 *
+	 * <p>
+	 * This works for the regexes that {@link #parse(java.lang.String, int) }
+	 * can't analyse, only tracking escapes, quotes, character classes and, with
+	 * {@link Pattern#COMMENTS}, comments.</p>
+	 *
+	 * @param regex the regular expression string
+	 * @param flags the flags the regex is compiled with
+	 * @return an unmodifiable map from name to group number, in the order the
+	 * names appear in the regex
+	 */
+	static Map<String, Integer> numberNamedGroups(String regex, int flags) {
+		final Map<String, Integer> numbers = new LinkedHashMap<>();
+		if ((flags & Pattern.LITERAL) != 0) {
+			return Collections.unmodifiableMap(numbers);
+		}
+		final boolean comments = (flags & Pattern.COMMENTS) != 0;
+		final int length = regex.length();
+		int groupCount = 0;
+		int classDepth = 0;
+		int i = 0;
+		while (i < length) {
+			final char c = regex.charAt(i);
+			if (c == '\\') {
+				if (i + 1 < length && regex.charAt(i + 1) == 'Q') {
+					final int end = regex.indexOf("\\E", i + 2);
+					i = end < 0 ? length : end + 2;
+				} else {
+					i += 2;
+				}
+			} else if (comments && c == '#') {
+				while (i < length && regex.charAt(i) != '\n' && regex.charAt(i) != '\r') {
+					i++;
+				}
+			} else if (c == '[') {
+				classDepth++;
+				i++;
+				if (i < length && regex.charAt(i) == '^') {
+					i++;
+				}
+				if (i < length && regex.charAt(i) == ']') {
+					// a leading ] is literal
+					i++;
+				}
+			} else if (classDepth > 0) {
+				if (c == ']') {
+					classDepth--;
+				}
+				i++;
+			} else if (c == '(') {
+				i++;
+				if (!regex.startsWith("?", i)) {
+					groupCount++;
+				} else if (regex.startsWith("?<", i) && !regex.startsWith("?<=", i) && !regex.startsWith("?<!", i)) {
+					final int end = regex.indexOf('>', i);
+					groupCount++;
+					if (end > 0) {
+						numbers.put(regex.substring(i + 2, end), groupCount);
+						i = end + 1;
+					}
+				}
+			} else {
+				i++;
+			}
+		}
+		return Collections.unmodifiableMap(numbers);
+	}
+
+	SyntaxNode getRoot() {
+		return root;
+	}
+
+	int getFlags() {
+		return flags;
+	}
+
+	int getGroupCount() {
+		return groupCount;
+	}
+
+	/**
+	 * The group number of every named capture.
+	 *
+	 * @return an unmodifiable map from name to group number, in the order the
+	 * names appear in the regex
+	 */
+	Map<String, Integer> getNamedGroups() {
+		return namedGroups;
+	}
+
+	/**
+	 * Finds the literal strings that must appear in every match of the regex.
+	 *
+	 * <p>
+	 * Only case sensitive literals are considered and the longest, and therefore
+	 * most selective, literals are listed first. Literals contained within
+	 * another required literal are omitted.</p>
+	 *
+	 * @return the required literals, possibly none
+	 */
+	List<String> getRequiredLiterals() {
+		final Summary summary = summarise(root);
+		final List<String> found = new ArrayList<>(summary.required);
+		if (summary.whole != null) {
+			found.add(summary.whole);
+		} else {
+			found.add(summary.prefix);
+			found.add(summary.suffix);
+		}
+		found.sort((a, b) -> Integer.compare(b.length(), a.length()));
+		final List<String> result = new ArrayList<>(found.size());
+		for (String literal : found) {
+			if (!literal.isEmpty() && result.stream().noneMatch(longer -> longer.contains(literal))) {
+				result.add(literal);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * What is known about the literal text of a node's matches.
+	 */
+	private static class Summary {
+
+		private static final int MAXIMUM_LENGTH = 1000;
+		private static final Summary UNKNOWN = new Summary(null, "", "", Collections.emptyList());
+		private static final Summary EMPTY = new Summary("", "", "", Collections.emptyList());
+
+		// the only text the node can match, or null
+		final String whole;
+		// text that every match starts with
+		final String prefix;
+		// text that every match ends with
+		final String suffix;
+		// text that appears within every match
+		final List<String> required;
+
+		Summary(String whole, String prefix, String suffix, List<String> required) {
+			this.whole = whole;
+			this.prefix = prefix;
+			this.suffix = suffix;
+			this.required = required;
+		}
+
+		static Summary of(String whole) {
+			return new Summary(whole, whole, whole, Collections.emptyList());
+		}
+	}
+
+	private static Summary summarise(SyntaxNode node) {
+		if (node instanceof Literal) {
+			return Summary.of(String.valueOf(((Literal) node).character));
+		} else if (node instanceof Sequence) {
+			return summariseSequence(((Sequence) node).elements);
+		} else if (node instanceof Alternation) {
+			return summariseAlternation(((Alternation) node).options);
+		} else if (node instanceof Grouping) {
+			return summarise(((Grouping) node).contents);
+		} else if (node instanceof AtomicGroup) {
+			return summarise(((AtomicGroup) node).contents);
+		} else if (node instanceof Repeat) {
+			return summariseRepeat((Repeat) node);
+		} else if (node.isZeroWidth()) {
+			return Summary.EMPTY;
+		} else {
+			return Summary.UNKNOWN;
+		}
+	}
+
+	private static Summary summariseSequence(List<SyntaxNode> elements) {
+		final List<String> required = new ArrayList<>(0);
+		StringBuilder run = new StringBuilder();
+		String prefix = null;
+		for (SyntaxNode element : elements) {
+			final Summary summary = summarise(element);
+			if (summary.whole != null) {
+				run.append(summary.whole);
+			} else {
+				run.append(summary.prefix);
+				if (prefix == null) {
+					prefix = run.toString();
+				} else {
+					required.add(run.toString());
+				}
+				required.addAll(summary.required);
+				run = new StringBuilder(summary.suffix);
+			}
+		}
+		if (prefix == null) {
+			return Summary.of(run.toString());
+		}
+		return new Summary(null, prefix, run.toString(), required);
+	}
+
+	private static Summary summariseAlternation(List<SyntaxNode> options) {
+		String whole = null;
+		String prefix = null;
+		String suffix = null;
+		boolean sameWhole = true;
+		for (SyntaxNode option : options) {
+			final Summary summary = summarise(option);
+			if (prefix == null) {
+				whole = summary.whole;
+				prefix = summary.prefix;
+				suffix = summary.suffix;
+			} else {
+				sameWhole = sameWhole && whole != null && whole.equals(summary.whole);
+				prefix = commonPrefix(prefix, summary.prefix);
+				suffix = commonSuffix(suffix, summary.suffix);
+			}
+		}
+		if (sameWhole && whole != null) {
+			return Summary.of(whole);
+		}
+		return new Summary(null, prefix, suffix, Collections.emptyList());
+	}
+
+	private static Summary summariseRepeat(Repeat repeat) {
+		if (repeat.minimum == 0) {
+			return repeat.maximum == 0 ? Summary.EMPTY : Summary.UNKNOWN;
+		}
+		final Summary summary = summarise(repeat.contents);
+		if (summary.whole != null) {
+			if (repeat.minimum == repeat.maximum && summary.whole.length() * repeat.minimum <= Summary.MAXIMUM_LENGTH) {
+				final StringBuilder whole = new StringBuilder();
+				for (int i = 0; i < repeat.minimum; i++) {
+					whole.append(summary.whole);
+				}
+				return Summary.of(whole.toString());
+			}
+			return new Summary(null, summary.whole, summary.whole, Collections.emptyList());
+		}
+		return new Summary(null, summary.prefix, summary.suffix, summary.required);
+	}
+
+	private static String commonPrefix(String first, String second) {
+		int length = 0;
+		while (length < first.length() && length < second.length() && first.charAt(length) == second.charAt(length)) {
+			length++;
+		}
+		return first.substring(0, length);
+	}
+
+	private static String commonSuffix(String first, String second) {
+		int length = 0;
+		while (length < first.length() && length < second.length()
+				&& first.charAt(first.length() - 1 - length) == second.charAt(second.length() - 1 - length)) {
+			length++;
+		}
+		return first.substring(first.length() - length);
+	}
+
+	private static class UnsupportedSyntax extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedSyntax(String message) {
+			super(message, null, false, false);
+		}
+	}
+
+	private static class Parser {
+
+		private final String regex;
+		private int position = 0;
+		private int flags;
+		private int groupCount = 0;
+		private final Map<String, Integer> namedGroups = new LinkedHashMap<>();
+
+		Parser(String regex, int flags) {
+			this.regex = regex;
+			this.flags = flags;
+		}
+
+		SyntaxNode parseAll() {
+			final SyntaxNode result = parseAlternation();
+			if (position < regex.length()) {
+				throw unsupported("Unmatched ')'");
+			}
+			return result;
+		}
+
+		private UnsupportedSyntax unsupported(String reason) {
+			return new UnsupportedSyntax(reason + " at " + position + " in " + regex);
+		}
+
+		private boolean atEnd() {
+			return position >= regex.length();
+		}
+
+		private char peek() {
+			return regex.charAt(position);
+		}
+
+		private boolean lookingAt(String text) {
+			return regex.startsWith(text, position);
+		}
+
+		private SyntaxNode parseAlternation() {
+			final List<SyntaxNode> options = new ArrayList<>(1);
+			options.add(parseSequence());
+			while (!atEnd() && peek() == '|') {
+				position++;
+				options.add(parseSequence());
+			}
+			return options.size() == 1 ? options.get(0) : new Alternation(options);
+		}
+
+		private SyntaxNode parseSequence() {
+			final List<SyntaxNode> elements = new ArrayList<>();
+			while (!atEnd() && peek() != '|' && peek() != ')') {
+				SyntaxNode atom = parseAtom();
+				if (atom == null) {
+					// flag changes like (?i) don't add a node
+					continue;
+				}
+				atom = parseQuantifiers(atom);
+				elements.add(atom);
+			}
+			return elements.size() == 1 ? elements.get(0) : new Sequence(elements);
+		}
+
+		private SyntaxNode parseQuantifiers(SyntaxNode atom) {
+			boolean quantified = false;
+			while (!atEnd()) {
+				final char c = peek();
+				int minimum;
+				int maximum;
+				if (c == '*') {
+					position++;
+					minimum = 0;
+					maximum = Repeat.UNBOUNDED;
+				} else if (c == '+') {
+					position++;
+					minimum = 1;
+					maximum = Repeat.UNBOUNDED;
+				} else if (c == '?') {
+					position++;
+					minimum = 0;
+					maximum = 1;
+				} else if (c == '{') {
+					position++;
+					minimum = parseNumber();
+					maximum = minimum;
+					if (!atEnd() && peek() == ',') {
+						position++;
+						maximum = (!atEnd() && Character.isDigit(peek())) ? parseNumber() : Repeat.UNBOUNDED;
+					}
+					if (atEnd() || peek() != '}') {
+						throw unsupported("Unclosed quantifier");
+					}
+					position++;
+					if (maximum != Repeat.UNBOUNDED && maximum < minimum) {
+						throw unsupported("Illegal repetition range");
+					}
+				} else {
+					return atom;
+				}
+				if (quantified) {
+					// java.util.regex does not simply nest stacked quantifiers like X{1,2}{2}
+					throw unsupported("Stacked quantifiers");
+				}
+				quantified = true;
+				Mode mode = Mode.GREEDY;
+				if (!atEnd() && peek() == '?') {
+					position++;
+					mode = Mode.RELUCTANT;
+				} else if (!atEnd() && peek() == '+') {
+					position++;
+					mode = Mode.POSSESSIVE;
+				}
+				atom = new Repeat(atom, minimum, maximum, mode);
+			}
+			return atom;
+		}
+
+		private int parseNumber() {
+			final int start = position;
+			while (!atEnd() && Character.isDigit(peek())) {
+				position++;
+			}
+			if (start == position || position - start > 9) {
+				throw unsupported("Expected a number");
+			}
+			return Integer.parseInt(regex.substring(start, position));
+		}
+
+		private SyntaxNode parseAtom() {
+			final char c = peek();
+			switch (c) {
+				case '(':
+					return parseGroup();
+				case '[':
+					return parseCharacterClass();
+				case '.':
+					position++;
+					return new CharacterClass(".", flags);
+				case '^':
+					position++;
+					return new Assertion(Boundary.BEGINNING_OF_LINE, flags);
+				case '$':
+					position++;
+					return new Assertion(Boundary.END_OF_LINE, flags);
+				case '\\':
+					return parseEscape();
+				case '*':
+				case '+':
+				case '?':
+				case '{':
+					throw unsupported("Dangling meta character");
+				default:
+					position++;
+					return literal(c);
+			}
+		}
+
+		private SyntaxNode literal(char c) {
+			if (Character.isSurrogate(c)) {
+				throw unsupported("Supplementary characters");
+			}
+			if ((flags & Pattern.CASE_INSENSITIVE) != 0 && hasCase(c)) {
+				return new CharacterClass(Pattern.quote(String.valueOf(c)), flags);
+			}
+			return new Literal(c);
+		}
+
+		/**
+		 * Tests whether a case insensitive regex could match the character as
+		 * some other character.
+		 *
+		 * <p>
+		 * Cased characters aren't all letters, for instance Ⅰ and ⓐ, so this
+		 * checks the case mappings rather than the character's type.</p>
+		 */
+		private static boolean hasCase(char c) {
+			return Character.toUpperCase(c) != c
+					|| Character.toLowerCase(c) != c
+					|| Character.toTitleCase(c) != c;
+		}
+
+		private SyntaxNode parseGroup() {
+			position++;
+			final int savedFlags = flags;
+			SyntaxNode result;
+			if (lookingAt("?:")) {
+				position += 2;
+				result = new Grouping(parseAlternation(), 0, null);
+			} else if (lookingAt("?=")) {
+				position += 2;
+				result = new Lookaround(parseAlternation(), false, false);
+			} else if (lookingAt("?!")) {
+				position += 2;
+				result = new Lookaround(parseAlternation(), false, true);
+			} else if (lookingAt("?<=")) {
+				position += 3;
+				result = new Lookaround(parseAlternation(), true, false);
+			} else if (lookingAt("?<!")) {
+				position += 3;
+				result = new Lookaround(parseAlternation(), true, true);
+			} else if (lookingAt("?>")) {
+				position += 2;
+				result = new AtomicGroup(parseAlternation());
+			} else if (lookingAt("?<")) {
+				position += 2;
+				final int end = regex.indexOf('>', position);
+				if (end < 0) {
+					throw unsupported("Unclosed group name");
+				}
+				final String name = regex.substring(position, end);
+				position = end + 1;
+				final int number = ++groupCount;
+				if (namedGroups.containsKey(name)) {
+					throw unsupported("Duplicate group name");
+				}
+				namedGroups.put(name, number);
+				result = new Grouping(parseAlternation(), number, name);
+			} else if (lookingAt("?")) {
+				position++;
+				final boolean scoped = parseFlags();
+				if (!scoped) {
+					// (?i) changes the flags until the end of the enclosing group
+					return null;
+				}
+				result = new Grouping(parseAlternation(), 0, null);
+			} else {
+				final int number = ++groupCount;
+				result = new Grouping(parseAlternation(), number, null);
+			}
+			// flags changed within the group, by (?i) for instance, end with the group
+			flags = savedFlags;
+			if (atEnd() || peek() != ')') {
+				throw unsupported("Unclosed group");
+			}
+			position++;
+			return result;
+		}
+
+		/**
+		 * Parses the flags of (?idmsuxU-idmsuxU) or (?idmsuxU-idmsuxU:X).
+		 *
+		 * @return true if the flags only apply to the following group
+		 */
+		private boolean parseFlags() {
+			boolean adding = true;
+			while (!atEnd()) {
+				final char c = peek();
+				position++;
+				if (c == '-') {
+					adding = false;
+				} else if (c == ')') {
+					return false;
+				} else if (c == ':') {
+					return true;
+				} else {
+					final int flag = flagFor(c);
+					flags = adding ? flags | flag : flags & ~flag;
+					if ((flags & UNSUPPORTED_FLAGS) != 0) {
+						throw unsupported("Unsupported flag " + c);
+					}
+				}
+			}
+			throw unsupported("Unclosed flags");
+		}
+
+		private int flagFor(char c) {
+			switch (c) {
+				case 'i':
+					return Pattern.CASE_INSENSITIVE;
+				case 'd':
+					return Pattern.UNIX_LINES;
+				case 'm':
+					return Pattern.MULTILINE;
+				case 's':
+					return Pattern.DOTALL;
+				case 'u':
+					return Pattern.UNICODE_CASE;
+				case 'x':
+					return Pattern.COMMENTS;
+				case 'U':
+					return Pattern.UNICODE_CHARACTER_CLASS;
+				default:
+					throw unsupported("Unknown flag " + c);
+			}
+		}
+
+		private SyntaxNode parseCharacterClass() {
+			final int start = position;
+			int depth = 0;
+			while (!atEnd()) {
+				final char c = peek();
+				if (c == '\\') {
+					if (lookingAt("\\Q")) {
+						final int end = regex.indexOf("\\E", position);
+						position = end < 0 ? regex.length() : end + 2;
+					} else {
+						position += 2;
+					}
+					continue;
+				}
+				position++;
+				if (c == '[') {
+					depth++;
+				} else if (c == ']') {
+					depth--;
+					if (depth == 0) {
+						final String source = regex.substring(start, position);
+						// make sure the regex engine agrees about where the class ends
+						Pattern.compile(source, flags);
+						return new CharacterClass(source, flags);
+					}
+				}
+			}
+			throw unsupported("Unclosed character class");
+		}
+
+		private SyntaxNode parseEscape() {
+			final int start = position;
+			position++;
+			if (atEnd()) {
+				throw unsupported("Trailing backslash");
+			}
+			final char c = peek();
+			position++;
+			switch (c) {
+				case 'd':
+				case 'D':
+				case 'w':
+				case 'W':
+				case 's':
+				case 'S':
+				case 'h':
+				case 'H':
+				case 'v':
+				case 'V':
+					return new CharacterClass(regex.substring(start, position), flags);
+				case 'p':
+				case 'P':
+					if (!atEnd() && peek() == '{') {
+						final int end = regex.indexOf('}', position);
+						if (end < 0) {
+							throw unsupported("Unclosed character family");
+						}
+						position = end + 1;
+					} else {
+						position++;
+					}
+					final String family = regex.substring(start, position);
+					Pattern.compile(family, flags);
+					return new CharacterClass(family, flags);
+				case 'b':
+					if (!atEnd() && peek() == '{') {
+						throw unsupported("Grapheme boundaries");
+					}
+					return new Assertion(Boundary.WORD_BOUNDARY, flags);
+				case 'B':
+					return new Assertion(Boundary.NON_WORD_BOUNDARY, flags);
+				case 'A':
+					return new Assertion(Boundary.BEGINNING_OF_INPUT, flags);
+				case 'G':
+					return new Assertion(Boundary.END_OF_PREVIOUS_MATCH, flags);
+				case 'Z':
+					return new Assertion(Boundary.END_OF_INPUT_BUT_FOR_TERMINATOR, flags);
+				case 'z':
+					return new Assertion(Boundary.END_OF_INPUT, flags);
+				case 't':
+					return literal('\t');
+				case 'n':
+					return literal('\n');
+				case 'r':
+					return literal('\r');
+				case 'f':
+					return literal('\f');
+				case 'a':
+					return literal('\u0007');
+				case 'e':
+					return literal('\u001B');
+				case '0':
+					return literal((char) parseOctal());
+				case 'x':
+					return literal(parseHex());
+				case 'u':
+					return literal((char) parseHexDigits(4));
+				case 'c':
+					if (atEnd()) {
+						throw unsupported("Illegal control escape");
+					}
+					return literal((char) (regex.charAt(position++) ^ 64));
+				case 'k':
+					if (atEnd() || peek() != '<') {
+						throw unsupported("Illegal named reference");
+					}
+					final int end = regex.indexOf('>', position);
+					if (end < 0) {
+						throw unsupported("Unclosed named reference");
+					}
+					final String name = regex.substring(position + 1, end);
+					position = end + 1;
+					return new BackReference(0, name);
+				case 'Q':
+					return parseQuotation();
+				default:
+					if (c >= '1' && c <= '9') {
+						int number = c - '0';
+						while (!atEnd() && Character.isDigit(peek()) && number * 10 + (peek() - '0') <= groupCount) {
+							number = number * 10 + (peek() - '0');
+							position++;
+						}
+						return new BackReference(number, null);
+					}
+					if (Character.isLetterOrDigit(c)) {
+						throw unsupported("Unsupported escape \\" + c);
+					}
+					return literal(c);
+			}
+		}
+
+		private int parseOctal() {
+			int value = 0;
+			int digits = 0;
+			while (!atEnd() && digits < 3 && peek() >= '0' && peek() <= '7' && value * 8 + (peek() - '0') <= 0377) {
+				value = value * 8 + (peek() - '0');
+				position++;
+				digits++;
+			}
+			if (digits == 0) {
+				throw unsupported("Illegal octal escape");
+			}
+			return value;
+		}
+
+		private char parseHex() {
+			if (!atEnd() && peek() == '{') {
+				final int end = regex.indexOf('}', position);
+				if (end < 0) {
+					throw unsupported("Unclosed hexadecimal escape");
+				}
+				final int value = Integer.parseInt(regex.substring(position + 1, end), 16);
+				position = end + 1;
+				if (value > Character.MAX_VALUE) {
+					throw unsupported("Supplementary characters");
+				}
+				return (char) value;
+			}
+			return (char) parseHexDigits(2);
+		}
+
+		private int parseHexDigits(int count) {
+			if (position + count > regex.length()) {
+				throw unsupported("Illegal hexadecimal escape");
+			}
+			try {
+				final int value = Integer.parseInt(regex.substring(position, position + count), 16);
+				position += count;
+				return value;
+			} catch (NumberFormatException ex) {
+				throw unsupported("Illegal hexadecimal escape");
+			}
+		}
+
+		private SyntaxNode parseQuotation() {
+			int end = regex.indexOf("\\E", position);
+			if (end < 0) {
+				end = regex.length();
+			}
+			final List<SyntaxNode> literals = new ArrayList<>();
+			for (int i = position; i < end; i++) {
+				literals.add(literal(regex.charAt(i)));
+			}
+			position = Math.min(end + 2, regex.length());
+			return literals.size() == 1 ? literals.get(0) : new Sequence(literals);
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+
+/**
+ * A replacement string, as used by {@link Matcher#appendReplacement(java.lang.StringBuilder, java.lang.String)
+ * }, compiled once into literal segments and group numbers so it can be
+ * applied to many matches without being parsed again.
+ *
+ * <p>
+ * The syntax is the same as the regex engine's: {@code $n} and
+ * {@code ${name}} refer to groups and a backslash escapes the next
+ * character. Group names are resolved to numbers when the template is
+ * created.</p>
+ *
+ * <p>
+ * Templates are immutable and may be shared between threads.</p>
+ *
+ * @author gregorygraham
+ */
+public final class ReplacementTemplate implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String replacement;
+	// literals[i] precedes the reference to groups[i], the last literal follows all the references
+	private final String[] literals;
+	private final int[] groups;
+
+	private ReplacementTemplate(String replacement, List<String> literals, List<Integer> groups) {
+		this.replacement = replacement;
+		this.literals = literals.toArray(new String[0]);
+		this.groups = groups.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Parses the replacement string.
+	 *
+	 * @param replacement the replacement string
+	 * @param groupCount the number of groups in the regex, used to decide where a
+	 * group number ends just as the regex engine does
+	 * @param namedGroups the group number of every named capture in the regex
+	 * @return the parsed template
+	 * @throws IllegalArgumentException if the replacement string is malformed or
+	 * refers to an unknown name
+	 * @throws IndexOutOfBoundsException if the replacement refers to a group
+	 * number that doesn't exist
+	 */
+	public static ReplacementTemplate parse(String replacement, int groupCount, Map<String, Integer> namedGroups) {
+		final Builder builder = new Builder();
+		final StringBuilder literal = new StringBuilder();
+		int cursor = 0;
+		while (cursor < replacement.length()) {
+			char next = replacement.charAt(cursor);
+			if (next == '\\') {
+				cursor++;
+				if (cursor == replacement.length()) {
+					throw new IllegalArgumentException("character to be escaped is missing");
+				}
+				literal.append(replacement.charAt(cursor));
+				cursor++;
+			} else if (next == '$') {
+				cursor++;
+				if (cursor == replacement.length()) {
+					throw new IllegalArgumentException("Illegal group reference: group index is missing");
+				}
+				builder.literal(literal.toString());
+				literal.setLength(0);
+				next = replacement.charAt(cursor);
+				if (next == '{') {
+					cursor++;
+					final int nameStart = cursor;
+					while (cursor < replacement.length() && isAsciiLetterOrDigit(replacement.charAt(cursor))) {
+						cursor++;
+					}
+					if (cursor == nameStart) {
+						throw new IllegalArgumentException("named capturing group has 0 length name");
+					}
+					if (cursor == replacement.length() || replacement.charAt(cursor) != '}') {
+						throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+					}
+					final String name = replacement.substring(nameStart, cursor);
+					if (Character.isDigit(name.charAt(0))) {
+						throw new IllegalArgumentException("capturing group name {" + name + "} starts with digit character");
+					}
+					cursor++;
+					final Integer group = namedGroups.get(name);
+					if (group == null) {
+						throw new IllegalArgumentException("No group with name {" + name + "}");
+					}
+					builder.namedGroup(name, group);
+				} else {
+					int group = next - '0';
+					if (group < 0 || group > 9) {
+						throw new IllegalArgumentException("Illegal group reference");
+					}
+					cursor++;
+					// take the longest group number that exists
+					while (cursor < replacement.length()) {
+						final int digit = replacement.charAt(cursor) - '0';
+						if (digit < 0 || digit > 9 || group * 10 + digit > groupCount) {
+							break;
+						}
+						group = group * 10 + digit;
+						cursor++;
+					}
+					if (group > groupCount) {
+						throw new IndexOutOfBoundsException("No group " + group);
+					}
+					builder.group(group);
+				}
+			} else {
+				literal.append(next);
+				cursor++;
+			}
+		}
+		builder.literal(literal.toString());
+		return builder.build();
+	}
+
+	private static boolean isAsciiLetterOrDigit(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * The replacement string equivalent to this template.
+	 *
+	 * @return a replacement string suitable for
+	 * {@link Matcher#replaceAll(java.lang.String) }
+	 */
+	public String getReplacement() {
+		return replacement;
+	}
+
+	/**
+	 * Appends the replacement for the match.
+	 *
+	 * @param match the match, for instance a Matcher positioned on a match
+	 * @param text the text that was searched
+	 * @param out where to write the replacement
+	 * @throws IOException if the output can't be written
+	 */
+	public void appendTo(MatchResult match, CharSequence text, Appendable out) throws IOException {
+		for (int i = 0; i < groups.length; i++) {
+			out.append(literals[i]);
+			final int start = match.start(groups[i]);
+			if (start >= 0) {
+				out.append(text, start, match.end(groups[i]));
+			}
+		}
+		out.append(literals[groups.length]);
+	}
+
+	@Override
+	public String toString() {
+		return replacement;
+	}
+
+	/**
+	 * Assembles a ReplacementTemplate from literals and group references.
+	 */
+	public static class Builder implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final StringBuilder replacement = new StringBuilder();
+		private final List<String> literals = new ArrayList<>(1);
+		private final List<Integer> groups = new ArrayList<>(0);
+		private final StringBuilder literal = new StringBuilder();
+		private boolean afterNumber = false;
+
+		/**
+		 * Adds literal text to the replacement.
+		 *
+		 * @param text the text to include exactly
+		 * @return this builder
+		 */
+		public Builder literal(String text) {
+			for (int i = 0; i < text.length(); i++) {
+				final char c = text.charAt(i);
+				// a digit straight after $n would otherwise extend the group number
+				if (c == '\\' || c == '$' || (afterNumber && c >= '0' && c <= '9')) {
+					replacement.append('\\');
+				}
+				replacement.append(c);
+				afterNumber = false;
+			}
+			literal.append(text);
+			return this;
+		}
+
+		/**
+		 * Adds a reference to a numbered group to the replacement.
+		 *
+		 * @param number the group number
+		 * @return this builder
+		 */
+		public Builder group(int number) {
+			replacement.append('$').append(number);
+			addGroup(number);
+			afterNumber = true;
+			return this;
+		}
+
+		/**
+		 * Adds a reference to a named capture to the replacement.
+		 *
+		 * @param name the name of the capture
+		 * @param number the group number of the capture
+		 * @return this builder
+		 */
+		public Builder namedGroup(String name, int number) {
+			replacement.append("${").append(name).append('}');
+			addGroup(number);
+			afterNumber = false;
+			return this;
+		}
+
+		private void addGroup(int number) {
+			literals.add(literal.toString());
+			literal.setLength(0);
+			groups.add(number);
+		}
+
+		/**
+		 * The replacement string equivalent to the template built so far.
+		 *
+		 * @return a replacement string
+		 */
+		public String getReplacement() {
+			return replacement.toString();
+		}
+
+		/**
+		 * Creates the template.
+		 *
+		 * @return the template
+		 */
+		public ReplacementTemplate build() {
+			final List<String> allLiterals = new ArrayList<>(literals);
+			allLiterals.add(literal.toString());
+			return new ReplacementTemplate(replacement.toString(), allLiterals, groups);
+		}
+	}
+}
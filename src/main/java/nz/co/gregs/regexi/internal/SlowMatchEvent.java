@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder event for a Regex operation that took longer than the
+ * slow match threshold.
+ *
+ * @author gregorygraham
+ */
+@Name(SlowMatchEvent.NAME)
+@Label("Slow Regex Match")
+@Category("Regexi")
+@Description("A Regex operation that took longer than the slow match threshold")
+final class SlowMatchEvent extends Event {
+
+	static final String NAME = "nz.co.gregs.regexi.SlowMatch";
+
+	@Label("Regex")
+	String regex;
+
+	@Label("Regex Id")
+	@Description("The identity hash code of the Regex, to tell apart Regexes with the same regex")
+	int regexId;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Input Length")
+	int inputLength;
+
+	@Label("Matched")
+	boolean matched;
+
+	@Label("Match Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long matchTime;
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import nz.co.gregs.regexi.Match;
+import nz.co.gregs.regexi.MatchBudget;
+import nz.co.gregs.regexi.MatchBudgetExceededException;
+
+/**
+ * Finds matches of a PartialRegex within a Reader using a sliding window, so
+ * that input of any size is searched in bounded memory.
+ *
+ * <p>
+ * Input is read in chunks and appended to the window. A match is only reported
+ * once the regex engine didn't need to look past the end of the window to
+ * find it, or the match is already as long as the maximum match length, so
+ * matches that span chunk boundaries are found exactly as they would be in the
+ * complete text. Text is discarded from the window once no match can start in
+ * it, keeping the maximum match length of text before the search position for
+ * lookbehinds and word boundaries.</p>
+ *
+ * <p>
+ * The window holds at most about twice the maximum match length plus one
+ * chunk. Matches are exact as long as the regex reads no further than the
+ * maximum match length beyond the start of a match; longer matches may be cut
+ * short or missed. The beginning and end of input anchors refer to the real
+ * beginning and end of the input.</p>
+ *
+ * @author gregorygraham
+ */
+public final class StreamingMatcher {
+
+	private final PartialRegex regex;
+	private final Reader reader;
+	private final int maximumMatchLength;
+	private final MatchBudget budget;
+	private final char[] chunk;
+	private final StringBuilder window;
+	private final Matcher matcher;
+	// the offset within the input of the first character in the window
+	private long windowStart = 0;
+	// where the next search starts within the window
+	private int searchFrom = 0;
+	// the end of the text already passed on to the caller
+	private int emittedTo = 0;
+	private boolean endOfInput = false;
+
+	/**
+	 * Creates a StreamingMatcher for the input.
+	 *
+	 * <p>
+	 * The Reader is read as required and is not closed.</p>
+	 *
+	 * @param regex the regex to find
+	 * @param reader the input
+	 * @param maximumMatchLength the length of the longest match expected, in
+	 * chars
+	 * @param chunkSize the number of chars to read at a time
+	 * @param budget the limits for each search, or null for no limits
+	 */
+	public StreamingMatcher(PartialRegex regex, Reader reader, int maximumMatchLength, int chunkSize, MatchBudget budget) {
+		if (maximumMatchLength < 1) {
+			throw new IllegalArgumentException("The maximum match length must be at least 1: " + maximumMatchLength);
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least 1: " + chunkSize);
+		}
+		this.regex = regex;
+		this.reader = reader;
+		this.maximumMatchLength = maximumMatchLength;
+		this.budget = budget;
+		this.chunk = new char[chunkSize];
+		this.window = new StringBuilder(Math.min(2 * maximumMatchLength + chunkSize, 1 << 20));
+		this.matcher = regex.getPattern().matcher(window);
+		matcher.useTransparentBounds(true);
+		matcher.useAnchoringBounds(false);
+	}
+
+	/**
+	 * Finds the next match.
+	 *
+	 * <p>
+	 * The text between the previous match and the next one, or the end of the
+	 * input if there are no more matches, is appended to the gap. Matches are
+	 * found in the same order, and with the same treatment of empty matches, as
+	 * {@link Matcher#find() }.</p>
+	 *
+	 * @param gap where to write the text skipped while searching, or null to
+	 * discard it
+	 * @return true if a match was found
+	 * @throws IOException if the input can't be read or the gap can't be written
+	 * @throws MatchBudgetExceededException if a search exceeds the budget
+	 */
+	public boolean find(Appendable gap) throws IOException {
+		while (true) {
+			final int length = window.length();
+			if (searchFrom <= length) {
+				matcher.reset(BudgetedCharSequence.track(window, budget));
+				matcher.region(searchFrom, length);
+				final boolean found = matcher.find();
+				final boolean decided = endOfInput || !matcher.hitEnd();
+				// a match that relies on the window ending here reads further than the maximum
+				if (found && (decided || (matcher.start() + maximumMatchLength < length && matcher.end() < length && !matcher.requireEnd()))) {
+					emitTo(gap, matcher.start());
+					emittedTo = matcher.end();
+					// like Matcher.find(), an empty match moves the search along by one
+					searchFrom = matcher.end() == matcher.start() ? matcher.end() + 1 : matcher.end();
+					return true;
+				}
+				if (!found && decided) {
+					searchFrom = length + 1;
+				} else {
+					// matches starting this far back would already have been found
+					searchFrom = Math.max(searchFrom, length - maximumMatchLength);
+				}
+			}
+			if (endOfInput) {
+				emitTo(gap, length);
+				return false;
+			}
+			slide(gap);
+		}
+	}
+
+	private void slide(Appendable gap) throws IOException {
+		final int discard = Math.max(0, Math.min(searchFrom, window.length()) - maximumMatchLength);
+		if (discard > 0) {
+			emitTo(gap, discard);
+			window.delete(0, discard);
+			windowStart += discard;
+			searchFrom -= discard;
+			emittedTo -= discard;
+		}
+		final int read = reader.read(chunk);
+		if (read < 0) {
+			endOfInput = true;
+		} else {
+			window.append(chunk, 0, read);
+		}
+	}
+
+	private void emitTo(Appendable gap, int end) throws IOException {
+		if (emittedTo < end) {
+			if (gap != null) {
+				gap.append(window, emittedTo, end);
+			}
+			emittedTo = end;
+		}
+	}
+
+	/**
+	 * The offset within the input of the start of the current match.
+	 *
+	 * @return the offset, in chars, of the first character of the match
+	 */
+	public long start() {
+		return windowStart + matcher.start();
+	}
+
+	/**
+	 * The offset within the input of the end of the current match.
+	 *
+	 * @return the offset, in chars, after the last character of the match
+	 */
+	public long end() {
+		return windowStart + matcher.end();
+	}
+
+	/**
+	 * Creates a Match from the current match.
+	 *
+	 * <p>
+	 * The text of the match is copied, as the window is reused for later input.
+	 * The offsets of the Match are counted from the start of the input, and
+	 * throw ArithmeticException if they are beyond the range of an int.</p>
+	 *
+	 * @return the current match
+	 */
+	public Match toMatch() {
+		return Match.from(regex, OffsetMatchResult.copyOf(window, windowStart, matcher));
+	}
+
+	/**
+	 * Replaces every remaining match in the input using the template, writing
+	 * the result to the output.
+	 *
+	 * @param out where to write the input with its matches replaced
+	 * @param template the compiled replacement
+	 * @return the number of matches replaced
+	 * @throws IOException if the input can't be read or the output can't be
+	 * written
+	 */
+	public long replaceAll(Appendable out, ReplacementTemplate template) throws IOException {
+		long replaced = 0;
+		while (find(out)) {
+			template.appendTo(matcher, window, out);
+			replaced++;
+		}
+		return replaced;
+	}
+
+	/**
+	 * Replaces every remaining match in the input with the result of the
+	 * function, writing the result to the output.
+	 *
+	 * <p>
+	 * The MatchResult supplied to the function is only valid during the call
+	 * and its offsets are counted from the start of the input.</p>
+	 *
+	 * @param out where to write the input with its matches replaced
+	 * @param replacer creates the replacement text for each match
+	 * @return the number of matches replaced
+	 * @throws IOException if the input can't be read or the output can't be
+	 * written
+	 */
+	public long replaceAll(Appendable out, Function<MatchResult, String> replacer) throws IOException {
+		long replaced = 0;
+		while (find(out)) {
+			out.append(replacer.apply(OffsetMatchResult.viewOf(window, windowStart, matcher)));
+			replaced++;
+		}
+		return replaced;
+	}
+}
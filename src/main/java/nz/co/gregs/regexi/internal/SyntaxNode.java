@@ -0,0 +1,281 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ * 
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License. 
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/ 
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ * 
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ * 
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.               
+ *     Under the following terms:
+ *                 
+ *         Attribution - 
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made. 
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial - 
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike - 
+ *             If you remix, transform, or build upon the material, 
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions - 
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the 
+ *             license permits.
+ * 
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A node within the syntax tree produced by {@link RegexSyntax}.
+ *
+ * <p>
+ * Each subclass represents one construct of the regular expression language.
+ * Single character constructs, other than case sensitive literals, are all
+ * represented by {@link CharacterClass} which defers to java.util.regex to
+ * decide which characters it matches so that its behaviour is exactly that of
+ * the regex engine.</p>
+ *
+ * @author gregorygraham
+ */
+abstract class SyntaxNode {
+
+	/**
+	 * Indicates whether this node always consumes no characters.
+	 *
+	 * @return true for assertions and lookarounds
+	 */
+	boolean isZeroWidth() {
+		return false;
+	}
+
+	/**
+	 * A single, case sensitive, character.
+	 */
+	static class Literal extends SyntaxNode {
+
+		final char character;
+
+		Literal(char character) {
+			this.character = character;
+		}
+	}
+
+	/**
+	 * Any construct that matches exactly one character from a set: character
+	 * classes, predefined classes like \d, the dot, and case insensitive
+	 * literals.
+	 */
+	static class CharacterClass extends SyntaxNode {
+
+		final String source;
+		final int flags;
+		private volatile Pattern pattern;
+		// 0 = unknown, 1 = matches, 2 = doesn't match
+		private final byte[] asciiCache = new byte[128];
+
+		CharacterClass(String source, int flags) {
+			this.source = source;
+			this.flags = flags;
+		}
+
+		/**
+		 * Tests whether this class matches the character.
+		 *
+		 * @param c the character to test
+		 * @return true if the regex engine would match c with this class
+		 */
+		boolean matches(char c) {
+			if (c < 128) {
+				byte cached = asciiCache[c];
+				if (cached == 0) {
+					cached = test(c) ? (byte) 1 : (byte) 2;
+					asciiCache[c] = cached;
+				}
+				return cached == 1;
+			}
+			return test(c);
+		}
+
+		private boolean test(char c) {
+			Pattern compiled = pattern;
+			if (compiled == null) {
+				compiled = Pattern.compile(source, flags);
+				pattern = compiled;
+			}
+			return compiled.matcher(String.valueOf(c)).matches();
+		}
+	}
+
+	/**
+	 * Several nodes that must match one after the other.
+	 */
+	static class Sequence extends SyntaxNode {
+
+		final List<SyntaxNode> elements;
+
+		Sequence(List<SyntaxNode> elements) {
+			this.elements = Collections.unmodifiableList(elements);
+		}
+
+		@Override
+		boolean isZeroWidth() {
+			for (SyntaxNode element : elements) {
+				if (!element.isZeroWidth()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A choice between several nodes, tried in order.
+	 */
+	static class Alternation extends SyntaxNode {
+
+		final List<SyntaxNode> options;
+
+		Alternation(List<SyntaxNode> options) {
+			this.options = Collections.unmodifiableList(options);
+		}
+	}
+
+	/**
+	 * A capturing, named, or non-capturing group.
+	 */
+	static class Grouping extends SyntaxNode {
+
+		final SyntaxNode contents;
+		// 0 for non-capturing groups
+		final int number;
+		// null unless this is a named capture
+		final String name;
+
+		Grouping(SyntaxNode contents, int number, String name) {
+			this.contents = contents;
+			this.number = number;
+			this.name = name;
+		}
+
+		@Override
+		boolean isZeroWidth() {
+			return contents.isZeroWidth();
+		}
+	}
+
+	/**
+	 * An atomic group, (?&gt;X), which never backtracks into its contents.
+	 */
+	static class AtomicGroup extends SyntaxNode {
+
+		final SyntaxNode contents;
+
+		AtomicGroup(SyntaxNode contents) {
+			this.contents = contents;
+		}
+	}
+
+	/**
+	 * The behaviour of a quantifier.
+	 */
+	static enum Mode {
+		GREEDY, RELUCTANT, POSSESSIVE
+	}
+
+	/**
+	 * A quantified node like X*, X+?, or X{2,5}.
+	 */
+	static class Repeat extends SyntaxNode {
+
+		static final int UNBOUNDED = -1;
+
+		final SyntaxNode contents;
+		final int minimum;
+		final int maximum;
+		final Mode mode;
+
+		Repeat(SyntaxNode contents, int minimum, int maximum, Mode mode) {
+			this.contents = contents;
+			this.minimum = minimum;
+			this.maximum = maximum;
+			this.mode = mode;
+		}
+
+		boolean isUnbounded() {
+			return maximum == UNBOUNDED;
+		}
+	}
+
+	/**
+	 * The kinds of zero width boundary assertions.
+	 */
+	static enum Boundary {
+		BEGINNING_OF_LINE, END_OF_LINE, WORD_BOUNDARY, NON_WORD_BOUNDARY,
+		BEGINNING_OF_INPUT, END_OF_PREVIOUS_MATCH, END_OF_INPUT_BUT_FOR_TERMINATOR, END_OF_INPUT
+	}
+
+	/**
+	 * A zero width assertion like ^, $, or \b.
+	 */
+	static class Assertion extends SyntaxNode {
+
+		final Boundary boundary;
+		final int flags;
+
+		Assertion(Boundary boundary, int flags) {
+			this.boundary = boundary;
+			this.flags = flags;
+		}
+
+		@Override
+		boolean isZeroWidth() {
+			return true;
+		}
+	}
+
+	/**
+	 * A lookahead or lookbehind, positive or negative.
+	 */
+	static class Lookaround extends SyntaxNode {
+
+		final SyntaxNode contents;
+		final boolean behind;
+		final boolean negative;
+
+		Lookaround(SyntaxNode contents, boolean behind, boolean negative) {
+			this.contents = contents;
+			this.behind = behind;
+			this.negative = negative;
+		}
+
+		@Override
+		boolean isZeroWidth() {
+			return true;
+		}
+	}
+
+	/**
+	 * A numbered, \1, or named, \k&lt;name&gt;, back reference.
+	 */
+	static class BackReference extends SyntaxNode {
+
+		// 0 for named references
+		final int number;
+		// null for numbered references
+		final String name;
+
+		BackReference(int number, String name) {
+			this.number = number;
+			this.name = name;
+		}
+	}
+}
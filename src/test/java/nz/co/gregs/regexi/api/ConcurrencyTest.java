@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 Gregory Graham.
+ *
+ * Commercial licenses are available, please contact info@gregs.co.nz for details.
+ *
+ * This work is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/4.0/
+ * or send a letter to Creative Commons, PO Box 1866, Mountain View, CA 94042, USA.
+ *
+ * You are free to:
+ *     Share - copy and redistribute the material in any medium or format
+ *     Adapt - remix, transform, and build upon the material
+ *
+ *     The licensor cannot revoke these freedoms as long as you follow the license terms.
+ *     Under the following terms:
+ *
+ *         Attribution -
+ *             You must give appropriate credit, provide a link to the license, and indicate if changes were made.
+ *             You may do so in any reasonable manner, but not in any way that suggests the licensor endorses you or your use.
+ *         NonCommercial -
+ *             You may not use the material for commercial purposes.
+ *         ShareAlike -
+ *             If you remix, transform, or build upon the material,
+ *             you must distribute your contributions under the same license as the original.
+ *         No additional restrictions -
+ *             You may not apply legal terms or technological measures that legally restrict others from doing anything the
+ *             license permits.
+ *
+ * Check the Creative Commons website for any details, legalese, and updates.
+ */
+package nz.co.gregs.regexi.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nz.co.gregs.regexi.Regex;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Test;
+
+/**
+ * Checks that a single shared Regex can be used from many threads at once.
+ *
+ * <p>
+ * The throughput figures are printed rather than asserted as they depend on
+ * the machine running the tests.</p>
+ *
+ * @author gregorygraham
+ */
+public class ConcurrencyTest {
+
+	private static final Regex SHARED
+			= Regex.startingAnywhere()
+					.beginNamedCapture("word").literal("day").once().literal("s").onceOrNotAtAll().endNamedCapture()
+					.space()
+					.number().once()
+					.toRegex();
+
+	private static final String[] INPUTS = new String[]{
+		"-2 days 00:00:00",
+		"days 2 and then some",
+		"nothing to see here",
+		"day 15.5",
+		"DAYS 7"
+	};
+
+	private static final int CALLS_PER_THREAD = 20000;
+
+	public ConcurrencyTest() {
+	}
+
+	@Test
+	public void testSharedRegexScalesAcrossThreads() throws Exception {
+		System.out.println("nz.co.gregs.regexi.api.ConcurrencyTest.testSharedRegexScalesAcrossThreads()");
+		final boolean[] expected = new boolean[INPUTS.length];
+		final boolean[] expectedBeginning = new boolean[INPUTS.length];
+		for (int i = 0; i < INPUTS.length; i++) {
+			expected[i] = SHARED.matches(INPUTS[i]);
+			expectedBeginning[i] = SHARED.matchesBeginningOf(INPUTS[i]);
+		}
+		assertThat(expected[1], is(true));
+		assertThat(expected[2], is(false));
+		assertThat(expectedBeginning[0], is(false));
+		assertThat(expectedBeginning[1], is(true));
+
+		final int maxThreads = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Callable<Integer>> tasks = new ArrayList<>(threads);
+				for (int t = 0; t < threads; t++) {
+					tasks.add(() -> matchRepeatedly(expected, expectedBeginning));
+				}
+				final long start = System.nanoTime();
+				List<Future<Integer>> results = executor.invokeAll(tasks);
+				final long elapsed = System.nanoTime() - start;
+				for (Future<Integer> result : results) {
+					assertThat(result.get(), is(0));
+				}
+				final long calls = (long) threads * CALLS_PER_THREAD;
+				System.out.println("THREADS: " + threads + " CALLS: " + calls + " THROUGHPUT: " + (calls * 1000000000L / Math.max(1, elapsed)) + " matches/second");
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private static int nextThreadCount(int threads, int maxThreads) {
+		// doubling, but always finishing with every core even when that isn't a power of two
+		return threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads);
+	}
+
+	private static int matchRepeatedly(boolean[] expected, boolean[] expectedBeginning) {
+		int failures = 0;
+		for (int i = 0; i < CALLS_PER_THREAD; i++) {
+			final int index = i % INPUTS.length;
+			if (SHARED.matches(INPUTS[index]) != expected[index]) {
+				failures++;
+			}
+			if (SHARED.matchesBeginningOf(INPUTS[index]) != expectedBeginning[index]) {
+				failures++;
+			}
+		}
+		return failures;
+	}
+}
@@ -30,15 +30,30 @@ package nz.co.gregs.regexi.api;
  * 
  * Check the Creative Commons website for any details, legalese, and updates.
  */
+import nz.co.gregs.regexi.internal.FlightRecorderSupport;
+import nz.co.gregs.regexi.internal.OrGroup;
 import nz.co.gregs.regexi.internal.PartialRegex;
+import nz.co.gregs.regexi.internal.PartialRegexReplacement;
+import nz.co.gregs.regexi.internal.UnescapedSequence;
 import nz.co.gregs.regexi.MatchedGroup;
 import nz.co.gregs.regexi.Match;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Function;
 import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import nz.co.gregs.regexi.*;
 import org.junit.Assert;
+import org.junit.Assume;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -1670,6 +1685,1309 @@ public class RegexTest {
 		), is(false));
 	}
 
+	@Test
+	public void testLongChainsRenderCorrectly() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLongChainsRenderCorrectly()");
+		PartialRegex partial = Regex.startingAnywhere();
+		StringBuilder expected = new StringBuilder();
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			partial = partial.literal(Character.forDigit(i % 10, 10)).digit().onceOrNotAtAll();
+			expected.append(i % 10).append("\\d?");
+			input.append(i % 10);
+		}
+		Regex regex = partial.toRegex();
+		assertThat(regex.getRegex(), is(expected.toString()));
+		assertThat(regex.getRegex(), sameInstance(regex.getRegex()));
+		assertThat(regex.matchesEntireString(input.toString()), is(true));
+		assertThat(regex.matchesBeginningOf(input.toString()), is(true));
+		assertThat(regex.matchesEndOf(input.toString()), is(true));
+	}
+
+	@Test
+	public void testVeryLongChainsDoNotOverflowTheStack() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testVeryLongChainsDoNotOverflowTheStack()");
+		PartialRegex partial = Regex.startingFromTheBeginning();
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			final char c = (char) ('a' + (i % 26));
+			partial = partial.literal(c);
+			input.append(c);
+		}
+		Regex regex = partial.endOfTheString().toRegex();
+		assertThat(regex.getRegex().length(), is(100002));
+		assertThat(partial.getRegexParts().size(), is(100001));
+		assertThat(regex.matches(input.toString()), is(true));
+		assertThat(regex.matches(input.substring(1)), is(false));
+	}
+
+	@Test
+	public void testBranchingChainsRemainIndependent() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testBranchingChainsRemainIndependent()");
+		PartialRegex base = Regex.startingAnywhere().literal('a').literal('b');
+		Regex first = base.literal('c').toRegex();
+		Regex second = base.literal('d').toRegex();
+		Regex third = base.add(base).toRegex();
+
+		assertThat(base.toRegexString(), is("ab"));
+		assertThat(first.getRegex(), is("abc"));
+		assertThat(second.getRegex(), is("abd"));
+		assertThat(third.getRegex(), is("abab"));
+	}
+
+	@Test
+	public void testLiteralOrGroupsMatchLikeTheRegexEngine() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLiteralOrGroupsMatchLikeTheRegexEngine()");
+		Random random = new Random(42);
+		for (int attempt = 0; attempt < 50; attempt++) {
+			OrGroup<PartialRegex> group = Regex.startOrGroup();
+			final int options = 1 + random.nextInt(30);
+			for (int i = 0; i < options; i++) {
+				if (i > 0) {
+					group = group.or();
+				}
+				final String keyword = randomText(random, 1 + random.nextInt(4));
+				if (random.nextBoolean()) {
+					group = group.literal(keyword);
+				} else {
+					for (char c : keyword.toCharArray()) {
+						group = group.literal(c);
+					}
+				}
+			}
+			final Regex regex = group.endOrGroup().toRegex();
+			// the same regex string but opaque to Regexi so it must use the regex engine
+			final Regex reference = Regex.empty().unescaped(regex.getRegex()).toRegex();
+			for (int test = 0; test < 20; test++) {
+				final String text = randomText(random, random.nextInt(40));
+				assertThat(regex.matches(text), is(reference.matches(text)));
+				assertThat(regex.reusingMatchers().matches(text), is(reference.matches(text)));
+				assertThat(describe(regex.getAllMatches(text)), is(describe(reference.getAllMatches(text))));
+				assertThat(describe(regex.getFirstMatchFrom(text).map(Collections::singletonList).orElse(Collections.emptyList())),
+						is(describe(reference.getFirstMatchFrom(text).map(Collections::singletonList).orElse(Collections.emptyList()))));
+			}
+		}
+	}
+
+	@Test
+	public void testLiteralOrGroupsPreferTheEarliestOption() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLiteralOrGroupsPreferTheEarliestOption()");
+		Regex regex = Regex.startOrGroup().literal("ab").or().literal("abc").or().literal("bcd").endOrGroup().toRegex();
+
+		List<Match> matches = regex.getAllMatches("xabcd abc bcd");
+		assertThat(matches.size(), is(3));
+		assertThat(matches.get(0).getEntireMatch(), is("ab"));
+		assertThat(matches.get(1).getEntireMatch(), is("ab"));
+		assertThat(matches.get(2).getEntireMatch(), is("bcd"));
+		assertThat(regex.matchesBeginningOf("abc"), is(true));
+		assertThat(regex.matchesEndOf("xbcd"), is(true));
+		assertThat(regex.matchesEntireString("abc"), is(true));
+		assertThat(regex.matches("a bc"), is(false));
+	}
+
+	@Test
+	public void testRequiredLiteralPrefilterDoesNotChangeResults() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testRequiredLiteralPrefilterDoesNotChangeResults()");
+		Random random = new Random(8);
+		for (int round = 0; round < 300; round++) {
+			PartialRegex partial = Regex.startingAnywhere();
+			final int elements = 1 + random.nextInt(5);
+			for (int i = 0; i < elements; i++) {
+				final String text = randomText(random, 1 + random.nextInt(3));
+				switch (random.nextInt(8)) {
+					case 0:
+						partial = partial.literal(text).onceOrNotAtAll();
+						break;
+					case 1:
+						partial = partial.beginOrGroup().literal(text).or().literal(randomText(random, 2)).endOrGroup();
+						break;
+					case 2:
+						partial = partial.beginCaseInsensitiveSection().literal(text).endCaseInsensitiveSection();
+						break;
+					case 3:
+						partial = partial.positiveLookAhead(text);
+						break;
+					case 4:
+						partial = partial.negativeLookAhead(text);
+						break;
+					case 5:
+						partial = partial.anyCharacter().oneOrMore();
+						break;
+					case 6:
+						partial = partial.literal(text).oneOrMore();
+						break;
+					default:
+						partial = partial.literal(text);
+				}
+			}
+			final Regex regex = partial.toRegex();
+			for (int test = 0; test < 20; test++) {
+				final String text = randomText(random, random.nextInt(20)).replace('.', 'A');
+				// getMatcher goes straight to the regex engine without the prefilter
+				final Matcher matcher = regex.getMatcher(text);
+				final boolean found = matcher.find();
+				assertThat(regex.getRegex() + " in " + text, regex.matchesWithinString(text), is(found));
+				assertThat(regex.reusingMatchers().matchesWithinString(text), is(found));
+				assertThat(regex.getFirstMatchFrom(text).isPresent(), is(found));
+				assertThat(regex.matchesEntireString(text), is(regex.getMatcher(text).matches()));
+			}
+		}
+	}
+
+	@Test
+	public void testLinearMatchingAgreesWithTheRegexEngine() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLinearMatchingAgreesWithTheRegexEngine()");
+		final String[] fragments = new String[]{"a", "b", "[ab]", "[^a]", ".", "\\s", "^", "$", "\\A", "\\z", "\\n", "\\r", "(", "(?:", "(?i)", "|", ")", "*", "+", "?", "{1,2}", "{2}", "*?", "(?-m)", "(?d)", "\\b", "(?=a)", "\\Z", "a++", "(?>a|ab)"};
+		final String characters = "ab\u0085A \n\r\u2028";
+		Random random = new Random(9);
+		int tested = 0;
+		while (tested < 2000) {
+			StringBuilder builder = new StringBuilder();
+			final int length = 1 + random.nextInt(8);
+			for (int i = 0; i < length; i++) {
+				builder.append(fragments[random.nextInt(fragments.length)]);
+			}
+			final Regex regex;
+			try {
+				java.util.regex.Pattern.compile(builder.toString());
+				regex = Regex.empty().unescaped(builder.toString()).toRegex();
+			} catch (java.util.regex.PatternSyntaxException ex) {
+				continue;
+			}
+			tested++;
+			for (int test = 0; test < 10; test++) {
+				StringBuilder text = new StringBuilder();
+				final int textLength = random.nextInt(8);
+				for (int i = 0; i < textLength; i++) {
+					text.append(characters.charAt(random.nextInt(characters.length())));
+				}
+				final String input = text.toString();
+				final String description = regex.getRegex() + " against " + input.replace("\n", "\\n").replace("\r", "\\r");
+				assertThat(description, regex.matchesWithinString(input), is(regex.getMatcher(input).find()));
+				assertThat(description, regex.matchesEntireString(input), is(regex.getMatcher(input).matches()));
+			}
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testLinearMatchingAvoidsCatastrophicBacktracking() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLinearMatchingAvoidsCatastrophicBacktracking()");
+		Regex regex = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.literal('b').toRegex();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			text.append('a');
+		}
+		// the b means the required literal is present so the input reaches the matching engine
+		final String input = text.append("c b").toString();
+		assertThat(regex.matchesWithinString(input), is(false));
+		assertThat(regex.reusingMatchers().matchesWithinString(input), is(false));
+		assertThat(regex.matchesEntireString(input), is(false));
+		assertThat(regex.getFirstMatchFrom(input).isPresent(), is(false));
+		assertThat(regex.matchesWithinString("aaab"), is(true));
+	}
+
+	@Test(timeout = 10000)
+	public void testMatchBudgetStopsCatastrophicBacktracking() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMatchBudgetStopsCatastrophicBacktracking()");
+		// the back reference means the regex must be run by the backtracking engine
+		Regex regex = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.numberedBackReference(1).literal('b').toRegex();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			text.append('a');
+		}
+		// the b means the required literal is present so the input reaches the matching engine
+		final String input = text.append("c b").toString();
+
+		Regex limited = regex.withBudget(MatchBudget.stepLimit(100000));
+		assertThat(limited.getBudget().isPresent(), is(true));
+		assertThat(limited.matchesWithinString("aaab"), is(true));
+		assertThat(limited.getAllMatches("aaab").size(), is(1));
+		try {
+			limited.matchesWithinString(input);
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		try {
+			limited.reusingMatchers().matches(input);
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getBudget().getStepLimit().getAsLong(), is(100000L));
+		}
+		try {
+			regex.getFirstMatchFrom(input, MatchBudget.timeLimit(Duration.ofMillis(100)));
+			Assert.fail("The time limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getElapsed().toMillis(), greaterThanOrEqualTo(100L));
+		}
+		try {
+			regex.getAllMatches(input, MatchBudget.timeLimit(Duration.ofSeconds(10)).withStepLimit(1000));
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getBudget().getTimeLimit().get(), is(Duration.ofSeconds(10)));
+		}
+	}
+
+	@Test
+	public void testMatchBudgetDoesNotChangeResults() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMatchBudgetDoesNotChangeResults()");
+		Regex regex = Regex.startingAnywhere()
+				.beginNamedCapture("word").literal("day").once().literal("s").onceOrNotAtAll().endNamedCapture()
+				.space().number().once().toRegex();
+		Regex limited = regex.withBudget(MatchBudget.timeLimit(Duration.ofSeconds(10)));
+		for (String input : new String[]{"-2 days 00:00:00", "days 2 and day 3", "nothing to see here"}) {
+			assertThat(limited.matches(input), is(regex.matches(input)));
+			assertThat(limited.matchesEntireString(input), is(regex.matchesEntireString(input)));
+			assertThat(limited.matchesBeginningOf(input), is(regex.matchesBeginningOf(input)));
+			assertThat(limited.matchesEndOf(input), is(regex.matchesEndOf(input)));
+			assertThat(describe(limited.getAllMatches(input)), is(describe(regex.getAllMatches(input))));
+		}
+	}
+
+	@Test
+	public void testBacktrackingReport() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testBacktrackingReport()");
+		final PartialRegex nested = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.literal('b');
+		BacktrackingReport report = nested.toRegex().getBacktrackingReport();
+		System.out.println(report);
+		assertThat(report.getRisk(), is(BacktrackingRisk.EXPONENTIAL));
+		assertThat(report.isComplete(), is(true));
+		assertThat(report.getFindings().get(0), containsString("\"aa\""));
+
+		final PartialRegex overlapping = Regex.startingFromTheBeginning()
+				.digit().oneOrMore().literal('.').onceOrNotAtAll().digit().oneOrMore()
+				.endOfTheString();
+		report = overlapping.toRegex().getBacktrackingReport();
+		System.out.println(report);
+		assertThat(report.getRisk(), is(BacktrackingRisk.POLYNOMIAL));
+
+		final PartialRegex safe = Regex.startingFromTheBeginning()
+				.literal('-').onceOrNotAtAll().digit().oneOrMore()
+				.beginGroup().literal('.').digit().oneOrMore().endGroup().onceOrNotAtAll()
+				.endOfTheString();
+		report = safe.toRegex().getBacktrackingReport();
+		assertThat(report.getRisk(), is(BacktrackingRisk.NONE));
+		assertThat(report.getFindings(), is(empty()));
+		assertThat(Regex.startingFromTheBeginning().numberISO_31().toRegex().getBacktrackingReport().isComplete(), is(true));
+
+		// ambiguity at the end of a regex is harmless because the engine stops at the first match
+		assertThat(Regex.startingAnywhere().beginGroup().literal('a').oneOrMore().endGroup().oneOrMore().toRegex()
+				.getBacktrackingReport().getRisk(), is(BacktrackingRisk.NONE));
+		// quantifiers inside lookaheads are analysed too
+		assertThat(Regex.startingAnywhere().positiveLookAhead(nested).literal('c').toRegex()
+				.getBacktrackingReport().getRisk(), is(BacktrackingRisk.EXPONENTIAL));
+	}
+
+	@Test
+	public void testStrictRegexRefusesRiskyRegexes() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testStrictRegexRefusesRiskyRegexes()");
+		final PartialRegex nested = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.literal('b');
+		try {
+			nested.toStrictRegex();
+			Assert.fail("The exponential regex should have been refused");
+		} catch (UnsafeRegexException expected) {
+			assertThat(expected.getRegex(), is(nested.toRegexString()));
+			assertThat(expected.getReport().getRisk(), is(BacktrackingRisk.EXPONENTIAL));
+		}
+		try {
+			nested.toStrictRegex(BacktrackingRisk.POLYNOMIAL);
+			Assert.fail("The exponential regex should have been refused");
+		} catch (UnsafeRegexException expected) {
+			assertThat(expected.getMessage(), containsString("EXPONENTIAL"));
+		}
+		final PartialRegex overlapping = Regex.startingFromTheBeginning()
+				.digit().oneOrMore().literal('.').onceOrNotAtAll().digit().oneOrMore()
+				.endOfTheString();
+		assertThat(overlapping.toStrictRegex(BacktrackingRisk.POLYNOMIAL).matches("12.5"), is(true));
+		assertThat(Regex.startingFromTheBeginning().literal("day").digit().oneOrMore().toStrictRegex().matches("day12"), is(true));
+		// the nested ( ?(\d+)+)* really is exponential when matching entire strings like "1000000000000000000000000x"
+		assertThat(Regex.startingFromTheBeginning().integerISO_31().toRegex().getBacktrackingReport().getRisk(), is(BacktrackingRisk.EXPONENTIAL));
+	}
+
+	private static String randomText(Random random, int length) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			text.append("abc.".charAt(random.nextInt(4)));
+		}
+		return text.toString();
+	}
+
+	private static List<String> describe(List<Match> matches) {
+		return matches.stream()
+				.map(m -> m.getEntireMatch() + m.allGroups().stream().map(MatchedGroup::toString).collect(Collectors.joining(",", "[", "]")))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testReusingMatchersGivesTheSameResults() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testReusingMatchersGivesTheSameResults()");
+		Regex regex = Regex.startingAnywhere().literal("day").once().literal("s").onceOrNotAtAll().toRegex();
+		Regex reusing = regex.reusingMatchers(2);
+
+		for (String test : new String[]{"day", "days", "before day after", "nothing", "", null}) {
+			assertThat(reusing.matches(test), is(regex.matches(test)));
+			assertThat(reusing.matchesWithinString(test), is(regex.matchesWithinString(test)));
+			assertThat(reusing.matchesEntireString(test), is(regex.matchesEntireString(test)));
+			assertThat(reusing.matchesBeginningOf(test), is(regex.matchesBeginningOf(test)));
+			assertThat(reusing.matchesEndOf(test), is(regex.matchesEndOf(test)));
+		}
+	}
+
+	@Test
+	public void testReusingMatchersDoesNotAllocate() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testReusingMatchersDoesNotAllocate()");
+		java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+		Regex regex = Regex.startingAnywhere().literal("day").once().literal("s").onceOrNotAtAll().toRegex().reusingMatchers();
+		final String matching = "before days after";
+		final String failing = "before nothing after";
+		final int calls = 100000;
+
+		// warm up the pool and the JIT
+		for (int i = 0; i < calls; i++) {
+			regex.matches(matching);
+			regex.matches(failing);
+		}
+
+		final long threadId = Thread.currentThread().getId();
+		final long before = threadBean.getThreadAllocatedBytes(threadId);
+		int found = 0;
+		for (int i = 0; i < calls; i++) {
+			if (regex.matches(matching)) {
+				found++;
+			}
+			if (regex.matches(failing)) {
+				found++;
+			}
+		}
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		System.out.println("ALLOCATED: " + allocated + " bytes for " + (calls * 2) + " matches");
+
+		assertThat(found, is(calls));
+		// allow a little noise from the measurement itself but nothing per match
+		assertThat(allocated, lessThan((long) calls));
+	}
+
+	@Test
+	public void testRequiredLiterals() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testRequiredLiterals()");
+		assertThat(Regex.startingAnywhere().literal("day").digit().literal("s").toRegex().getRequiredLiterals(), contains("day", "s"));
+		assertThat(Regex.startingAnywhere().literal("day").literal("s").onceOrNotAtAll().toRegex().getRequiredLiterals(), contains("day"));
+		assertThat(Regex.startingAnywhere().literal("ab").literal("cd").toRegex().getRequiredLiterals(), contains("abcd"));
+		assertThat(Regex.startingAnywhere().beginOrGroup().literal("xday").or().literal("yday").endOrGroup().toRegex().getRequiredLiterals(), contains("day"));
+		assertThat(Regex.startingAnywhere().beginOrGroup().literal("abc").or().literal("xyz").endOrGroup().toRegex().getRequiredLiterals(), is(empty()));
+		assertThat(Regex.startingAnywhere().anyCharacter().oneOrMore().toRegex().getRequiredLiterals(), is(empty()));
+		assertThat(Regex.startingAnywhere().beginCaseInsensitiveSection().literal("day").endCaseInsensitiveSection().toRegex().getRequiredLiterals(), is(empty()));
+	}
+
+	@Test
+	public void testRegexSetMatchesLikeIndividualRegexes() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testRegexSetMatchesLikeIndividualRegexes()");
+		List<Regex> regexes = new ArrayList<>();
+		regexes.add(Regex.startingAnywhere().literal("day").once().literal("s").onceOrNotAtAll().toRegex());
+		regexes.add(Regex.startingAnywhere().literal("hour").digit().toRegex());
+		regexes.add(Regex.startingAnywhere().number().once().space().literal("min").toRegex());
+		regexes.add(Regex.startingAnywhere().beginOrGroup().literal("cat").or().literal("dog").endOrGroup().toRegex());
+		regexes.add(Regex.startingAnywhere().digit().oneOrMore().toRegex());
+		regexes.add(Regex.startingFromTheBeginning().literal("day").toRegex());
+		regexes.add(Regex.startingAnywhere().literal("hour").toRegex());
+		RegexSet set = RegexSet.of(regexes);
+		assertThat(set.size(), is(regexes.size()));
+
+		String[] inputs = new String[]{"", "days", "2 days", "hour1 and 20 min", "the dog", "nothing", "hour", "day", "cat 5 min"};
+		for (String input : inputs) {
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < regexes.size(); i++) {
+				if (regexes.get(i).matchesWithinString(input)) {
+					expected.add(i);
+				}
+			}
+			assertThat(input, set.getMatchingIndexes(input), is(expected));
+			assertThat(set.matchesAny(input), is(!expected.isEmpty()));
+			assertThat(set.matchesAll(input), is(expected.size() == regexes.size()));
+			Map<Integer, Match> firstMatches = set.getFirstMatches(input);
+			assertThat(new ArrayList<>(firstMatches.keySet()), is(expected));
+			for (Map.Entry<Integer, Match> entry : firstMatches.entrySet()) {
+				assertThat(entry.getValue().getEntireMatch(), is(regexes.get(entry.getKey()).getFirstMatchFrom(input).get().getEntireMatch()));
+			}
+		}
+		assertThat(set.getMatchingRegexes("2 days"), contains(regexes.get(0), regexes.get(4)));
+		assertThat(RegexSet.of().matchesAny("anything"), is(false));
+		assertThat(RegexSet.of().matchesAll("anything"), is(true));
+	}
+
+	@Test
+	public void testStreamingAgreesWithStrings() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testStreamingAgreesWithStrings()");
+		final String[] fragments = new String[]{"a", "b", "[ab]", "[^a]", ".", "\\s", "^", "$", "\\A", "\\z", "\\n", "(", "(?:", "(?i)", "|", ")", "*", "+", "?", "{1,2}", "*?", "(?m)", "\\b", "(?=a)", "(?<=a)", "\\Z", "a++", "(a)\\1"};
+		final String characters = "ab\u0085A \n\r";
+		Random random = new Random(12);
+		int tested = 0;
+		while (tested < 500) {
+			StringBuilder builder = new StringBuilder();
+			final int length = 1 + random.nextInt(8);
+			for (int i = 0; i < length; i++) {
+				builder.append(fragments[random.nextInt(fragments.length)]);
+			}
+			final Regex regex;
+			try {
+				java.util.regex.Pattern.compile(builder.toString());
+				regex = Regex.empty().unescaped(builder.toString()).toRegex();
+			} catch (java.util.regex.PatternSyntaxException ex) {
+				continue;
+			}
+			tested++;
+			for (int test = 0; test < 5; test++) {
+				StringBuilder text = new StringBuilder();
+				final int textLength = random.nextInt(30);
+				for (int i = 0; i < textLength; i++) {
+					text.append(characters.charAt(random.nextInt(characters.length())));
+				}
+				final String input = text.toString();
+				// tiny chunks force matches across chunk boundaries
+				final RegexStreamer streamer = regex.toStreamer()
+						.withChunkSize(1 + random.nextInt(5))
+						.withMaximumMatchLength(Math.max(1, textLength));
+				final String description = regex.getRegex() + " against " + input.replace("\n", "\\n").replace("\r", "\\r");
+				assertThat(description, streamer.matchesWithin(new StringReader(input)), is(regex.getMatcher(input).find()));
+				assertThat(description,
+						streamer.getAllMatches(new StringReader(input)).map(Match::getEntireMatch).collect(Collectors.toList()),
+						is(regex.getMatcher(input).results().map(MatchResult::group).collect(Collectors.toList())));
+				assertThat(description,
+						streamer.split(new StringReader(input)).collect(Collectors.toList()),
+						is(Arrays.asList(input.split(regex.getRegex()))));
+				StringWriter replaced = new StringWriter();
+				streamer.replaceAll(new StringReader(input), replaced, "<$0>");
+				assertThat(description, replaced.toString(), is(regex.getMatcher(input).replaceAll("<$0>")));
+			}
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void testStreamingUsesBoundedMemory() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testStreamingUsesBoundedMemory()");
+		final String line = "2024-01-01 INFO all is well\n2024-01-01 ERROR 1234 something broke\n";
+		final long repeats = 300_000L;
+		final long size = repeats * line.length();
+		// generates the input as it is read so the test needs far less memory than the input
+		Reader input = new Reader() {
+			private long position = 0;
+
+			@Override
+			public int read(char[] buffer, int offset, int length) {
+				if (position >= size) {
+					return -1;
+				}
+				final int count = (int) Math.min(length, size - position);
+				for (int i = 0; i < count; i++) {
+					buffer[offset + i] = line.charAt((int) (position++ % line.length()));
+				}
+				return count;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Regex regex = Regex.startingAnywhere()
+				.literal("ERROR ").beginNamedCapture("code").digit().oneOrMore().endNamedCapture()
+				.toRegex();
+		final long errors = regex.toStreamer().withChunkSize(1000).getAllMatches(input)
+				.filter(match -> match.getNamedCapture("code").equals("1234"))
+				.count();
+		assertThat(errors, is(repeats));
+
+		StringWriter output = new StringWriter();
+		final long replaced = regex.replaceWith().literal("ERROR ").namedReference("code").literal("!").getReplacer()
+				.replaceAll(new StringReader("ERROR 1 ERROR 22 ok"), output);
+		assertThat(replaced, is(2L));
+		assertThat(output.toString(), is("ERROR 1! ERROR 22! ok"));
+		assertThat(regex.toSplitter().split(new StringReader("aERROR 1bERROR 2")).collect(Collectors.toList()), contains("a", "b"));
+	}
+
+	@Test
+	public void testMappedFileScanning() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMappedFileScanning()");
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			text.append(i % 3 == 0 ? "caf\u00e9 \ud83d\ude00 " : "cafe ")
+					.append("day ").append(i).append(i % 7 == 0 ? " \u4e2d" : "").append('\n');
+		}
+		final String content = text.toString();
+		Regex regex = Regex.startingAnywhere()
+				.literal("day ").beginNamedCapture("day").digit().oneOrMore().endNamedCapture()
+				.toRegex();
+		Path file = Files.createTempFile("regexi", ".txt");
+		try {
+			for (Charset charset : new Charset[]{StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1}) {
+				final String decoded = new String(content.getBytes(charset), charset);
+				Files.write(file, content.getBytes(charset));
+				final List<MatchResult> expected = regex.getMatcher(decoded).results().collect(Collectors.toList());
+				// small segments force matches across segment boundaries
+				final RegexStreamer streamer = regex.toStreamer().withCharset(charset)
+						.withMaximumMatchLength(20).withMappedSegmentSize(200);
+				final List<FileMatch> found;
+				try (java.util.stream.Stream<FileMatch> matches = streamer.getAllMatches(file)) {
+					found = matches.collect(Collectors.toList());
+				}
+				assertThat(found.size(), is(expected.size()));
+				for (int i = 0; i < found.size(); i++) {
+					final MatchResult want = expected.get(i);
+					final FileMatch got = found.get(i);
+					assertThat(got.getStart(), is((long) want.start()));
+					assertThat(got.getEnd(), is((long) want.end()));
+					assertThat(got.getByteStart(), is((long) decoded.substring(0, want.start()).getBytes(charset).length));
+					assertThat(got.getByteEnd(), is((long) decoded.substring(0, want.end()).getBytes(charset).length));
+					assertThat(got.getEntireMatch(), is(want.group()));
+					assertThat(got.getMatch().getNamedCapture("day"), is(want.group().substring("day ".length())));
+				}
+				assertThat(streamer.matchesWithin(file), is(true));
+			}
+			try (java.util.stream.Stream<FileMatch> matches = regex.getAllMatches(file)) {
+				assertThat(matches.count(), is(500L));
+			}
+			assertThat(Regex.startingAnywhere().literal("night").toRegex().toStreamer().matchesWithin(file), is(false));
+			try {
+				regex.toStreamer().withCharset(StandardCharsets.UTF_16).getAllMatches(file);
+				Assert.fail("UTF-16 can't be mapped");
+			} catch (IllegalArgumentException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testCharSequencesMatchLikeStrings() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testCharSequencesMatchLikeStrings()");
+		Regex regex = Regex.startingAnywhere()
+				.beginNamedCapture("value").digit().oneOrMore().endNamedCapture()
+				.space().beginNamedCapture("unit").literal("day").or().literal("hour").endNamedCapture()
+				.toRegex();
+		Regex keywords = Regex.startingAnywhere().literal("day").or().literal("hour").toRegex();
+		Regex comma = Regex.startingAnywhere().literal(",").toRegex();
+		RegexSet set = RegexSet.of(regex, keywords, comma);
+		String[] inputs = new String[]{"", "2 days,3 hours", "nothing here", "day, 45 hour, 6 days", "7 weeks"};
+		for (String input : inputs) {
+			List<CharSequence> sequences = new ArrayList<>();
+			sequences.add(new StringBuilder(input));
+			sequences.add(java.nio.CharBuffer.wrap(input));
+			sequences.add(java.nio.CharBuffer.wrap("(" + input + ")").subSequence(1, input.length() + 1));
+			for (CharSequence sequence : sequences) {
+				assertThat(regex.matches(sequence), is(regex.matches(input)));
+				assertThat(regex.reusingMatchers().matches(sequence), is(regex.matches(input)));
+				assertThat(keywords.matchesWithinString(sequence), is(keywords.matchesWithinString(input)));
+				assertThat(regex.matchesBeginningOf(sequence), is(regex.matchesBeginningOf(input)));
+				assertThat(regex.matchesEndOf(sequence), is(regex.matchesEndOf(input)));
+				assertThat(regex.matchesEntireString(sequence), is(regex.matchesEntireString(input)));
+				assertThat(
+						regex.getAllMatches(sequence).stream().map(Match::getEntireMatch).collect(Collectors.toList()),
+						is(regex.getAllMatches(input).stream().map(Match::getEntireMatch).collect(Collectors.toList())));
+				assertThat(
+						keywords.getAllMatches(sequence).stream().map(Match::getEntireMatch).collect(Collectors.toList()),
+						is(keywords.getAllMatches(input).stream().map(Match::getEntireMatch).collect(Collectors.toList())));
+				assertThat(regex.returnValueFrom("unit").getAllValuesFrom(sequence), is(regex.returnValueFrom("unit").getAllValuesFrom(input)));
+				assertThat(regex.returnValueFrom("value").getValueFrom(sequence), is(regex.returnValueFrom("value").getValueFrom(input)));
+				assertThat(comma.toSplitter().splitToList(sequence), is(comma.toSplitter().splitToList(input)));
+				assertThat(regex.replaceWith().namedReference("unit").literal("=").namedReference("value").getReplacer().replaceAll(sequence),
+						is(regex.replaceWith().namedReference("unit").literal("=").namedReference("value").getReplacer().replaceAll(input)));
+				assertThat(set.getMatchingIndexes(sequence), is(set.getMatchingIndexes(input)));
+			}
+		}
+	}
+
+	@Test
+	public void testMatchOffsets() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMatchOffsets()");
+		Regex regex = Regex.startingAnywhere()
+				.beginNamedCapture("value").digit().oneOrMore().endNamedCapture()
+				.space().beginNamedCapture("unit").literal("day").or().literal("hour").endNamedCapture()
+				.beginNamedCapture("plural").literal("s").endNamedCapture().onceOrNotAtAll()
+				.toRegex();
+		String input = "2 days, 3 hour and 45 days";
+		StringBuilder builder = new StringBuilder(input);
+		List<Match> matches = regex.getAllMatches(builder);
+		Matcher want = regex.getMatcher(input);
+		for (Match match : matches) {
+			assertThat(want.find(), is(true));
+			assertThat(match.getStart(), is(want.start()));
+			assertThat(match.getEnd(), is(want.end()));
+			assertThat(match.getGroupCount(), is(want.groupCount()));
+			for (int group = 0; group <= want.groupCount(); group++) {
+				assertThat(match.getStart(group), is(want.start(group)));
+				assertThat(match.getEnd(group), is(want.end(group)));
+				assertThat(match.getGroup(group), is(want.group(group)));
+			}
+		}
+		assertThat(want.find(), is(false));
+		assertThat(matches.size(), is(3));
+		assertThat(matches.get(1).getGroup(3), is(nullValue()));
+		assertThat(matches.get(1).getStart(3), is(-1));
+		assertThat(matches.get(2).getEntireMatch(), is("45 days"));
+		assertThat(matches.get(2).allGroups().get(1).getContents(), is("45"));
+
+		Match keyword = Regex.startingAnywhere().literal("day").or().literal("hour").toRegex().getFirstMatchFrom(java.nio.CharBuffer.wrap(input)).get();
+		assertThat(keyword.getStart(), is(2));
+		assertThat(keyword.getEnd(), is(5));
+
+		StringBuilder longInput = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			longInput.append("wait ").append(i).append(" days. ");
+		}
+		try (java.util.stream.Stream<Match> streamed = regex.toStreamer().withChunkSize(1000).withMaximumMatchLength(50).getAllMatches(new StringReader(longInput.toString()))) {
+			Iterator<Match> expected = regex.getAllMatches(longInput).iterator();
+			streamed.forEachOrdered(match -> {
+				Match local = expected.next();
+				assertThat(match.getStart(), is(local.getStart()));
+				assertThat(match.getEnd(2), is(local.getEnd(2)));
+				assertThat(match.getEntireMatch(), is(local.getEntireMatch()));
+			});
+			assertThat(expected.hasNext(), is(false));
+		}
+	}
+
+	@Test
+	public void testNamedCapturesComeFromTheMatch() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testNamedCapturesComeFromTheMatch()");
+		Regex keys = Regex.startingAnywhere()
+				.beginNamedCapture("key").word().endNamedCapture()
+				.positiveLookAhead(":")
+				.toRegex();
+		String input = "alpha: 1, beta 2, gamma: 3";
+		List<Match> matches = keys.getAllMatches(input);
+		assertThat(matches.size(), is(2));
+		assertThat(matches.get(0).getNamedCapture("key"), is("alpha"));
+		assertThat(matches.get(1).getAllNamedCaptures().get("key"), is("gamma"));
+		assertThat(matches.get(1).getNamedCapture("missing"), is(nullValue()));
+		assertThat(keys.returnValueFrom("key").getAllValuesFrom(input), contains("alpha", "gamma"));
+
+		// the emoji can't be analysed so the group numbers are found by scanning the regex
+		Regex moods = Regex.startingAnywhere()
+				.literal("\uD83D\uDE00").space().word().space()
+				.beginNamedCapture("mood").word().endNamedCapture()
+				.beginNamedCapture("punctuation").literal("!").endNamedCapture().onceOrNotAtAll()
+				.toRegex();
+		List<Match> found = moods.getAllMatches("\uD83D\uDE00 very happy! \uD83D\uDE00 quite content");
+		assertThat(found.size(), is(2));
+		assertThat(found.get(0).getNamedCapture("mood"), is("happy"));
+		assertThat(found.get(0).getNamedCapture("punctuation"), is("!"));
+		assertThat(found.get(1).getNamedCapture("mood"), is("content"));
+		assertThat(found.get(1).getAllNamedCaptures().containsKey("punctuation"), is(false));
+	}
+
+	@Test
+	public void testGroupHandles() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testGroupHandles()");
+		Regex regex = Regex.startingAnywhere()
+				.beginNamedCapture("year").digit().digit().digit().digit().endNamedCapture()
+				.literal("-").beginGroup().literal("Q").endGroup()
+				.beginNamedCapture("quarter").anyCharacterBetween('1', '4').endNamedCapture()
+				.beginNamedCapture("note").literal("*").endNamedCapture().onceOrNotAtAll()
+				.toRegex();
+		Map<String, Integer> numbers = regex.getNamedGroupNumbers();
+		assertThat(new ArrayList<>(numbers.keySet()), contains("year", "quarter", "note"));
+		Matcher numbered = regex.getMatcher("1999-Q2*");
+		assertThat(numbered.find(), is(true));
+		for (Map.Entry<String, Integer> entry : numbers.entrySet()) {
+			assertThat(numbered.group(entry.getValue()), is(numbered.group(entry.getKey())));
+		}
+		assertThat(regex.getNamedGroupNumbers(), is(sameInstance(numbers)));
+		try {
+			numbers.put("other", 5);
+			Assert.fail("The table can't be changed");
+		} catch (UnsupportedOperationException expected) {
+		}
+
+		GroupHandle year = regex.getGroupHandle("year");
+		GroupHandle quarter = regex.getGroupHandle("quarter");
+		GroupHandle note = regex.getGroupHandle("note");
+		assertThat(regex.getGroupHandles().stream().map(GroupHandle::getName).collect(Collectors.toList()), contains("year", "quarter", "note"));
+		String input = "2019-Q3 and 2024-Q1*";
+		List<Match> matches = regex.getAllMatches(input);
+		assertThat(matches.size(), is(2));
+		assertThat(year.from(matches.get(0)), is("2019"));
+		assertThat(quarter.from(matches.get(0)), is("3"));
+		assertThat(note.from(matches.get(0)), is(nullValue()));
+		assertThat(note.startIn(matches.get(0)), is(-1));
+		assertThat(year.from(matches.get(1)), is("2024"));
+		assertThat(note.from(matches.get(1)), is("*"));
+		assertThat(quarter.startIn(matches.get(1)), is(input.indexOf("Q1") + 1));
+		assertThat(quarter.endIn(matches.get(1)), is(input.indexOf("Q1") + 2));
+		Matcher matcher = regex.getMatcher(input);
+		assertThat(matcher.find(), is(true));
+		assertThat(year.from(matcher), is("2019"));
+		try {
+			regex.getGroupHandle("month");
+			Assert.fail("There is no month capture");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testLazySplitMatchesStringSplit() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLazySplitMatchesStringSplit()");
+		List<Regex> separators = new ArrayList<>();
+		separators.add(Regex.startingAnywhere().literal(",").toRegex());
+		separators.add(Regex.startingAnywhere().literal(",").oneOrMore().toRegex());
+		separators.add(Regex.startingAnywhere().space().zeroOrMoreGreedy().toRegex());
+		separators.add(Regex.startingFromTheBeginning().literal("a").toRegex());
+		separators.add(Regex.startingAnywhere().literal("a").or().literal(",").toRegex());
+		String[] inputs = new String[]{"", ",", ",,", "a", "a,b", ",a,b,,", "a b  c ", ",,a,,b,,,", "aaa", " a,a, "};
+		int[] limits = new int[]{0, 1, 2, 3, -1};
+		for (Regex separator : separators) {
+			final RegexSplitter splitter = separator.toSplitter();
+			for (String input : inputs) {
+				for (int limit : limits) {
+					List<String> expected = Arrays.asList(input.split(separator.getRegex(), limit));
+					String description = separator.getRegex() + " on \"" + input + "\" limited to " + limit;
+					assertThat(description, Arrays.asList(splitter.split(input, limit)), is(expected));
+					assertThat(description, Arrays.asList(splitter.split(new StringBuilder(input), limit)), is(expected));
+					assertThat(description,
+							splitter.splitToStream(java.nio.CharBuffer.wrap(input), limit).map(CharSequence::toString).collect(Collectors.toList()),
+							is(expected));
+					List<String> iterated = new ArrayList<>();
+					splitter.splitToIterator(input, limit).forEachRemaining(piece -> iterated.add(piece.toString()));
+					assertThat(description, iterated, is(expected));
+				}
+				assertThat(splitter.splitToList(input), is(Arrays.asList(input.split(separator.getRegex()))));
+			}
+		}
+		// pieces are only found as they are requested
+		StringBuilder large = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			large.append(i).append(',');
+		}
+		assertThat(separators.get(0).toSplitter().splitToStream(large).skip(10).findFirst().get().toString(), is("10"));
+	}
+
+	@Test
+	public void testReplacingIntoAppendables() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testReplacingIntoAppendables()");
+		Regex email = Regex.startingAnywhere()
+				.beginNamedCapture("user").wordCharacter().oneOrMore().endNamedCapture()
+				.literal("@")
+				.beginNamedCapture("domain").wordCharacter().oneOrMore().literal(".").wordCharacter().oneOrMore().endNamedCapture()
+				.toRegex();
+		RegexReplacer redactor = email.replaceWith().literal("<redacted>@").namedReference("domain").getReplacer();
+		String input = "mail bob@example.com or alice@test.org, \u00e9t\u00e9 not@home";
+		String expected = redactor.replaceAll(input);
+		assertThat(expected, is("mail <redacted>@example.com or <redacted>@test.org, \u00e9t\u00e9 not@home"));
+
+		StringBuilder builder = new StringBuilder();
+		assertThat(redactor.replaceAll(new StringBuilder(input), builder), is(2L));
+		assertThat(builder.toString(), is(expected));
+
+		builder.setLength(0);
+		assertThat(redactor.replaceFirst(input, builder), is(1L));
+		assertThat(builder.toString(), is(redactor.replaceFirst(input)));
+
+		StringWriter writer = new StringWriter();
+		assertThat(redactor.replaceAll(new StringReader(input), writer), is(2L));
+		assertThat(writer.toString(), is(expected));
+
+		java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		assertThat(redactor.replaceAll(new StringReader(input), java.nio.channels.Channels.newChannel(bytes)), is(2L));
+		assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8), is(expected));
+
+		bytes.reset();
+		RegexStreamer streamer = email.toStreamer().withCharset(StandardCharsets.ISO_8859_1);
+		java.nio.channels.ReadableByteChannel source = java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(input.getBytes(StandardCharsets.ISO_8859_1)));
+		assertThat(streamer.replaceAll(source, java.nio.channels.Channels.newChannel(bytes), "$2"), is(2L));
+		assertThat(new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1), is(email.getMatcher(input).replaceAll("$2")));
+
+		writer = new StringWriter();
+		Function<MatchResult, String> positions = result -> result.start() + "-" + result.end() + ":" + result.group(2);
+		assertThat(streamer.replaceAll(new StringReader(input), writer, positions), is(2L));
+		assertThat(writer.toString(), is(email.getMatcher(input).replaceAll(positions)));
+	}
+
+	@Test
+	public void testReplacementTemplates() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testReplacementTemplates()");
+		Regex price = Regex.startingAnywhere()
+				.beginNamedCapture("item").wordCharacter().oneOrMore().endNamedCapture()
+				.literal("=")
+				.beginNamedCapture("amount").digit().oneOrMore().endNamedCapture()
+				.toRegex();
+		String input = "apple=3, pear=12 and plum=7";
+		PartialRegexReplacement builder = price.replaceWith()
+				.namedReference("item").literal(" costs $").namedReference("amount").literal(".00 \\ each");
+		RegexReplacer replacer = builder.getReplacer();
+		assertThat(replacer.replaceAll(input), is("apple costs $3.00 \\ each, pear costs $12.00 \\ each and plum costs $7.00 \\ each"));
+		assertThat(replacer.replaceFirst(input), is("apple costs $3.00 \\ each, pear=12 and plum=7"));
+		// the pattern is equivalent when used by the regex engine
+		assertThat(price.getMatcher(input).replaceAll(builder.getReplacementPattern()), is(replacer.replaceAll(input)));
+		assertThat(new RegexReplacer(price, builder.getReplacementPattern()).replaceAll(input), is(replacer.replaceAll(input)));
+
+		// a digit following a numbered reference is literal, not part of the group number
+		Regex digits = Regex.startingAnywhere().beginGroup().digit().endGroup().toRegex();
+		PartialRegexReplacement tens = digits.replaceWith().numberedReference(1).literal("0");
+		assertThat(tens.getReplacer().replaceAll("1 2 3"), is("10 20 30"));
+		assertThat(digits.getMatcher("1 2 3").replaceAll(tens.getReplacementPattern()), is("10 20 30"));
+
+		assertThat(price.replaceWith().literal("$").getReplacer().replaceAll("a=1"), is("$"));
+		assertThat(replacer.replaceAll("no prices"), is("no prices"));
+		try {
+			price.replaceWith().namedReference("cost");
+			Assert.fail("There is no cost capture");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testMetrics() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMetrics()");
+		final Regex plain = Regex.startingAnywhere().literal("ERROR").toRegex();
+		assertThat(plain.getMetrics().isPresent(), is(false));
+		assertThat(plain.withMetrics(RegexMetrics.NONE).getMetrics().isPresent(), is(false));
+
+		final RegexStatistics stats = new RegexStatistics();
+		final Regex regex = plain.withMetrics(stats).reusingMatchers();
+		assertThat(regex.getMetrics().get(), is(stats));
+		assertThat(regex.matches("an ERROR occurred"), is(true));
+		assertThat(regex.matches("all is well"), is(false));
+		assertThat(regex.doesNotMatchWithin("fine"), is(true));
+		assertThat(regex.matchesBeginningOf("ERROR at the start"), is(true));
+		assertThat(regex.getAllMatches("ERROR, ERROR").size(), is(2));
+		assertThat(regex.replaceWith().literal("WARNING").getReplacer().replaceAll(new StringBuilder("no errors")), is("no errors"));
+		assertThat(regex.replaceWith().literal("WARNING").getReplacer().replaceAll("an ERROR"), is("an WARNING"));
+
+		RegexStatistics.OperationStatistics within = stats.getStatistics(RegexOperation.MATCHES_WITHIN_STRING);
+		assertThat(within.getCalls(), is(3L));
+		assertThat(within.getMatches(), is(1L));
+		assertThat(within.getInputLengths().getCount(), is(3L));
+		assertThat(within.getInputLengths().getMax(), is(17L));
+		assertThat(within.getInputLengths().getValueAtPercentile(50), is(11L));
+		assertThat(stats.getStatistics(RegexOperation.MATCHES_BEGINNING_OF).getMatchRatio(), is(1.0));
+		assertThat(stats.getStatistics(RegexOperation.GET_ALL_MATCHES).getCalls(), is(1L));
+		RegexStatistics.OperationStatistics replacements = stats.getStatistics(RegexOperation.REPLACE_ALL);
+		assertThat(replacements.getCalls(), is(2L));
+		assertThat(replacements.getMatchRatio(), is(0.5));
+		assertThat(stats.getAllStatistics().keySet(), contains(
+				RegexOperation.MATCHES_WITHIN_STRING, RegexOperation.MATCHES_BEGINNING_OF,
+				RegexOperation.GET_ALL_MATCHES, RegexOperation.REPLACE_ALL));
+		assertThat(stats.getCalls(), is(7L));
+		assertThat(within.getDurations().getCount(), is(3L));
+		assertThat(within.getDurations().getMax() > 0, is(true));
+
+		// every percentile is within a bucket of the real value
+		LogLinearHistogram histogram = new LogLinearHistogram();
+		for (long i = 1; i <= 100_000; i++) {
+			histogram.record(i);
+		}
+		assertThat(histogram.getValueAtPercentile(100), is(100_000L));
+		assertThat(histogram.getValueAtPercentile(0), is(1L));
+		assertThat(histogram.getValueAtPercentile(10), is(10_239L));
+		long median = histogram.getValueAtPercentile(50);
+		assertThat(median >= 50_000 && median < 50_000 * 1.07, is(true));
+		assertThat(histogram.getMean(), is(50_000.5));
+	}
+
+	@Test
+	public void testFlightRecorderEvents() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testFlightRecorderEvents()");
+		Assume.assumeTrue(FlightRecorderSupport.isAvailable());
+		final Regex regex = Regex.startingAnywhere().literal("slow").toRegex();
+		final Duration threshold = FlightRecorderSupport.getSlowMatchThreshold();
+		final Path file = Files.createTempFile("regexi", ".jfr");
+		try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+			recording.enable("nz.co.gregs.regexi.PatternCompile");
+			recording.enable("nz.co.gregs.regexi.SlowMatch");
+			FlightRecorderSupport.setSlowMatchThreshold(Duration.ZERO);
+			recording.start();
+			assertThat(FlightRecorderSupport.isTimingMatches(), is(true));
+			assertThat(regex.matches("a slow match"), is(true));
+			assertThat(regex.getAllMatches("nothing").size(), is(0));
+			// the Pattern is only compiled when the prefilters can't answer
+			assertThat(regex.getMatcher("slow").find(), is(true));
+			recording.stop();
+			assertThat(FlightRecorderSupport.isTimingMatches(), is(false));
+			recording.dump(file);
+			final List<jdk.jfr.consumer.RecordedEvent> events = jdk.jfr.consumer.RecordingFile.readAllEvents(file);
+			final List<String> compiled = events.stream()
+					.filter(e -> e.getEventType().getName().equals("nz.co.gregs.regexi.PatternCompile"))
+					.map(e -> e.getString("regex"))
+					.collect(Collectors.toList());
+			assertThat(compiled, hasItem(regex.getRegex()));
+			final List<String> slow = events.stream()
+					.filter(e -> e.getEventType().getName().equals("nz.co.gregs.regexi.SlowMatch"))
+					.filter(e -> e.getString("regex").equals(regex.getRegex()))
+					.map(e -> e.getString("operation") + " " + e.getInt("inputLength") + " " + e.getBoolean("matched"))
+					.collect(Collectors.toList());
+			assertThat(slow, contains("MATCHES_WITHIN_STRING 12 true", "GET_ALL_MATCHES 7 false"));
+		} finally {
+			FlightRecorderSupport.setSlowMatchThreshold(threshold);
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testSlowMatchSampler() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testSlowMatchSampler()");
+		final SlowMatchSampler sampler = new SlowMatchSampler(2, 60);
+		// the back reference means the regex must be run by the backtracking engine
+		final Regex regex = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.numberedBackReference(1).literal('b').toRegex()
+				.withBudget(MatchBudget.timeLimit(Duration.ofMillis(30)))
+				.withSlowMatchSampler(sampler);
+		assertThat(regex.getSlowMatchSampler().get(), is(sampler));
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			text.append('a');
+		}
+		final String pathological = text.append("c b").toString();
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(regex.matches("aab"), is(true));
+		}
+		try {
+			regex.matches(pathological);
+			Assert.fail("The time limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+		}
+		assertThat(regex.matchesEntireString("aab and a lot more text to make the input longer than the prefix"), is(false));
+
+		final List<SlowMatch> slowest = sampler.getSlowestMatches();
+		assertThat(slowest.size(), is(2));
+		final SlowMatch worst = slowest.get(0);
+		assertThat(worst.getOperation(), is(RegexOperation.MATCHES_WITHIN_STRING));
+		assertThat(worst.getInputPrefix(), is(pathological));
+		assertThat(worst.getInputLength(), is(53));
+		assertThat(worst.isInputTruncated(), is(false));
+		assertThat(worst.getDurationNanos(), greaterThanOrEqualTo(Duration.ofMillis(30).toNanos()));
+		assertThat(slowest.get(1).getDurationNanos(), lessThanOrEqualTo(worst.getDurationNanos()));
+
+		final List<String> explanation = worst.explain();
+		assertThat(explanation.get(0), is("TESTING: " + regex.getRegex()));
+		assertThat(explanation, hasItem(startsWith("TIME: ")));
+		assertThat(explanation, hasItem(startsWith("RESULT: ABANDONED")));
+		assertThat(worst.getResponsiblePart().isPresent(), is(true));
+
+		sampler.clear();
+		assertThat(sampler.getSlowestMatches().isEmpty(), is(true));
+		regex.matchesEntireString("aab and a lot more text to make the input longer than the prefix");
+		final SlowMatch truncated = sampler.getSlowestMatches().get(0);
+		assertThat(truncated.getOperation(), is(RegexOperation.MATCHES_ENTIRE_STRING));
+		assertThat(truncated.isInputTruncated(), is(true));
+		assertThat(truncated.getInputPrefix().length(), is(60));
+	}
+
+	@Test
+	public void testLazyDfaRepeatsLongGroups() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLazyDfaRepeatsLongGroups()");
+		// the group needs more than 16 instructions so the program grows while it is compiled
+		final Regex regex = Regex.startingAnywhere()
+				.beginGroup().literal("abcdefghijklmnopqrstuvwxyz").endGroup().oneOrMoreGreedy()
+				.toRegex();
+		assertThat(regex.matches("abcdefghijklmnopqrstuvwxyz"), is(true));
+		assertThat(regex.matchesEntireString("abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyz"), is(true));
+		assertThat(regex.matchesEntireString("abcdefghijklmnopqrstuvwxyzabc"), is(false));
+		assertThat(regex.matches("abcdefghijklmnopqrstuvwxy"), is(false));
+	}
+
+	@Test
+	public void testRepeatedEmptyIterationsMatchLikeJava() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testRepeatedEmptyIterationsMatchLikeJava()");
+		for (String raw : new String[]{"(?:[ab]|\\A){2}", "(?:\\w|^){2}", "((^|a){2})*?", "(?:a?)+b", "(?:a*|b)*"}) {
+			final Regex regex = new UnescapedSequence(raw).toRegex();
+			final java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(raw);
+			for (String input : new String[]{"", "a", "b", "ab", "ba", "aa", "aab", "bb"}) {
+				assertThat(raw + " entire " + input, regex.matchesEntireString(input), is(pattern.matcher(input).matches()));
+				assertThat(raw + " within " + input, regex.matchesWithinString(input), is(pattern.matcher(input).find()));
+			}
+		}
+	}
+
+	@Test
+	public void testLazyDfaMemoryIsBoundedPastTheStateLimit() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLazyDfaMemoryIsBoundedPastTheStateLimit()");
+		// remembering the last 15 characters needs far more DFA states than are cached
+		final Regex regex = new UnescapedSequence("(?:a|b)*a(?:a|b){14}[cd]").toRegex();
+		final java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(regex.getRegex());
+		final Random random = new Random(20261018);
+		final Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		final long before = runtime.totalMemory() - runtime.freeMemory();
+		for (int i = 0; i < 3000; i++) {
+			final char[] input = new char[500];
+			for (int j = 0; j < input.length; j++) {
+				input[j] = random.nextInt(100) == 0 ? 'c' : (random.nextBoolean() ? 'a' : 'b');
+			}
+			final String text = new String(input);
+			assertThat(text, regex.matchesWithinString(text), is(pattern.matcher(text).find()));
+		}
+		System.gc();
+		final long after = runtime.totalMemory() - runtime.freeMemory();
+		assertThat(after - before, lessThan(64L * 1024 * 1024));
+	}
+
+	@Test
+	public void testRandomRegexesMatchLikeJava() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testRandomRegexesMatchLikeJava()");
+		final Random random = new Random(20261018L);
+		for (int r = 0; r < 2000; r++) {
+			final String raw = randomRegex(random, 3);
+			final Regex regex = new UnescapedSequence(raw).toRegex();
+			final java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(raw);
+			for (int i = 0; i < 20; i++) {
+				final StringBuilder input = new StringBuilder();
+				final int length = random.nextInt(9);
+				for (int c = 0; c < length; c++) {
+					input.append("ab\n".charAt(random.nextInt(3)));
+				}
+				final String text = input.toString();
+				assertThat(raw + " entire " + text, regex.matchesEntireString(text), is(pattern.matcher(text).matches()));
+				assertThat(raw + " within " + text, regex.matchesWithinString(text), is(pattern.matcher(text).find()));
+			}
+		}
+	}
+
+	private static String randomRegex(Random random, int depth) {
+		final int choice = random.nextInt(depth <= 0 ? 6 : 11);
+		switch (choice) {
+			case 0:
+				return "a";
+			case 1:
+				return "b";
+			case 2:
+				return "[ab]";
+			case 3:
+				return "[^a]";
+			case 4:
+				return ".";
+			case 5:
+				return new String[]{"^", "\\A", "\\z", "(?m)^", "(?m)$"}[random.nextInt(5)];
+			case 6:
+				return randomRegex(random, depth - 1) + randomRegex(random, depth - 1);
+			case 7:
+				return "(?:" + randomRegex(random, depth - 1) + "|" + randomRegex(random, depth - 1) + ")";
+			case 8:
+				return "(" + randomRegex(random, depth - 1) + ")";
+			default:
+				final String[] quantifiers = {"*", "+", "?", "{2}", "{1,3}", "{0,2}", "*?", "+?", "??"};
+				return "(?:" + randomRegex(random, depth - 1) + ")" + quantifiers[random.nextInt(quantifiers.length)];
+		}
+	}
+
+	@Test
+	public void testBranchingFromAnOrGroup() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testBranchingFromAnOrGroup()");
+		final OrGroup<PartialRegex> base = Regex.startingAnywhere().beginOrGroup().literal("a");
+		final OrGroup<PartialRegex> first = base.or().literal("a");
+		final OrGroup<PartialRegex> second = base.or().literal("b");
+		assertThat(second.endOrGroup().toRegex().getRegex(), is(Regex.startingAnywhere().beginOrGroup().literal("a").or().literal("b").endOrGroup().toRegex().getRegex()));
+		assertThat(first.endOrGroup().toRegex().getRegex(), is(Regex.startingAnywhere().beginOrGroup().literal("a").or().literal("a").endOrGroup().toRegex().getRegex()));
+		assertThat(second.toRegexString(), is("((a)|(b))"));
+		assertThat(first.toRegexString(), is("((a)|(a))"));
+
+		// extending a branch doesn't change its siblings either
+		final OrGroup<PartialRegex> third = first.or().literal("c");
+		final OrGroup<PartialRegex> fourth = first.or().literal("d");
+		assertThat(third.toRegexString(), is("((a)|(a)|(c))"));
+		assertThat(fourth.toRegexString(), is("((a)|(a)|(d))"));
+		assertThat(fourth.endOrGroup().toRegex().matches("d"), is(true));
+		assertThat(fourth.endOrGroup().toRegex().matches("c"), is(false));
+	}
+
+	@Test
+	public void testCaseInsensitiveNonLettersAreNotRequiredLiterals() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testCaseInsensitiveNonLettersAreNotRequiredLiterals()");
+		// roman numerals and circled letters have case but aren't letters
+		for (String raw : new String[]{"(?iu)\u2160x", "(?iu)\u24b6x"}) {
+			final Regex regex = new UnescapedSequence(raw).toRegex();
+			assertThat(regex.getRequiredLiterals(), not(hasItem(containsString(raw.substring(5, 6)))));
+			final String lower = raw.substring(5).toLowerCase();
+			final String upper = raw.substring(5).toUpperCase();
+			assertThat(java.util.regex.Pattern.compile(raw).matcher(lower).find(), is(true));
+			assertThat(regex.matches(lower), is(true));
+			assertThat(regex.matches(upper), is(true));
+			assertThat(regex.reusingMatchers().matches(lower), is(true));
+			assertThat(regex.getAllMatches("a " + lower).size(), is(1));
+		}
+		final Regex built = Regex.startingAnywhere().literalCaseInsensitive("\u2160").toRegex();
+		for (String input : new String[]{"\u2170", "\u2160", "\u24d0", "\u24b6"}) {
+			assertThat(built.matches(input), is(java.util.regex.Pattern.compile(built.getRegex()).matcher(input).find()));
+		}
+	}
+
+	@Test
+	public void testMatchBudgetCoversMatchersReplacersAndSplitters() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMatchBudgetCoversMatchersReplacersAndSplitters()");
+		Regex limited = Regex.startingFromTheBeginning()
+				.beginGroup().literal('a').oneOrMore().endGroup().oneOrMore()
+				.numberedBackReference(1).literal('b').toRegex()
+				.withBudget(MatchBudget.stepLimit(100000));
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			text.append('a');
+		}
+		final String input = text.append("c b").toString();
+
+		assertThat(limited.replaceWith().literal("x").getReplacer().replaceAll("aaab"), is("x"));
+		assertThat(limited.toSplitter().split("aaabc").length, is(2));
+		try {
+			limited.replaceWith().literal("x").getReplacer().replaceAll(input);
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		try {
+			limited.replaceWith().literal("x").getReplacer().replaceFirst(input);
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		try {
+			limited.getMatchResultsStream(input).count();
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		try {
+			limited.toSplitter().split(input);
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		try {
+			limited.getMatcher(input).find();
+			Assert.fail("The step limit should have been exceeded");
+		} catch (MatchBudgetExceededException expected) {
+			assertThat(expected.getSteps(), is(100001L));
+		}
+		assertThat(limited.getMatcher("aaab", null).find(), is(true));
+	}
+
+	@Test
+	public void testStreamedReplacementsExpandLikeMatcher() throws IOException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testStreamedReplacementsExpandLikeMatcher()");
+		final PartialRegex regex = new UnescapedSequence("(?<word>[a-z]+)=(\\d+)");
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			text.append("item").append((char) ('a' + i % 26)).append('=').append(i).append(i % 3 == 0 ? ", " : " and ");
+		}
+		final String input = text.toString();
+		for (String replacement : new String[]{"${word}:$2", "\\$$1", "<$0>", ""}) {
+			for (int chunkSize : new int[]{1, 7, 64, 8192}) {
+				StringWriter out = new StringWriter();
+				final RegexStreamer streamer = regex.toRegex().toStreamer().withMaximumMatchLength(20).withChunkSize(chunkSize);
+				assertThat(streamer.replaceAll(new StringReader(input), out, replacement), is(200L));
+				assertThat(out.toString(), is(regex.getMatcher(input).replaceAll(replacement)));
+			}
+		}
+	}
+
+	@Test
+	public void testSlowMatchBlamesThePartSlowestForItsOperation() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testSlowMatchBlamesThePartSlowestForItsOperation()");
+		// the back references mean the parts must be run by the backtracking engine
+		final String unanchored = "(a+)+\\1b";
+		final String leadingC = "c(a+)+\\1b";
+		final SlowMatchSampler sampler = new SlowMatchSampler(1);
+		final Regex regex = new UnescapedSequence(unanchored).add(new UnescapedSequence(leadingC)).toRegex()
+				.withSlowMatchSampler(sampler);
+		StringBuilder text = new StringBuilder("c");
+		for (int i = 0; i < 30; i++) {
+			text.append('a');
+		}
+		// only the leading c part is slow from the start of the input, both are slow when searching,
+		// but the whole regex requires "bc" so it isn't slow at all
+		final String input = text.append("c b").toString();
+
+		assertThat(regex.matchesEntireString(input), is(false));
+		final SlowMatch entire = sampler.getSlowestMatches().get(0);
+		assertThat(entire.getOperation(), is(RegexOperation.MATCHES_ENTIRE_STRING));
+		assertThat(entire.getResponsiblePart().get(), is(leadingC));
+
+		sampler.clear();
+		assertThat(regex.getAllMatches(input).isEmpty(), is(true));
+		final SlowMatch all = sampler.getSlowestMatches().get(0);
+		assertThat(all.getOperation(), is(RegexOperation.GET_ALL_MATCHES));
+		assertThat(all.getResponsiblePart().get(), is(unanchored));
+	}
+
+	@Test
+	public void testMetricsRecordFunctionReplacementsAndSplits() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testMetricsRecordFunctionReplacementsAndSplits()");
+		final RegexStatistics stats = new RegexStatistics();
+		final Regex regex = Regex.startingAnywhere().literal(",").toRegex().withMetrics(stats);
+		final RegexReplacer replacer = regex.replaceWith().literal(";").getReplacer();
+		assertThat(replacer.replaceAll("a,b,c", result -> "[" + result.start() + "]"), is("a[1]b[3]c"));
+		assertThat(replacer.replaceAll("abc", result -> "-"), is("abc"));
+		assertThat(replacer.replaceFirst("a,b,c", result -> "-"), is("a-b,c"));
+		assertThat(regex.toSplitter().split("a,b,c").length, is(3));
+		assertThat(regex.toSplitter().splitToList("abc").size(), is(1));
+		assertThat(regex.toSplitter().split("a,b,c", 1).length, is(1));
+
+		RegexStatistics.OperationStatistics replacements = stats.getStatistics(RegexOperation.REPLACE_ALL);
+		assertThat(replacements.getCalls(), is(2L));
+		assertThat(replacements.getMatches(), is(1L));
+		assertThat(stats.getStatistics(RegexOperation.REPLACE_FIRST).getMatches(), is(1L));
+		RegexStatistics.OperationStatistics splits = stats.getStatistics(RegexOperation.SPLIT);
+		assertThat(splits.getCalls(), is(3L));
+		assertThat(splits.getMatches(), is(1L));
+		assertThat(splits.getInputLengths().getMax(), is(5L));
+	}
+
+	@Test
+	public void testStringSignaturesAreStillAvailable() throws NoSuchMethodException {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testStringSignaturesAreStillAvailable()");
+		// code compiled against releases that only accepted Strings refers to these exact methods
+		for (String name : new String[]{"matches", "matchesEntireString", "matchesBeginningOf", "matchesEndOf",
+			"matchesWithinString", "getMatcher", "getAllMatches", "getFirstMatchFrom", "doesNotMatchWithin"}) {
+			assertThat(name, Regex.class.getMethod(name, String.class).getReturnType(), notNullValue());
+		}
+		for (String name : new String[]{"matchesEntireString", "matchesWithinString", "getMatcher", "getMatchResult", "getAllMatches"}) {
+			assertThat(name, PartialRegex.class.getMethod(name, String.class).getReturnType(), notNullValue());
+		}
+		Regex.class.getMethod("matchesAny", String.class, Regex[].class);
+		RegexReplacer.class.getMethod("replaceAll", String.class, Function.class);
+		RegexSplitter.class.getMethod("splitToList", String.class);
+		RegexValueFinder.class.getMethod("getAllValuesFrom", String.class);
+
+		final Regex regex = Regex.startingAnywhere().beginNamedCapture("n").digits().endNamedCapture().toRegex();
+		final String text = "a1b22";
+		assertThat(regex.matches(text), is(true));
+		assertThat(regex.getAllMatches(text).size(), is(2));
+		assertThat(regex.replaceWith().literal("#").getReplacer().replaceAll(text), is("a#b#"));
+		assertThat(regex.toSplitter().splitToList(text), contains("a", "b"));
+		assertThat(regex.returnValueFrom("n").getAllValuesFrom(text), contains("1", "22"));
+	}
+
+	@Test
+	public void testLiteralAlternationsOutsideLatin1() {
+		System.out.println("nz.co.gregs.regexi.api.RegexTest.testLiteralAlternationsOutsideLatin1()");
+		final Regex regex = Regex.startOrGroup().literal("yes")
+				.or().literal("\u65e5\u672c")
+				.or().literal("\u03a9mega")
+				.or().literal("\u00e9t\u00e9")
+				.or().literal("\u65e5")
+				.endOrGroup().toRegex();
+		final java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(regex.getRegex());
+		for (String text : new String[]{"no", "yes", "\u65e5\u672c\u8a9e", "\u65e5\u66dc", "an \u03a9mega and an \u00e9t\u00e9 yes",
+			"\u03a9meg\u65e5", "\uffff\u0100y\u00e9yes"}) {
+			final List<String> expected = new ArrayList<>();
+			final Matcher matcher = pattern.matcher(text);
+			while (matcher.find()) {
+				expected.add(matcher.group());
+			}
+			assertThat(text, regex.getAllMatches(text).stream().map(Match::getEntireMatch).collect(Collectors.toList()), is(expected));
+			assertThat(text, regex.matchesWithinString(text), is(!expected.isEmpty()));
+		}
+	}
+
 	private void shouldMatchTests(final Regex regex, String testStr, String days, String hours, String minutes, String seconds, String nanos) {
 //		assertThat(toRegex.matchesWithinString(testStr), is(true));
 		if (regex.matchesWithinString(testStr)) {